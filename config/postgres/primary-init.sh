@@ -0,0 +1,11 @@
+#!/bin/bash
+# Runs once, when the primary's data volume is first initialized: adds the role and pg_hba entry
+# postgres-replica uses to stream WAL. An existing volume needs these applied by hand.
+set -euo pipefail
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" \
+  -v password="${REPLICATION_PASSWORD:-replicator}" <<'EOSQL'
+CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD :'password';
+EOSQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,19 @@
+#!/bin/bash
+# Clones the primary into an empty data volume as a streaming hot standby, then starts Postgres.
+set -euo pipefail
+
+PRIMARY_HOST="${PRIMARY_HOST:-postgres}"
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  mkdir -p "$PGDATA"
+  chown postgres:postgres "$PGDATA"
+  chmod 700 "$PGDATA"
+  until gosu postgres pg_isready -h "$PRIMARY_HOST" -p 5432 -q; do
+    echo "Waiting for $PRIMARY_HOST..."
+    sleep 1
+  done
+  gosu postgres env PGPASSWORD="${REPLICATION_PASSWORD:-replicator}" \
+    pg_basebackup -h "$PRIMARY_HOST" -p 5432 -U replicator -D "$PGDATA" -X stream -R
+fi
+
+exec docker-entrypoint.sh postgres -c hot_standby_feedback=on
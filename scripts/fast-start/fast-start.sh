@@ -0,0 +1,87 @@
+#!/bin/bash
+# Trains the AppCDS archives for the fast-start jars and compares startup against the fat jars.
+#
+# Prerequisites: mvn -Pfast-start package -DskipTests, and Postgres/Kafka reachable on localhost
+# (docker compose up -d postgres kafka). Usage: scripts/fast-start/fast-start.sh [api|ingestion]...
+#
+# For each module it runs the fat jar, then the AOT jar without and with the archive, and prints
+# time to a healthy /actuator/health, Spring's own "Started ... in" figure and resident memory.
+
+set -u
+cd "$(dirname "$0")/../.."
+
+export DB_HOST=${DB_HOST:-localhost}
+export KAFKA_BOOTSTRAP_SERVERS=${KAFKA_BOOTSTRAP_SERVERS:-localhost:9092}
+export INGESTION_DISPATCHER_ENABLED=${INGESTION_DISPATCHER_ENABLED:-true}
+export OTEL_SDK_DISABLED=true
+RUNS=${RUNS:-3}
+MODULES=("$@")
+[ ${#MODULES[@]} -eq 0 ] && MODULES=(api ingestion)
+
+module_port() {
+    case "$1" in
+        api) echo 18080 ;;
+        ingestion) echo 18081 ;;
+    esac
+}
+
+# Starts a JVM, waits for health, prints "<ready ms> <spring s> <rss MB>" and stops it.
+measure() {
+    local port=$1 log=$2
+    shift 2
+    local start=$(date +%s%N)
+    SERVER_PORT=$port java "$@" > "$log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 600); do
+        if curl -sf "http://localhost:$port/actuator/health" > /dev/null; then
+            local ready=$(( ($(date +%s%N) - start) / 1000000 ))
+            local rss=$(awk '/VmRSS/ {printf "%.0f", $2 / 1024}' /proc/$pid/status)
+            local spring=$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$log" | grep -oE '[0-9.]+ seconds' | cut -d' ' -f1)
+            kill $pid; wait $pid 2> /dev/null
+            echo "$ready ${spring:-?} $rss"
+            return 0
+        fi
+        if ! kill -0 $pid 2> /dev/null; then
+            echo "❌ exited before becoming healthy, see $log" >&2
+            return 1
+        fi
+        sleep 0.1
+    done
+    kill $pid; wait $pid 2> /dev/null
+    echo "❌ not healthy after 60s, see $log" >&2
+    return 1
+}
+
+report() {
+    local label=$1 port=$2 log=$3
+    shift 3
+    for run in $(seq 1 "$RUNS"); do
+        read -r ready spring rss < <(measure "$port" "$log" "$@") || return 1
+        printf "%-12s %-18s %4s %10s %10s %8s\n" "$MODULE" "$label" "$run" "$ready" "$spring" "$rss"
+    done
+}
+
+printf "%-12s %-18s %4s %10s %10s %8s\n" "module" "mode" "run" "ready ms" "spring s" "rss MB"
+for MODULE in "${MODULES[@]}"; do
+    dir="utility-explorer-$MODULE"
+    fat="$dir/target/$dir-1.0.0.jar"
+    thin="$dir/target/fast-start/$dir-1.0.0-fast-start.jar"
+    archive="$dir/target/fast-start/app.jsa"
+    port=$(module_port "$MODULE")
+    if [ -z "$port" ] || [ ! -f "$fat" ] || [ ! -f "$thin" ]; then
+        echo "❌ $MODULE: missing jars, run mvn -Pfast-start package -DskipTests first" >&2
+        continue
+    fi
+
+    # Training run: refresh the context once and write the classes it loaded to the archive
+    if ! java -XX:ArchiveClassesAtExit="$archive" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+            -jar "$thin" > "$dir/target/fast-start/training.log" 2>&1; then
+        echo "❌ $MODULE: training run failed, see $dir/target/fast-start/training.log" >&2
+        continue
+    fi
+
+    log="$dir/target/fast-start/measure.log"
+    report "fat jar" "$port" "$log" -jar "$fat" || continue
+    report "aot" "$port" "$log" -Dspring.aot.enabled=true -jar "$thin" || continue
+    report "aot + appcds" "$port" "$log" -XX:SharedArchiveFile="$archive" -Dspring.aot.enabled=true -jar "$thin"
+done
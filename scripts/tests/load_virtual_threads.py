@@ -0,0 +1,90 @@
+"""
+Load comparison for the API's threading modes.
+
+Run once against a stack started normally and once with JAVA_VERSION=21 VIRTUAL_THREADS_ENABLED=true
+(images built with mvn -Pjava21), then compare the printed tables. Each level sends a mix of /map
+requests and Util Agent questions from that many concurrent clients for DURATION seconds.
+
+    python3 scripts/tests/load_virtual_threads.py --label platform
+    python3 scripts/tests/load_virtual_threads.py --label virtual
+"""
+import argparse
+import statistics
+import threading
+import time
+
+import requests
+
+MAP_PARAMS = {
+    "metricId": "ELECTRICITY_RETAIL_PRICE_CENTS_PER_KWH",
+    "sourceId": "EIA",
+    "geoLevel": "STATE",
+    "period": "latest",
+}
+QUESTIONS = [
+    "Which state has the cheapest electricity?",
+    "What is the average electricity price in Texas?",
+    "Show the most expensive states for electricity",
+]
+
+
+def worker(base_url, api_key, agent_share, deadline, results, lock, index):
+    session = requests.Session()
+    count = 0
+    while time.monotonic() < deadline:
+        count += 1
+        use_agent = agent_share > 0 and count % round(1 / agent_share) == 0
+        start = time.monotonic()
+        try:
+            if use_agent:
+                resp = session.post(f"{base_url}/api/v1/util-agent/query",
+                                    json={"question": QUESTIONS[(index + count) % len(QUESTIONS)]},
+                                    headers={"X-API-Key": api_key}, timeout=30)
+            else:
+                resp = session.get(f"{base_url}/api/v1/map", params=MAP_PARAMS, timeout=30)
+            ok = resp.status_code < 500
+        except requests.RequestException:
+            ok = False
+        elapsed_ms = (time.monotonic() - start) * 1000
+        with lock:
+            results.append((elapsed_ms, ok))
+
+
+def run_level(base_url, api_key, agent_share, clients, duration):
+    results, lock = [], threading.Lock()
+    deadline = time.monotonic() + duration
+    threads = [threading.Thread(target=worker, args=(base_url, api_key, agent_share, deadline, results, lock, i))
+               for i in range(clients)]
+    for thread in threads:
+        thread.start()
+    for thread in threads:
+        thread.join()
+    latencies = sorted(ms for ms, _ in results)
+    errors = sum(1 for _, ok in results if not ok)
+    if not latencies:
+        return clients, 0, 0, 0, 0, 0, errors
+    quantiles = statistics.quantiles(latencies, n=100) if len(latencies) > 1 else latencies * 99
+    return (clients, len(latencies) / duration, statistics.median(latencies),
+            quantiles[94], quantiles[98], latencies[-1], errors)
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("--base-url", default="http://localhost:8090")
+    parser.add_argument("--api-key", default="dev_key_change_me")
+    parser.add_argument("--label", default="run")
+    parser.add_argument("--levels", default="10,50,200,400")
+    parser.add_argument("--duration", type=int, default=30)
+    parser.add_argument("--agent-share", type=float, default=0.1,
+                        help="Fraction of requests sent to the Util Agent (slow upstream calls)")
+    args = parser.parse_args()
+
+    print(f"{args.label}: {args.base_url}, {args.duration}s per level, agent share {args.agent_share}")
+    print(f"{'clients':>8} {'req/s':>8} {'p50 ms':>8} {'p95 ms':>8} {'p99 ms':>8} {'max ms':>8} {'errors':>7}")
+    for clients in (int(level) for level in args.levels.split(",")):
+        row = run_level(args.base_url, args.api_key, args.agent_share, clients, args.duration)
+        print(f"{row[0]:>8} {row[1]:>8.1f} {row[2]:>8.1f} {row[3]:>8.1f} {row[4]:>8.1f} {row[5]:>8.1f} {row[6]:>7}")
+
+
+if __name__ == "__main__":
+    main()
@@ -3,12 +3,16 @@ package com.utilityexplorer.adapter.acs;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.utilityexplorer.shared.adapter.IngestionAdapter;
+import com.utilityexplorer.shared.adapter.IngestionMetrics;
+import com.utilityexplorer.shared.concurrent.VirtualThreads;
 import com.utilityexplorer.shared.dto.IngestionEvent;
 import com.utilityexplorer.shared.persistence.Metric;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -22,8 +26,9 @@ import java.util.Iterator;
 public class AcsApiAdapter implements IngestionAdapter {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final HttpClient httpClient = VirtualThreads.httpClientBuilder().build();
     private final KafkaTemplate<String, IngestionEvent> kafkaTemplate;
+    private final IngestionMetrics ingestionMetrics;
 
     @Value("${CENSUS_API_KEY:}")
     private String apiKey;
@@ -31,8 +36,9 @@ public class AcsApiAdapter implements IngestionAdapter {
     @Value("${ingestion.kafka.topic:raw-utility-data}")
     private String topic;
 
-    public AcsApiAdapter(KafkaTemplate<String, IngestionEvent> kafkaTemplate) {
+    public AcsApiAdapter(KafkaTemplate<String, IngestionEvent> kafkaTemplate, IngestionMetrics ingestionMetrics) {
         this.kafkaTemplate = kafkaTemplate;
+        this.ingestionMetrics = ingestionMetrics;
     }
 
     @Override
@@ -40,6 +46,10 @@ public class AcsApiAdapter implements IngestionAdapter {
         return "CENSUS_ACS";
     }
 
+    /**
+     * @throws IllegalStateException if the Census API answers with an error status or an unreadable body
+     * @throws UncheckedIOException if the request fails
+     */
     @Override
     public void collect(Metric metric) {
         String ingestionConfig = metric.getIngestionConfigJson();
@@ -81,24 +91,28 @@ public class AcsApiAdapter implements IngestionAdapter {
 
             if (response.statusCode() == 200) {
                 System.out.println("[ACS_API] Success! Processing response...");
-                processResponse(metric, response.body(), year);
+                ingestionMetrics.recordFetch(getAdapterId(), response.body());
+                processResponse(metric, response.body(), year, Instant.now());
             } else {
-                System.err.println("[ACS_API] Error: " + response.statusCode() + " - " + response.body());
+                throw new IllegalStateException("[ACS_API] " + metric.getMetricId() + " fetch returned "
+                    + response.statusCode() + ": " + response.body());
             }
 
-        } catch (Exception e) {
-            System.err.println("Failed to fetch ACS data for metric: " + metric.getMetricId());
-            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ACS fetch interrupted for metric: " + metric.getMetricId(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to fetch ACS data for metric: " + metric.getMetricId(), e);
         }
     }
 
-    private void processResponse(Metric metric, String jsonBody, int year) {
+    private void processResponse(Metric metric, String jsonBody, int year, Instant fetchedAt) {
         try {
             JsonNode root = objectMapper.readTree(jsonBody);
             
             if (!root.isArray() || root.size() < 2) {
-                 System.out.println("Unexpected ACS response format (expected array of arrays).");
-                 return;
+                throw new IllegalStateException("Unexpected ACS response format for " + metric.getMetricId()
+                    + " (expected array of arrays)");
             }
 
             // Census API returns:
@@ -121,8 +135,7 @@ public class AcsApiAdapter implements IngestionAdapter {
             }
 
             if (valueIndex == -1 || stateIndex == -1) {
-                System.err.println("Could not find value or state column in ACS response.");
-                return;
+                throw new IllegalStateException("No value or state column in ACS response for " + metric.getMetricId());
             }
 
             int count = 0;
@@ -151,8 +164,10 @@ public class AcsApiAdapter implements IngestionAdapter {
                     
                     event.setValue(BigDecimal.valueOf(value));
                     event.setAggregated(true);
+                    event.setFetchedAt(fetchedAt);
                     event.setAggregationMethod("MEDIAN"); // Or whatever the variable represents, hardcoded for now
 
+                    event.setPublishedAt(Instant.now());
                     kafkaTemplate.send(topic, metric.getMetricId(), event);
                     count++;
                 } catch (Exception ex) {
@@ -160,9 +175,10 @@ public class AcsApiAdapter implements IngestionAdapter {
                 }
             }
             System.out.println("Published " + count + " events for " + metric.getMetricId());
+            ingestionMetrics.recordRows(getAdapterId(), count);
 
-        } catch (Exception e) {
-            System.err.println("Error parsing ACS response: " + e.getMessage());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable ACS response for " + metric.getMetricId(), e);
         }
     }
 
@@ -3,12 +3,16 @@ package com.utilityexplorer.adapter.eia;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.utilityexplorer.shared.adapter.IngestionAdapter;
+import com.utilityexplorer.shared.adapter.IngestionMetrics;
+import com.utilityexplorer.shared.concurrent.VirtualThreads;
 import com.utilityexplorer.shared.dto.IngestionEvent;
 import com.utilityexplorer.shared.persistence.Metric;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -24,9 +28,10 @@ import java.util.Iterator;
 public class EiaApiAdapter implements IngestionAdapter {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final HttpClient httpClient = VirtualThreads.httpClientBuilder().build();
     private final KafkaTemplate<String, IngestionEvent> kafkaTemplate;
-    private final com.utilityexplorer.shared.persistence.FactValueRepository factValueRepository;
+    private final com.utilityexplorer.shared.persistence.FactWatermarkRepository factWatermarkRepository;
+    private final IngestionMetrics ingestionMetrics;
 
     @Value("${EIA_API_KEY:}")
     private String apiKey;
@@ -35,9 +40,11 @@ public class EiaApiAdapter implements IngestionAdapter {
     private String topic;
 
     public EiaApiAdapter(KafkaTemplate<String, IngestionEvent> kafkaTemplate,
-                         com.utilityexplorer.shared.persistence.FactValueRepository factValueRepository) {
+                         com.utilityexplorer.shared.persistence.FactWatermarkRepository factWatermarkRepository,
+                         IngestionMetrics ingestionMetrics) {
         this.kafkaTemplate = kafkaTemplate;
-        this.factValueRepository = factValueRepository;
+        this.factWatermarkRepository = factWatermarkRepository;
+        this.ingestionMetrics = ingestionMetrics;
     }
     
     // Constructor for testing injects mocked HttpClient? 
@@ -48,7 +55,7 @@ public class EiaApiAdapter implements IngestionAdapter {
      * Collects data from EIA API.
      * 
      * Design Decision (Incremental Loading):
-     * Before fetching, we query the FactValueRepository for the MAX(periodStart) for this metric.
+     * Before fetching, we read the latest periodStart for this metric from the fact_watermark table.
      * If found (e.g., 2023-12-01), we ask the API for data starting 2024-01 to avoid re-fetching old data.
      * This reduces API latency and database write load.
      */
@@ -57,6 +64,10 @@ public class EiaApiAdapter implements IngestionAdapter {
         return "EIA_API";
     }
 
+    /**
+     * @throws IllegalStateException if EIA answers with an error status or an unreadable body
+     * @throws UncheckedIOException if the request fails
+     */
     @Override
     public void collect(Metric metric) {
         String ingestionConfig = metric.getIngestionConfigJson();
@@ -88,7 +99,7 @@ public class EiaApiAdapter implements IngestionAdapter {
                     .append("&seriesid=").append(seriesId);
 
             // Check for incremental load
-            LocalDate latestDate = factValueRepository.findLatestPeriodForMetricAndSource(metric.getMetricId(), "EIA");
+            LocalDate latestDate = factWatermarkRepository.findLatestPeriodStart(metric.getMetricId(), "EIA");
             if (latestDate != null) {
                 // Determine start date for API request (latest + 1 month)
                 // EIA API format for start parameter handles YYYY-MM
@@ -112,29 +123,29 @@ public class EiaApiAdapter implements IngestionAdapter {
 
             if (response.statusCode() == 200) {
                 System.out.println("[EIA_API] Success! Processing response...");
-                processResponse(metric, response.body());
+                ingestionMetrics.recordFetch(getAdapterId(), response.body());
+                processResponse(metric, response.body(), Instant.now());
             } else {
-                System.err.println("[EIA_API] Error: " + response.statusCode() + " - " + response.body());
+                throw new IllegalStateException("[EIA_API] " + metric.getMetricId() + " fetch returned "
+                    + response.statusCode() + ": " + response.body());
             }
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            System.err.println("EIA fetch interrupted for metric: " + metric.getMetricId());
-        } catch (Exception e) {
-            System.err.println("Failed to fetch EIA data for metric: " + metric.getMetricId());
-            e.printStackTrace();
+            throw new IllegalStateException("EIA fetch interrupted for metric: " + metric.getMetricId(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to fetch EIA data for metric: " + metric.getMetricId(), e);
         }
     }
 
-    private void processResponse(Metric metric, String jsonBody) {
+    private void processResponse(Metric metric, String jsonBody, Instant fetchedAt) {
         try {
             JsonNode root = objectMapper.readTree(jsonBody);
             JsonNode dataNode = root.path("response").path("data");
             
             if (dataNode.isMissingNode() || !dataNode.isArray()) {
-                 // Fallback for some error responses or structure mismatched
-                 System.out.println("No 'response.data' array found in EIA response.");
-                 return;
+                // EIA reports some errors with a 200 and no data array
+                throw new IllegalStateException("No 'response.data' array in EIA response for " + metric.getMetricId());
             }
 
             Iterator<JsonNode> elements = dataNode.elements();
@@ -165,7 +176,9 @@ public class EiaApiAdapter implements IngestionAdapter {
                     event.setPeriodEnd(end);
                     event.setValue(BigDecimal.valueOf(value));
                     event.setAggregated(false);
+                    event.setFetchedAt(fetchedAt);
 
+                    event.setPublishedAt(Instant.now());
                     kafkaTemplate.send(topic, metric.getMetricId(), event);
                     count++;
 
@@ -176,9 +189,10 @@ public class EiaApiAdapter implements IngestionAdapter {
                 }
             }
             System.out.println("Published " + count + " events for " + metric.getMetricId());
+            ingestionMetrics.recordRows(getAdapterId(), count);
 
-        } catch (Exception e) {
-            System.err.println("Error parsing EIA response: " + e.getMessage());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable EIA response for " + metric.getMetricId(), e);
         }
     }
 
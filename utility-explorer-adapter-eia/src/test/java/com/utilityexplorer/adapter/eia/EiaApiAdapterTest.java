@@ -1,8 +1,9 @@
 package com.utilityexplorer.adapter.eia;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utilityexplorer.shared.adapter.IngestionMetrics;
 import com.utilityexplorer.shared.dto.IngestionEvent;
-import com.utilityexplorer.shared.persistence.FactValueRepository;
+import com.utilityexplorer.shared.persistence.FactWatermarkRepository;
 import com.utilityexplorer.shared.persistence.Metric;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,7 +31,10 @@ public class EiaApiAdapterTest {
     private KafkaTemplate<String, IngestionEvent> kafkaTemplate;
 
     @Mock
-    private FactValueRepository factValueRepository;
+    private FactWatermarkRepository factWatermarkRepository;
+
+    @Mock
+    private IngestionMetrics ingestionMetrics;
 
     @Mock
     private HttpClient httpClient;
@@ -59,7 +63,7 @@ public class EiaApiAdapterTest {
     @Test
     void testCollect_FullFetch_WhenNoExistingData() {
         // Given
-        when(factValueRepository.findLatestPeriodForMetricAndSource(anyString(), anyString()))
+        when(factWatermarkRepository.findLatestPeriodStart(anyString(), anyString()))
             .thenReturn(null);
 
         // When (We catch exception because HttpClient is hard to mock without refactoring)
@@ -71,14 +75,14 @@ public class EiaApiAdapterTest {
 
         // Then
         // Verify we checked the repository
-        verify(factValueRepository).findLatestPeriodForMetricAndSource("ELECTRICITY_PRICE", "EIA");
+        verify(factWatermarkRepository).findLatestPeriodStart("ELECTRICITY_PRICE", "EIA");
     }
 
     @Test
     void testCollect_IncrementalFetch_WhenDataExists() {
         // Given
         LocalDate lastDate = LocalDate.of(2023, 12, 1);
-        when(factValueRepository.findLatestPeriodForMetricAndSource(anyString(), anyString()))
+        when(factWatermarkRepository.findLatestPeriodStart(anyString(), anyString()))
             .thenReturn(lastDate);
 
         // When
@@ -89,7 +93,7 @@ public class EiaApiAdapterTest {
         }
 
         // Then
-        verify(factValueRepository).findLatestPeriodForMetricAndSource("ELECTRICITY_PRICE", "EIA");
+        verify(factWatermarkRepository).findLatestPeriodStart("ELECTRICITY_PRICE", "EIA");
         // In a real integration test we would verify the URL formed.
     }
 }
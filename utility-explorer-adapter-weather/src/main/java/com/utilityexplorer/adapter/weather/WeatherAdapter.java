@@ -1,6 +1,7 @@
 package com.utilityexplorer.adapter.weather;
 
 import com.utilityexplorer.shared.adapter.IngestionAdapter;
+import com.utilityexplorer.shared.adapter.IngestionMetrics;
 import com.utilityexplorer.shared.dto.IngestionEvent;
 import com.utilityexplorer.shared.dto.MetricDefinition;
 import com.utilityexplorer.shared.persistence.Metric;
@@ -9,6 +10,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Random;
@@ -17,6 +19,7 @@ import java.util.Random;
 public class WeatherAdapter implements IngestionAdapter {
 
     private final KafkaTemplate<String, IngestionEvent> kafkaTemplate;
+    private final IngestionMetrics ingestionMetrics;
     private final Random random = new Random();
 
     @Value("${ingestion.kafka.topic:raw-utility-data}")
@@ -39,8 +42,9 @@ public class WeatherAdapter implements IngestionAdapter {
         STATE_FIPS.put("WI", "55"); STATE_FIPS.put("WY", "56");
     }
 
-    public WeatherAdapter(KafkaTemplate<String, IngestionEvent> kafkaTemplate) {
+    public WeatherAdapter(KafkaTemplate<String, IngestionEvent> kafkaTemplate, IngestionMetrics ingestionMetrics) {
         this.kafkaTemplate = kafkaTemplate;
+        this.ingestionMetrics = ingestionMetrics;
     }
 
     @Override
@@ -61,21 +65,25 @@ public class WeatherAdapter implements IngestionAdapter {
     public void collect(Metric metric) {
         System.out.println("WeatherAdapter: Collecting data for " + metric.getMetricId());
 
+        // Mock readings are "fetched" once per collection
+        Instant fetchedAt = Instant.now();
+
         // Publish NATIONAL total
-        publishEvent(metric, "NATIONAL", "US-TOTAL");
+        int published = publishEvent(metric, "NATIONAL", "US-TOTAL", fetchedAt);
 
         // Publish STATE values
         for (String state : STATE_FIPS.keySet()) {
-             publishEvent(metric, "STATE", STATE_FIPS.get(state));
+             published += publishEvent(metric, "STATE", STATE_FIPS.get(state), fetchedAt);
         }
+        ingestionMetrics.recordRows(getAdapterId(), published);
     }
 
-    private void publishEvent(Metric metric, String geoLevel, String geoId) {
+    private int publishEvent(Metric metric, String geoLevel, String geoId, Instant fetchedAt) {
         BigDecimal value = generateMockValue(metric.getMetricId());
         
         if (value == null) {
             System.out.println("WeatherAdapter: No mock logic for metric " + metric.getMetricId());
-            return;
+            return 0;
         }
 
         IngestionEvent event = new IngestionEvent();
@@ -86,14 +94,16 @@ public class WeatherAdapter implements IngestionAdapter {
         event.setPeriodStart(LocalDate.now());
         event.setPeriodEnd(LocalDate.now());
         event.setValue(value);
+        event.setFetchedAt(fetchedAt);
         // event.setUnit(metric.getUnit()); // Not in DTO
-        // event.setIngestionTimestamp(Instant.now().toString()); // Not in DTO
 
         if ("US-TOTAL".equals(geoId) || "01".equals(geoId)) {
              System.out.println("WeatherAdapter: Publishing event: " + event + " (GeoID: " + geoId + ")");
         }
         
+        event.setPublishedAt(Instant.now());
         kafkaTemplate.send(topic, event);
+        return 1;
     }
 
     private BigDecimal generateMockValue(String metricId) {
@@ -30,7 +30,9 @@ public class IngestionController {
             ));
         }
 
-        dispatcher.runOnce();
+        if (!dispatcher.runOnce()) {
+            return busy();
+        }
         return ResponseEntity.ok(Map.of(
             "status", "started",
             "message", "Ingestion dispatched."
@@ -48,10 +50,19 @@ public class IngestionController {
             ));
         }
 
-        dispatcher.runOnceForSource(sourceId);
+        if (!dispatcher.runOnceForSource(sourceId)) {
+            return busy();
+        }
         return ResponseEntity.ok(Map.of(
             "status", "started",
             "message", "Ingestion dispatched for " + sourceId
         ));
     }
+
+    private ResponseEntity<Map<String, String>> busy() {
+        return ResponseEntity.status(429).body(Map.of(
+            "status", "busy",
+            "message", "An ingestion run is already pending. Try again after it completes."
+        ));
+    }
 }
@@ -19,7 +19,7 @@ public class MapController {
     @GetMapping("/map")
     @Operation(
         summary = "Get map values",
-        description = "Returns choropleth values for the requested metric/source and geo level. Use geoLevel=STATE for national view, or geoLevel=COUNTY with parentGeoLevel=STATE and parentGeoId (FIPS) for drilldown."
+        description = "Returns choropleth values for the requested metric/source and geo level. Use geoLevel=STATE for national view, or geoLevel=COUNTY with parentGeoLevel=STATE and parentGeoId (FIPS) for drilldown. Pass period=latest for the newest period loaded at that geo level."
     )
     public ResponseEntity<MapResponse> getMap(
             @RequestParam String metricId,
@@ -14,14 +14,29 @@ import java.util.List;
 @RequestMapping("/api/v1/regions")
 @Tag(name = "Regions", description = "Region lookup and hierarchy")
 public class RegionController {
+
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_CHILDREN_LIMIT = 1000;
     
     @Autowired
     private RegionService regionService;
     
     @GetMapping("/search")
-    @Operation(summary = "Search regions by name or code")
-    public List<RegionDto> searchRegions(@RequestParam String q) {
-        return regionService.searchRegions(q);
+    @Operation(
+        summary = "Search regions by name or code",
+        description = "Ranked typeahead: exact code, exact name, name prefix, word prefix, then substring. Optional geoLevel filter (comma-separated), limit (max 100) and offset. Total match count is returned in the X-Total-Count header."
+    )
+    public ResponseEntity<List<RegionDto>> searchRegions(
+            @RequestParam String q,
+            @RequestParam(required = false) List<String> geoLevel,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") int offset) {
+        
+        int pageSize = Math.min(Math.max(limit, 1), MAX_SEARCH_LIMIT);
+        RegionPage page = regionService.searchRegions(q, geoLevel, Math.max(offset, 0), pageSize);
+        return ResponseEntity.ok()
+            .header("X-Total-Count", String.valueOf(page.getTotal()))
+            .body(page.getRegions());
     }
     
     @GetMapping("/{geoLevel}/{geoId}")
@@ -36,11 +51,20 @@ public class RegionController {
     }
     
     @GetMapping("/{geoLevel}/{geoId}/children")
-    @Operation(summary = "List child regions for a given parent")
-    public List<RegionDto> getChildren(
+    @Operation(
+        summary = "List child regions for a given parent",
+        description = "Children are ordered by name and paginated with limit (max 1000) and offset. Total child count is returned in the X-Total-Count header."
+    )
+    public ResponseEntity<List<RegionDto>> getChildren(
             @PathVariable String geoLevel,
-            @PathVariable String geoId) {
+            @PathVariable String geoId,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int offset) {
         
-        return regionService.getChildren(geoLevel, geoId);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CHILDREN_LIMIT);
+        RegionPage page = regionService.getChildren(geoLevel, geoId, Math.max(offset, 0), pageSize);
+        return ResponseEntity.ok()
+            .header("X-Total-Count", String.valueOf(page.getTotal()))
+            .body(page.getRegions());
     }
 }
@@ -0,0 +1,82 @@
+package com.utilityexplorer.api;
+
+import com.utilityexplorer.dto.ApiDtos.*;
+import com.utilityexplorer.service.GuardedSqlService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/v1/sql")
+@ConditionalOnProperty(name = "SQL_QUERY_ENABLED", havingValue = "true", matchIfMissing = true)
+@Tag(name = "Generated SQL", description = "Guarded execution of generated read-only SQL (conditional on SQL_QUERY_ENABLED)")
+public class SqlQueryController {
+
+    @Autowired
+    private GuardedSqlService guardedSqlService;
+
+    @Value("${UTIL_AGENT_API_KEY:dev_key_change_me}")
+    private String apiKey;
+
+    @PostMapping("/query")
+    @Operation(
+        summary = "Run generated read-only SQL",
+        description = "Runs one SELECT over the allowlisted tables (SQL_QUERY_ALLOWED_TABLES) in a read-only transaction with SQL_QUERY_TIMEOUT_MS and a row cap of min(maxRows, SQL_QUERY_MAX_ROWS), streaming rows as NDJSON objects. X-Cache reports whether the result came from the result cache. Returns 400 for statements outside the allowlist and 503 when SQL_QUERY_MAX_CONCURRENCY queries are already running. Requires X-API-Key."
+    )
+    public ResponseEntity<?> query(
+            @RequestHeader(value = "X-API-Key", required = false) String providedKey,
+            @RequestBody SqlQueryRequest request,
+            HttpServletRequest servletRequest) {
+
+        if (providedKey == null || !apiKey.equals(providedKey)) {
+            return ResponseEntity.status(401)
+                .body(new ErrorResponse("UNAUTHORIZED", "Valid API key required"));
+        }
+        if (request.getMaxRows() != null && request.getMaxRows() < 1) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("BAD_REQUEST", "maxRows must be positive"));
+        }
+
+        GuardedSqlService.Execution execution;
+        try {
+            execution = guardedSqlService.prepare(request.getSql(), request.getMaxRows());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("SQL_REJECTED", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503)
+                .header("Retry-After", "1")
+                .body(new ErrorResponse("BUSY", "Too many generated queries running, retry shortly"));
+        }
+
+        // MVC skips the streaming task if the request times out or errors first, or if its executor
+        // rejects it; the permit taken above must not leak with it
+        WebAsyncUtils.getAsyncManager(servletRequest).registerCallableInterceptor(
+            GuardedSqlService.Execution.class.getName(), new CallableProcessingInterceptor() {
+                @Override
+                public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                    execution.release();
+                }
+            });
+
+        StreamingResponseBody body = execution::writeTo;
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .header("X-Cache", execution.isCached() ? "HIT" : "MISS")
+            .header("X-Row-Limit", Integer.toString(execution.getRowLimit()))
+            .body(body);
+    }
+}
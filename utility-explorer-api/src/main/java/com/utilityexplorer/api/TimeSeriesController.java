@@ -1,25 +1,34 @@
 package com.utilityexplorer.api;
 
 import com.utilityexplorer.dto.ApiDtos.*;
+import com.utilityexplorer.service.FactExportService;
 import com.utilityexplorer.service.TimeSeriesService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1")
 @Tag(name = "TimeSeries", description = "Timeseries and CSV export endpoints")
 public class TimeSeriesController {
+
+    private static final int MAX_SERIES = 1000;
+    private static final int MIN_POINTS = 3;
     
     @Autowired
     private TimeSeriesService timeSeriesService;
     
+    @Autowired
+    private FactExportService factExportService;
+    
     @GetMapping("/timeseries")
     @Operation(
         summary = "Get timeseries values",
@@ -46,6 +55,43 @@ public class TimeSeriesController {
         }
     }
     
+    @GetMapping("/timeseries/multi")
+    @Operation(
+        summary = "Get timeseries values for many regions",
+        description = "Returns column-oriented series for a list of geoIds, or for every child at geoLevel of parentGeoLevel/parentGeoId when geoIds is omitted. Set maxPoints (>= 3) to downsample long series server-side with LTTB."
+    )
+    public ResponseEntity<MultiTimeSeriesResponse> getMultiTimeSeries(
+            @RequestParam String metricId,
+            @RequestParam String sourceId,
+            @RequestParam String geoLevel,
+            @RequestParam(required = false) List<String> geoIds,
+            @RequestParam(required = false) String parentGeoLevel,
+            @RequestParam(required = false) String parentGeoId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) Integer maxPoints) {
+        
+        boolean hasGeoIds = geoIds != null && !geoIds.isEmpty();
+        boolean hasParent = parentGeoLevel != null && parentGeoId != null && !parentGeoId.isBlank();
+        if ((!hasGeoIds && !hasParent) || (hasGeoIds && geoIds.size() > MAX_SERIES)
+                || (maxPoints != null && maxPoints < MIN_POINTS)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            LocalDate fromDate = LocalDate.parse(from);
+            LocalDate toDate = LocalDate.parse(to);
+            
+            return timeSeriesService.getMultiTimeSeries(metricId, sourceId, geoLevel, geoIds,
+                    parentGeoLevel, parentGeoId, fromDate, toDate, maxPoints)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+                
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/export/csv")
     @Operation(
         summary = "Export timeseries as CSV",
@@ -77,4 +123,45 @@ public class TimeSeriesController {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    @GetMapping("/export/bulk")
+    @Operation(
+        summary = "Stream every fact of a metric/source",
+        description = "Streams all facts for metric/source as NDJSON (default) or CSV, ordered by geoLevel, geoId, periodStart, periodEnd. Each row carries a cursor; pass the last one received as cursor to resume. maxRows caps a single response. If the export fails mid-stream the body ends with an error record (NDJSON: {\"error\", \"cursor\"}; CSV: a #error line) whose cursor resumes after the last row sent."
+    )
+    public ResponseEntity<StreamingResponseBody> exportBulk(
+            @RequestParam String metricId,
+            @RequestParam String sourceId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long maxRows) {
+        
+        FactExportService.Format exportFormat;
+        try {
+            exportFormat = FactExportService.Format.valueOf(format.toUpperCase());
+            if (cursor != null && !cursor.isBlank()) {
+                FactExportService.decodeCursor(cursor);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (maxRows != null && maxRows < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!factExportService.exists(metricId, sourceId)) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        HttpHeaders headers = new HttpHeaders();
+        if (exportFormat == FactExportService.Format.CSV) {
+            headers.setContentType(MediaType.parseMediaType("text/csv"));
+            headers.setContentDispositionFormData("attachment", metricId + "_" + sourceId + ".csv");
+        } else {
+            headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        }
+        
+        StreamingResponseBody body = out ->
+            factExportService.export(metricId, sourceId, cursor, maxRows, exportFormat, out);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
 }
@@ -1,58 +1,150 @@
 package com.utilityexplorer.api;
 
+import com.utilityexplorer.utilagent.UtilAgentBatchEvaluator;
+import com.utilityexplorer.utilagent.UtilAgentExecutor;
 import com.utilityexplorer.utilagent.UtilAgentService;
 import com.utilityexplorer.dto.ApiDtos.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/v1/util-agent")
 @ConditionalOnProperty(name = "UTIL_AGENT_ENABLED", havingValue = "true", matchIfMissing = true)
 @Tag(name = "Util Agent", description = "Text-based Util Agent queries (conditional on UTIL_AGENT_ENABLED)")
 public class UtilAgentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UtilAgentController.class);
     
     @Autowired
     private UtilAgentService utilAgentService;
     
+    @Autowired
+    private UtilAgentExecutor utilAgentExecutor;
+    
+    @Autowired
+    private UtilAgentBatchEvaluator utilAgentBatchEvaluator;
+    
+    @Value("${UTIL_AGENT_TIMEOUT_MS:15000}")
+    private long queryTimeoutMs;
+    
+    @Value("${UTIL_AGENT_BATCH_TIMEOUT_MS:120000}")
+    private long batchTimeoutMs;
+    
+    @Value("${UTIL_AGENT_BATCH_MAX_QUESTIONS:200}")
+    private int batchMaxQuestions;
+    
     @Value("${UTIL_AGENT_API_KEY:dev_key_change_me}")
     private String apiKey;
     
     @PostMapping("/query")
     @Operation(
         summary = "Ask the Util Agent",
-        description = "Submit a text question. Requires X-API-Key header matching UTIL_AGENT_API_KEY."
+        description = "Submit a text question. Requires X-API-Key header matching UTIL_AGENT_API_KEY. Returns 503 when the agent is at capacity (UTIL_AGENT_MAX_CONCURRENCY / UTIL_AGENT_QUEUE_LIMIT) or the answer exceeds UTIL_AGENT_TIMEOUT_MS."
     )
-    public ResponseEntity<?> query(
+    public DeferredResult<ResponseEntity<?>> query(
             @RequestHeader(value = "X-API-Key", required = false) String providedKey,
             @RequestBody Map<String, String> request) {
         
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(queryTimeoutMs);
+        
         // API key validation
         if (providedKey == null || !apiKey.equals(providedKey)) {
-            return ResponseEntity.status(401)
-                .body(new ErrorResponse("UNAUTHORIZED", "Valid API key required"));
+            result.setResult(ResponseEntity.status(401)
+                .body(new ErrorResponse("UNAUTHORIZED", "Valid API key required")));
+            return result;
         }
         
         String question = request.get("question");
         if (question == null || question.trim().isEmpty()) {
-            return ResponseEntity.badRequest()
-                .body(new ErrorResponse("BAD_REQUEST", "Question is required"));
+            result.setResult(ResponseEntity.badRequest()
+                .body(new ErrorResponse("BAD_REQUEST", "Question is required")));
+            return result;
         }
         
+        CompletableFuture<UtilAgentResponse> answer;
         try {
-            UtilAgentResponse response = utilAgentService.processQuery(question);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError()
-                .body(new ErrorResponse("INTERNAL_ERROR", e.getMessage()));
+            answer = utilAgentExecutor.submit(() -> utilAgentService.processQuery(question));
+        } catch (RejectedExecutionException e) {
+            result.setResult(ResponseEntity.status(503)
+                .header("Retry-After", "1")
+                .body(new ErrorResponse("BUSY", "Util Agent is at capacity, retry shortly")));
+            return result;
         }
+        // A caller that has given up must not keep its query queued behind live ones
+        result.onTimeout(() -> {
+            answer.cancel(false);
+            result.setResult(ResponseEntity.status(503)
+                .body(new ErrorResponse("TIMEOUT", "Util Agent did not answer in time")));
+        });
+        answer.whenComplete((response, error) -> {
+            if (error == null) {
+                result.setResult(ResponseEntity.ok(response));
+            } else if (!answer.isCancelled()) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                logger.error("Util Agent query failed", cause);
+                result.setResult(ResponseEntity.internalServerError()
+                    .body(new ErrorResponse("INTERNAL_ERROR", cause.getMessage())));
+            }
+        });
+        return result;
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+        summary = "Evaluate a batch of questions",
+        description = "Answers up to UTIL_AGENT_BATCH_MAX_QUESTIONS questions concurrently, at most 'parallelism' at a time (capped at UTIL_AGENT_BATCH_MAX_PARALLELISM, and below UTIL_AGENT_MAX_CONCURRENCY so live queries keep a worker). Identical questions and identical fact lookups are evaluated once. Answers bypass the answer cache and the query log. Returns each answer with its latency and origin, plus a latency profile. Requires X-API-Key."
+    )
+    public DeferredResult<ResponseEntity<?>> batch(
+            @RequestHeader(value = "X-API-Key", required = false) String providedKey,
+            @RequestBody UtilAgentBatchRequest request) {
+        
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(batchTimeoutMs);
+        
+        if (providedKey == null || !apiKey.equals(providedKey)) {
+            result.setResult(ResponseEntity.status(401)
+                .body(new ErrorResponse("UNAUTHORIZED", "Valid API key required")));
+            return result;
+        }
+        
+        List<String> questions = request.getQuestions();
+        if (questions == null || questions.isEmpty()
+                || questions.stream().anyMatch(question -> question == null || question.trim().isEmpty())) {
+            result.setResult(ResponseEntity.badRequest()
+                .body(new ErrorResponse("BAD_REQUEST", "questions must be a non-empty list of non-blank questions")));
+            return result;
+        }
+        if (questions.size() > batchMaxQuestions) {
+            result.setResult(ResponseEntity.badRequest()
+                .body(new ErrorResponse("BAD_REQUEST", "At most " + batchMaxQuestions + " questions per batch")));
+            return result;
+        }
+        
+        result.onTimeout(() -> result.setResult(ResponseEntity.status(503)
+            .body(new ErrorResponse("TIMEOUT", "Batch did not finish in time"))));
+        
+        utilAgentBatchEvaluator.evaluate(questions, request.getParallelism())
+            .whenComplete((response, error) -> {
+                if (error == null) {
+                    result.setResult(ResponseEntity.ok(response));
+                } else {
+                    result.setResult(ResponseEntity.internalServerError()
+                        .body(new ErrorResponse("INTERNAL_ERROR", error.getMessage())));
+                }
+            });
+        return result;
     }
 
     @PostMapping("/feedback")
@@ -1,6 +1,9 @@
 package com.utilityexplorer.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
+import java.util.Map;
 
 public final class ApiDtos {
     private ApiDtos() {}
@@ -123,6 +126,7 @@ public final class ApiDtos {
         private String parentGeoId;
         private Double centroidLat;
         private Double centroidLon;
+        private List<RegionInfo> ancestors;
 
         public RegionDto() {}
 
@@ -157,6 +161,27 @@ public final class ApiDtos {
 
         public Double getCentroidLon() { return centroidLon; }
         public void setCentroidLon(Double centroidLon) { this.centroidLon = centroidLon; }
+
+        public List<RegionInfo> getAncestors() { return ancestors; }
+        public void setAncestors(List<RegionInfo> ancestors) { this.ancestors = ancestors; }
+    }
+
+    public static class RegionPage {
+        private List<RegionDto> regions;
+        private int total;
+
+        public RegionPage() {}
+
+        public RegionPage(List<RegionDto> regions, int total) {
+            this.regions = regions;
+            this.total = total;
+        }
+
+        public List<RegionDto> getRegions() { return regions; }
+        public void setRegions(List<RegionDto> regions) { this.regions = regions; }
+
+        public int getTotal() { return total; }
+        public void setTotal(int total) { this.total = total; }
     }
 
     public static class CoverageDto {
@@ -188,6 +213,38 @@ public final class ApiDtos {
         public void setSupportedGranularities(List<String> supportedGranularities) { this.supportedGranularities = supportedGranularities; }
     }
 
+    /** Responses that can carry request timings when the caller opts in to them. */
+    public interface TimingDebuggable {
+        void setDebug(TimingDebug debug);
+    }
+
+    /**
+     * Stage durations and counters recorded up to the point the response was serialized. The
+     * Server-Timing header additionally reports serialization and the request total.
+     */
+    public static class TimingDebug {
+        private Map<String, Double> stagesMs;
+        private Map<String, Long> counts;
+        private double elapsedMs;
+
+        public TimingDebug() {}
+
+        public TimingDebug(Map<String, Double> stagesMs, Map<String, Long> counts, double elapsedMs) {
+            this.stagesMs = stagesMs;
+            this.counts = counts;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public Map<String, Double> getStagesMs() { return stagesMs; }
+        public void setStagesMs(Map<String, Double> stagesMs) { this.stagesMs = stagesMs; }
+
+        public Map<String, Long> getCounts() { return counts; }
+        public void setCounts(Map<String, Long> counts) { this.counts = counts; }
+
+        public double getElapsedMs() { return elapsedMs; }
+        public void setElapsedMs(double elapsedMs) { this.elapsedMs = elapsedMs; }
+    }
+
     public static class ErrorResponse {
         private String error;
         private String message;
@@ -209,7 +266,7 @@ public final class ApiDtos {
         public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
     }
 
-    public static class MapResponse {
+    public static class MapResponse implements TimingDebuggable {
         private MetricInfo metric;
         private SourceInfo source;
         private String geoLevel;
@@ -220,6 +277,8 @@ public final class ApiDtos {
         private LegendStats legend;
         private List<MapValue> values;
         private List<String> notes;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private TimingDebug debug;
 
         public MapResponse() {}
 
@@ -252,10 +311,15 @@ public final class ApiDtos {
 
         public List<String> getNotes() { return notes; }
         public void setNotes(List<String> notes) { this.notes = notes; }
+
+        public TimingDebug getDebug() { return debug; }
+        public void setDebug(TimingDebug debug) { this.debug = debug; }
     }
 
-    public static class MapRangeResponse {
+    public static class MapRangeResponse implements TimingDebuggable {
         private List<MapResponse> maps;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private TimingDebug debug;
 
         public List<MapResponse> getMaps() {
             return maps;
@@ -264,6 +328,14 @@ public final class ApiDtos {
         public void setMaps(List<MapResponse> maps) {
             this.maps = maps;
         }
+
+        public TimingDebug getDebug() {
+            return debug;
+        }
+
+        public void setDebug(TimingDebug debug) {
+            this.debug = debug;
+        }
     }
 
     public static class MetricInfo {
@@ -371,11 +443,13 @@ public final class ApiDtos {
         public void setRetrievedAt(String retrievedAt) { this.retrievedAt = retrievedAt; }
     }
 
-    public static class TimeSeriesResponse {
+    public static class TimeSeriesResponse implements TimingDebuggable {
         private MetricInfo metric;
         private SourceInfo source;
         private RegionInfo region;
         private List<TimeSeriesPoint> points;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private TimingDebug debug;
 
         public TimeSeriesResponse() {}
 
@@ -390,6 +464,94 @@ public final class ApiDtos {
 
         public List<TimeSeriesPoint> getPoints() { return points; }
         public void setPoints(List<TimeSeriesPoint> points) { this.points = points; }
+
+        public TimingDebug getDebug() { return debug; }
+        public void setDebug(TimingDebug debug) { this.debug = debug; }
+    }
+
+    public static class MultiTimeSeriesResponse implements TimingDebuggable {
+        private MetricInfo metric;
+        private SourceInfo source;
+        private String geoLevel;
+        private String from;
+        private String to;
+        private Integer maxPoints;
+        private List<SeriesColumns> series;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private TimingDebug debug;
+
+        public MultiTimeSeriesResponse() {}
+
+        public MetricInfo getMetric() { return metric; }
+        public void setMetric(MetricInfo metric) { this.metric = metric; }
+
+        public SourceInfo getSource() { return source; }
+        public void setSource(SourceInfo source) { this.source = source; }
+
+        public String getGeoLevel() { return geoLevel; }
+        public void setGeoLevel(String geoLevel) { this.geoLevel = geoLevel; }
+
+        public String getFrom() { return from; }
+        public void setFrom(String from) { this.from = from; }
+
+        public String getTo() { return to; }
+        public void setTo(String to) { this.to = to; }
+
+        public Integer getMaxPoints() { return maxPoints; }
+        public void setMaxPoints(Integer maxPoints) { this.maxPoints = maxPoints; }
+
+        public List<SeriesColumns> getSeries() { return series; }
+        public void setSeries(List<SeriesColumns> series) { this.series = series; }
+
+        public TimingDebug getDebug() { return debug; }
+        public void setDebug(TimingDebug debug) { this.debug = debug; }
+    }
+
+    /**
+     * One region's series in column-oriented form: index i of each list describes the same point.
+     */
+    public static class SeriesColumns {
+        private String geoId;
+        private String name;
+        private int sourcePointCount;
+        private List<String> periodStart;
+        private List<String> periodEnd;
+        private List<Double> values;
+        private List<String> retrievedAt;
+
+        public SeriesColumns() {}
+
+        public SeriesColumns(String geoId, String name, int sourcePointCount, List<String> periodStart,
+                             List<String> periodEnd, List<Double> values, List<String> retrievedAt) {
+            this.geoId = geoId;
+            this.name = name;
+            this.sourcePointCount = sourcePointCount;
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+            this.values = values;
+            this.retrievedAt = retrievedAt;
+        }
+
+        public String getGeoId() { return geoId; }
+        public void setGeoId(String geoId) { this.geoId = geoId; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public int getSourcePointCount() { return sourcePointCount; }
+        public void setSourcePointCount(int sourcePointCount) { this.sourcePointCount = sourcePointCount; }
+
+        public List<String> getPeriodStart() { return periodStart; }
+        public void setPeriodStart(List<String> periodStart) { this.periodStart = periodStart; }
+
+        public List<String> getPeriodEnd() { return periodEnd; }
+        public void setPeriodEnd(List<String> periodEnd) { this.periodEnd = periodEnd; }
+
+        public List<Double> getValues() { return values; }
+        public void setValues(List<Double> values) { this.values = values; }
+
+        public List<String> getRetrievedAt() { return retrievedAt; }
+        public void setRetrievedAt(List<String> retrievedAt) { this.retrievedAt = retrievedAt; }
     }
 
     public static class RegionInfo {
@@ -661,4 +823,130 @@ public final class ApiDtos {
         public String getFeedback() { return feedback; }
         public void setFeedback(String feedback) { this.feedback = feedback; }
     }
+
+    public static class UtilAgentBatchRequest {
+        private List<String> questions;
+        private Integer parallelism;
+
+        public UtilAgentBatchRequest() {}
+
+        public List<String> getQuestions() { return questions; }
+        public void setQuestions(List<String> questions) { this.questions = questions; }
+
+        public Integer getParallelism() { return parallelism; }
+        public void setParallelism(Integer parallelism) { this.parallelism = parallelism; }
+    }
+
+    public static class UtilAgentBatchResult {
+        private int index;
+        private String question;
+        private Integer duplicateOf; // index of the identical question whose answer was reused
+        private long latencyMs;
+        private String origin;
+        private String status;
+        private String error;
+        private UtilAgentResponse response;
+
+        public UtilAgentBatchResult() {}
+
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+
+        public String getQuestion() { return question; }
+        public void setQuestion(String question) { this.question = question; }
+
+        public Integer getDuplicateOf() { return duplicateOf; }
+        public void setDuplicateOf(Integer duplicateOf) { this.duplicateOf = duplicateOf; }
+
+        public long getLatencyMs() { return latencyMs; }
+        public void setLatencyMs(long latencyMs) { this.latencyMs = latencyMs; }
+
+        public String getOrigin() { return origin; }
+        public void setOrigin(String origin) { this.origin = origin; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+
+        public UtilAgentResponse getResponse() { return response; }
+        public void setResponse(UtilAgentResponse response) { this.response = response; }
+    }
+
+    public static class UtilAgentBatchSummary {
+        private int questions;
+        private int evaluated;
+        private int parallelism;
+        private int sharedLookups;
+        private long wallMs;
+        private long latencyP50Ms;
+        private long latencyP95Ms;
+        private long latencyMaxMs;
+        private Map<String, Integer> byOrigin;
+        private Map<String, Integer> byStatus;
+
+        public UtilAgentBatchSummary() {}
+
+        public int getQuestions() { return questions; }
+        public void setQuestions(int questions) { this.questions = questions; }
+
+        public int getEvaluated() { return evaluated; }
+        public void setEvaluated(int evaluated) { this.evaluated = evaluated; }
+
+        public int getParallelism() { return parallelism; }
+        public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+        public int getSharedLookups() { return sharedLookups; }
+        public void setSharedLookups(int sharedLookups) { this.sharedLookups = sharedLookups; }
+
+        public long getWallMs() { return wallMs; }
+        public void setWallMs(long wallMs) { this.wallMs = wallMs; }
+
+        public long getLatencyP50Ms() { return latencyP50Ms; }
+        public void setLatencyP50Ms(long latencyP50Ms) { this.latencyP50Ms = latencyP50Ms; }
+
+        public long getLatencyP95Ms() { return latencyP95Ms; }
+        public void setLatencyP95Ms(long latencyP95Ms) { this.latencyP95Ms = latencyP95Ms; }
+
+        public long getLatencyMaxMs() { return latencyMaxMs; }
+        public void setLatencyMaxMs(long latencyMaxMs) { this.latencyMaxMs = latencyMaxMs; }
+
+        public Map<String, Integer> getByOrigin() { return byOrigin; }
+        public void setByOrigin(Map<String, Integer> byOrigin) { this.byOrigin = byOrigin; }
+
+        public Map<String, Integer> getByStatus() { return byStatus; }
+        public void setByStatus(Map<String, Integer> byStatus) { this.byStatus = byStatus; }
+    }
+
+    public static class UtilAgentBatchResponse {
+        private UtilAgentBatchSummary summary;
+        private List<UtilAgentBatchResult> results;
+
+        public UtilAgentBatchResponse() {}
+
+        public UtilAgentBatchResponse(UtilAgentBatchSummary summary, List<UtilAgentBatchResult> results) {
+            this.summary = summary;
+            this.results = results;
+        }
+
+        public UtilAgentBatchSummary getSummary() { return summary; }
+        public void setSummary(UtilAgentBatchSummary summary) { this.summary = summary; }
+
+        public List<UtilAgentBatchResult> getResults() { return results; }
+        public void setResults(List<UtilAgentBatchResult> results) { this.results = results; }
+    }
+
+    public static class SqlQueryRequest {
+        private String sql;
+        private Integer maxRows;
+
+        public SqlQueryRequest() {}
+
+        public String getSql() { return sql; }
+        public void setSql(String sql) { this.sql = sql; }
+
+        public Integer getMaxRows() { return maxRows; }
+        public void setMaxRows(Integer maxRows) { this.maxRows = maxRows; }
+    }
 }
@@ -0,0 +1,249 @@
+package com.utilityexplorer.geo;
+
+import com.utilityexplorer.persistence.RegionRepository;
+import com.utilityexplorer.shared.persistence.Region;
+import com.utilityexplorer.timing.RequestTiming;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the region table: lookup by key and pk, parent/children adjacency
+ * (children kept sorted by name) and precomputed root-first ancestor paths.
+ *
+ * Loaded once on first use. Writers in this process call {@link #register(Region)} after saving
+ * a region, which takes effect once the surrounding transaction commits; regions inserted by
+ * other processes are picked up by a periodic count check. Geo levels are matched through
+ * {@link #normalizeGeoLevel(String)}, which callers also apply before querying the region table.
+ * The typeahead {@link RegionSearchIndex} is derived from the same data and rebuilt lazily
+ * after inserts.
+ */
+@Component
+public class RegionHierarchyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionHierarchyCache.class);
+
+    private static final Comparator<Region> CHILD_ORDER = Comparator
+        .comparing((Region region) -> region.getName().toLowerCase(Locale.ROOT))
+        .thenComparing(Region::getGeoId);
+
+    private final RegionRepository regionRepository;
+
+    private volatile State state;
+
+    // Serializes loads. Not a monitor: the load reads the region table, which would pin a virtual thread
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    public RegionHierarchyCache(RegionRepository regionRepository) {
+        this.regionRepository = regionRepository;
+    }
+
+    /**
+     * Canonical form of a geo level as stored in the region and fact tables: trimmed and upper-cased.
+     */
+    public static String normalizeGeoLevel(String geoLevel) {
+        return geoLevel == null ? null : geoLevel.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public Optional<Region> find(String geoLevel, String geoId) {
+        if (geoLevel == null || geoId == null) {
+            return Optional.empty();
+        }
+        Region region = state().byKey.get(key(geoLevel, geoId));
+        RequestTiming.count(region != null ? "region.cache.hit" : "region.cache.miss", 1);
+        return Optional.ofNullable(region);
+    }
+
+    public Optional<Region> findByPk(UUID regionPk) {
+        return regionPk == null ? Optional.empty() : Optional.ofNullable(state().byPk.get(regionPk));
+    }
+
+    public Optional<Region> getParent(Region region) {
+        return findByPk(region.getParentRegionPk());
+    }
+
+    /**
+     * Returns the region's ancestors ordered from the root down to its direct parent.
+     */
+    public List<Region> getAncestors(Region region) {
+        return state().ancestorsByPk.getOrDefault(region.getRegionPk(), List.of());
+    }
+
+    public int countChildren(UUID parentPk) {
+        return state().childrenByParent.getOrDefault(parentPk, List.of()).size();
+    }
+
+    public List<Region> getChildren(UUID parentPk, int offset, int limit) {
+        List<Region> children = state().childrenByParent.getOrDefault(parentPk, List.of());
+        int from = Math.min(Math.max(offset, 0), children.size());
+        if (limit <= 0 || from == children.size()) {
+            return List.of();
+        }
+        return children.subList(from, (int) Math.min((long) from + limit, children.size()));
+    }
+
+    public RegionSearchIndex getSearchIndex() {
+        State current = state();
+        RegionSearchIndex index = current.searchIndex;
+        if (index == null) {
+            synchronized (current) {
+                if (current.searchIndex == null) {
+                    current.searchIndex = RegionSearchIndex.build(current.byPk.values());
+                }
+                index = current.searchIndex;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds a newly persisted region. Inside a transaction the region is added after commit, so a
+     * rolled-back insert never becomes visible. Parents must be registered before their children,
+     * which the region table's foreign key already guarantees for saved rows.
+     */
+    public void register(Region region) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(region);
+                }
+            });
+        } else {
+            add(region);
+        }
+    }
+
+    private void add(Region region) {
+        State current = state;
+        if (current == null) {
+            return; // not loaded yet; the first load will read it from the table
+        }
+        current.add(region);
+        current.searchIndex = null;
+    }
+
+    /**
+     * Reloads the cache when the region table changed outside this process.
+     */
+    @Scheduled(fixedDelayString = "${REGION_INDEX_REFRESH_SECONDS:300}000",
+               initialDelayString = "${REGION_INDEX_REFRESH_SECONDS:300}000")
+    public void refreshIfChanged() {
+        State current = state;
+        if (current != null && regionRepository.count() != current.byPk.size()) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        loadLock.lock();
+        try {
+            state = load();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private State state() {
+        State current = state;
+        if (current == null) {
+            loadLock.lock();
+            try {
+                if (state == null) {
+                    state = load();
+                }
+                current = state;
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private State load() {
+        List<Region> regions = regionRepository.findAll();
+        State loaded = new State();
+        regions.forEach(region -> loaded.byPk.put(region.getRegionPk(), region));
+        Map<UUID, List<Region>> children = new HashMap<>();
+        for (Region region : regions) {
+            loaded.byKey.put(key(region.getGeoLevel(), region.getGeoId()), region);
+            if (region.getParentRegionPk() != null) {
+                children.computeIfAbsent(region.getParentRegionPk(), pk -> new ArrayList<>()).add(region);
+            }
+        }
+        children.forEach((parentPk, list) -> {
+            list.sort(CHILD_ORDER);
+            loaded.childrenByParent.put(parentPk, List.copyOf(list));
+        });
+        for (Region region : regions) {
+            loaded.ancestorsOf(region, 0);
+        }
+        logger.info("Loaded region hierarchy cache with {} region(s)", regions.size());
+        return loaded;
+    }
+
+    private static String key(String geoLevel, String geoId) {
+        return normalizeGeoLevel(geoLevel) + ":" + geoId;
+    }
+
+    private static final class State {
+        private static final int MAX_DEPTH = 16;
+
+        private final Map<UUID, Region> byPk = new ConcurrentHashMap<>();
+        private final Map<String, Region> byKey = new ConcurrentHashMap<>();
+        // Immutable, name-ordered lists so a page is a subList; register replaces the whole list
+        private final Map<UUID, List<Region>> childrenByParent = new ConcurrentHashMap<>();
+        private final Map<UUID, List<Region>> ancestorsByPk = new ConcurrentHashMap<>();
+        private volatile RegionSearchIndex searchIndex;
+
+        void add(Region region) {
+            byPk.put(region.getRegionPk(), region);
+            byKey.put(key(region.getGeoLevel(), region.getGeoId()), region);
+            if (region.getParentRegionPk() != null) {
+                childrenByParent.compute(region.getParentRegionPk(), (pk, children) -> withChild(children, region));
+            }
+            ancestorsOf(region, 0);
+        }
+
+        private static List<Region> withChild(List<Region> children, Region region) {
+            List<Region> updated = new ArrayList<>(children == null ? 1 : children.size() + 1);
+            if (children != null) {
+                for (Region child : children) {
+                    if (!child.getRegionPk().equals(region.getRegionPk())) {
+                        updated.add(child);
+                    }
+                }
+            }
+            int at = Collections.binarySearch(updated, region, CHILD_ORDER);
+            updated.add(at < 0 ? -at - 1 : at, region);
+            return List.copyOf(updated);
+        }
+
+        List<Region> ancestorsOf(Region region, int depth) {
+            List<Region> cached = ancestorsByPk.get(region.getRegionPk());
+            if (cached != null) {
+                return cached;
+            }
+            Region parent = region.getParentRegionPk() != null ? byPk.get(region.getParentRegionPk()) : null;
+            List<Region> path;
+            if (parent == null || depth >= MAX_DEPTH) {
+                path = List.of();
+            } else {
+                List<Region> parentPath = ancestorsOf(parent, depth + 1);
+                List<Region> extended = new ArrayList<>(parentPath.size() + 1);
+                extended.addAll(parentPath);
+                extended.add(parent);
+                path = List.copyOf(extended);
+            }
+            ancestorsByPk.put(region.getRegionPk(), path);
+            return path;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.utilityexplorer.geo;
+
+import com.utilityexplorer.shared.persistence.Region;
+
+import java.util.*;
+
+/**
+ * Immutable in-memory typeahead index over region names and codes.
+ *
+ * Every word suffix of a normalized name ("new york city", "york city", "city") is kept in one
+ * sorted array, so full-name and word prefixes resolve with a binary search. Queries of three or
+ * more characters also match mid-word substrings through a trigram posting list. Results are
+ * ranked: exact code, exact name, name prefix, word prefix, substring; ties break on geo level
+ * (STATE, COUNTY, PLACE), then shorter name, then alphabetical.
+ */
+public final class RegionSearchIndex {
+
+    private static final int TIER_CODE = 0;
+    private static final int TIER_EXACT = 1;
+    private static final int TIER_PREFIX = 2;
+    private static final int TIER_WORD_PREFIX = 3;
+    private static final int TIER_SUBSTRING = 4;
+
+    private static final List<String> GEO_LEVEL_ORDER = List.of("NATIONAL", "STATE", "COUNTY", "PLACE");
+
+    private final Region[] regions;
+    private final String[] names;
+    private final String[] keys;
+    private final int[] keyDocs;
+    private final boolean[] keyIsFullName;
+    private final Map<String, int[]> trigramPostings;
+    private final Map<String, int[]> docsByCode;
+
+    private RegionSearchIndex(Region[] regions) {
+        this.regions = regions;
+        this.names = new String[regions.length];
+
+        List<KeyEntry> entries = new ArrayList<>();
+        Map<String, List<Integer>> trigrams = new HashMap<>();
+        Map<String, List<Integer>> codes = new HashMap<>();
+
+        for (int doc = 0; doc < regions.length; doc++) {
+            String name = normalize(regions[doc].getName());
+            names[doc] = name;
+
+            for (int start = 0; start < name.length(); start++) {
+                if (start == 0 || name.charAt(start - 1) == ' ') {
+                    entries.add(new KeyEntry(name.substring(start), doc, start == 0));
+                }
+            }
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                String trigram = name.substring(i, i + 3);
+                if (seen.add(trigram)) {
+                    trigrams.computeIfAbsent(trigram, k -> new ArrayList<>()).add(doc);
+                }
+            }
+            if (regions[doc].getGeoId() != null) {
+                codes.computeIfAbsent(regions[doc].getGeoId().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(doc);
+            }
+        }
+
+        entries.sort(Comparator.comparing(KeyEntry::key));
+        this.keys = new String[entries.size()];
+        this.keyDocs = new int[entries.size()];
+        this.keyIsFullName = new boolean[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            keys[i] = entries.get(i).key();
+            keyDocs[i] = entries.get(i).doc();
+            keyIsFullName[i] = entries.get(i).fullName();
+        }
+
+        this.trigramPostings = toArrays(trigrams);
+        this.docsByCode = toArrays(codes);
+    }
+
+    public static RegionSearchIndex build(Collection<Region> regions) {
+        return new RegionSearchIndex(regions.toArray(new Region[0]));
+    }
+
+    public int size() {
+        return regions.length;
+    }
+
+    /**
+     * Returns one page of ranked matches for the query.
+     *
+     * @param geoLevels optional geo level filter (case-insensitive); null, empty or blank-only matches all levels
+     */
+    public SearchResult search(String query, Collection<String> geoLevels, int offset, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of(), 0);
+        }
+        Set<String> levels = null;
+        if (geoLevels != null) {
+            for (String level : geoLevels) {
+                if (level != null && !level.isBlank()) {
+                    if (levels == null) {
+                        levels = new HashSet<>();
+                    }
+                    levels.add(level.trim().toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+
+        Map<Integer, Integer> tierByDoc = new HashMap<>();
+
+        int[] coded = docsByCode.get(query.trim().toLowerCase(Locale.ROOT));
+        if (coded != null) {
+            for (int doc : coded) {
+                offer(tierByDoc, doc, TIER_CODE);
+            }
+        }
+
+        for (int i = lowerBound(q); i < keys.length && keys[i].startsWith(q); i++) {
+            int doc = keyDocs[i];
+            int tier = keyIsFullName[i]
+                ? (names[doc].length() == q.length() ? TIER_EXACT : TIER_PREFIX)
+                : TIER_WORD_PREFIX;
+            offer(tierByDoc, doc, tier);
+        }
+
+        if (q.length() >= 3) {
+            for (int doc : substringCandidates(q)) {
+                if (!tierByDoc.containsKey(doc) && names[doc].contains(q)) {
+                    tierByDoc.put(doc, TIER_SUBSTRING);
+                }
+            }
+        }
+
+        List<int[]> ranked = new ArrayList<>(tierByDoc.size());
+        for (Map.Entry<Integer, Integer> entry : tierByDoc.entrySet()) {
+            int doc = entry.getKey();
+            String level = regions[doc].getGeoLevel();
+            if (levels == null || (level != null && levels.contains(level.toUpperCase(Locale.ROOT)))) {
+                ranked.add(new int[] {doc, entry.getValue()});
+            }
+        }
+        ranked.sort(this::compare);
+
+        int from = Math.min(Math.max(offset, 0), ranked.size());
+        int to = Math.min(from + limit, ranked.size());
+        List<Region> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(regions[ranked.get(i)[0]]);
+        }
+        return new SearchResult(page, ranked.size());
+    }
+
+    private int compare(int[] a, int[] b) {
+        if (a[1] != b[1]) {
+            return Integer.compare(a[1], b[1]);
+        }
+        int levelCompare = Integer.compare(levelRank(regions[a[0]]), levelRank(regions[b[0]]));
+        if (levelCompare != 0) {
+            return levelCompare;
+        }
+        int lengthCompare = Integer.compare(names[a[0]].length(), names[b[0]].length());
+        if (lengthCompare != 0) {
+            return lengthCompare;
+        }
+        return names[a[0]].compareTo(names[b[0]]);
+    }
+
+    private int[] substringCandidates(String q) {
+        int[] smallest = null;
+        List<int[]> postings = new ArrayList<>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            int[] posting = trigramPostings.get(q.substring(i, i + 3));
+            if (posting == null) {
+                return new int[0];
+            }
+            postings.add(posting);
+            if (smallest == null || posting.length < smallest.length) {
+                smallest = posting;
+            }
+        }
+        // Every trigram of q must appear in a match; probing the shortest list keeps this cheap
+        int[] result = smallest;
+        for (int[] posting : postings) {
+            if (posting != smallest) {
+                result = intersect(result, posting);
+            }
+        }
+        return result;
+    }
+
+    private int lowerBound(String q) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(q) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static void offer(Map<Integer, Integer> tierByDoc, int doc, int tier) {
+        tierByDoc.merge(doc, tier, Math::min);
+    }
+
+    private static int levelRank(Region region) {
+        int rank = GEO_LEVEL_ORDER.indexOf(region.getGeoLevel());
+        return rank < 0 ? GEO_LEVEL_ORDER.size() : rank;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[n++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> lists) {
+        Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, docs) -> arrays.put(key, docs.stream().mapToInt(Integer::intValue).toArray()));
+        return arrays;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.toLowerCase(Locale.ROOT)
+            .replaceAll("[^a-z0-9]+", " ")
+            .trim();
+    }
+
+    private record KeyEntry(String key, int doc, boolean fullName) {}
+
+    public record SearchResult(List<Region> regions, int total) {}
+}
@@ -2,8 +2,11 @@ package com.utilityexplorer.ingestion;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utilityexplorer.shared.adapter.IngestionMetrics;
+import com.utilityexplorer.shared.concurrent.VirtualThreads;
+import com.utilityexplorer.geo.RegionHierarchyCache;
 import com.utilityexplorer.shared.persistence.FactValue;
-import com.utilityexplorer.shared.persistence.FactValueRepository;
+import com.utilityexplorer.shared.persistence.FactValueWriter;
 import com.utilityexplorer.shared.persistence.Region;
 import com.utilityexplorer.persistence.RegionRepository;
 import jakarta.annotation.PostConstruct;
@@ -21,7 +24,9 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -53,11 +58,17 @@ public class CensusAcsElectricityCostSourcePlugin implements SourcePlugin {
     };
 
     @Autowired
-    private FactValueRepository factValueRepository;
+    private FactValueWriter factValueWriter;
 
     @Autowired
     private RegionRepository regionRepository;
 
+    @Autowired
+    private RegionHierarchyCache regionHierarchyCache;
+
+    @Autowired
+    private IngestionMetrics ingestionMetrics;
+
     @Value("${CENSUS_API_KEY:}")
     private String apiKey;
 
@@ -70,7 +81,7 @@ public class CensusAcsElectricityCostSourcePlugin implements SourcePlugin {
     @Value("${CENSUS_ACS_YEARS_BACK:6}")
     private int yearsBack;
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
+    private final HttpClient httpClient = VirtualThreads.httpClientBuilder()
         .followRedirects(HttpClient.Redirect.NORMAL)
         .build();
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -139,6 +150,7 @@ public class CensusAcsElectricityCostSourcePlugin implements SourcePlugin {
                     .GET()
                     .build();
                 HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                ingestionMetrics.recordFetch(getSourceId(), response.body());
 
                 if (response.statusCode() == 404 || response.statusCode() == 400) {
                     continue; // not published yet
@@ -169,6 +181,7 @@ public class CensusAcsElectricityCostSourcePlugin implements SourcePlugin {
             .build();
 
         HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        ingestionMetrics.recordFetch(getSourceId(), response.body());
         if (response.statusCode() == 404 || response.statusCode() == 400) {
             logger.warn("ACS data not published for year {} and geo level {}, skipping", year, geoLevel);
             return 0;
@@ -188,7 +201,7 @@ public class CensusAcsElectricityCostSourcePlugin implements SourcePlugin {
             index.put(header.get(i).asText(), i);
         }
 
-        int rows = 0;
+        List<FactValue> facts = new ArrayList<>(root.size() - 1);
         for (int i = 1; i < root.size(); i++) {
             JsonNode row = root.get(i);
             String name = readValue(row, index, "NAME");
@@ -247,22 +260,26 @@ public class CensusAcsElectricityCostSourcePlugin implements SourcePlugin {
             fact.setIsAggregated(true);
             fact.setAggregationMethod("WEIGHTED_BIN_AVERAGE");
 
-            factValueRepository.save(fact);
-            rows++;
+            facts.add(fact);
         }
 
-        return rows;
+        return factValueWriter.write(facts);
     }
 
-    private void ensureRegion(String geoLevel, String geoId, String name, String stateFips) {
+    private void ensureRegion(String rawGeoLevel, String geoId, String name, String stateFips) {
+        String geoLevel = RegionHierarchyCache.normalizeGeoLevel(rawGeoLevel);
         String key = geoLevel + ":" + geoId;
         if (regionCache.containsKey(key)) {
             return;
         }
 
-        Region region = regionRepository.findByGeoLevelAndGeoId(geoLevel, geoId).orElse(null);
+        Region region = regionHierarchyCache.find(geoLevel, geoId)
+            .or(() -> regionRepository.findByGeoLevelAndGeoId(geoLevel, geoId))
+            .orElse(null);
         if (region == null) {
-            Region parent = regionRepository.findByGeoLevelAndGeoId("STATE", stateFips).orElse(null);
+            Region parent = regionHierarchyCache.find("STATE", stateFips)
+                .or(() -> regionRepository.findByGeoLevelAndGeoId("STATE", stateFips))
+                .orElse(null);
             region = new Region(
                 UUID.randomUUID(),
                 geoLevel,
@@ -273,6 +290,7 @@ public class CensusAcsElectricityCostSourcePlugin implements SourcePlugin {
                 null
             );
             regionRepository.save(region);
+            regionHierarchyCache.register(region);
         }
 
         regionCache.put(key, region);
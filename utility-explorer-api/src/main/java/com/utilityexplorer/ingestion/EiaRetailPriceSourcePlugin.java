@@ -2,8 +2,10 @@ package com.utilityexplorer.ingestion;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utilityexplorer.shared.adapter.IngestionMetrics;
+import com.utilityexplorer.shared.concurrent.VirtualThreads;
 import com.utilityexplorer.shared.persistence.FactValue;
-import com.utilityexplorer.shared.persistence.FactValueRepository;
+import com.utilityexplorer.shared.persistence.FactValueWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -19,7 +21,9 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import jakarta.annotation.PostConstruct;
@@ -31,14 +35,17 @@ public class EiaRetailPriceSourcePlugin implements SourcePlugin {
     private static final Logger logger = LoggerFactory.getLogger(EiaRetailPriceSourcePlugin.class);
 
     @Autowired
-    private FactValueRepository factValueRepository;
+    private FactValueWriter factValueWriter;
+
+    @Autowired
+    private IngestionMetrics ingestionMetrics;
 
     @Value("${EIA_API_KEY:}")
     private String apiKey;
     @Value("${EIA_MONTHS_BACK:72}")
     private int monthsBack;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final HttpClient httpClient = VirtualThreads.httpClientBuilder().build();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @PostConstruct
@@ -74,6 +81,7 @@ public class EiaRetailPriceSourcePlugin implements SourcePlugin {
             .build();
 
         HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        ingestionMetrics.recordFetch(getSourceId(), response.body());
         if (response.statusCode() < 200 || response.statusCode() >= 300) {
             throw new IllegalStateException("EIA API error: " + response.statusCode());
         }
@@ -84,7 +92,7 @@ public class EiaRetailPriceSourcePlugin implements SourcePlugin {
             throw new IllegalStateException("EIA API response missing data");
         }
 
-        int rows = 0;
+        List<FactValue> facts = new ArrayList<>();
         for (JsonNode row : data) {
             String sector = row.path("sectorid").asText();
             if (!"ALL".equalsIgnoreCase(sector)) {
@@ -124,9 +132,9 @@ public class EiaRetailPriceSourcePlugin implements SourcePlugin {
             fact.setSourcePublishedAt(check.sourcePublishedAt);
             fact.setIsAggregated(false);
 
-            factValueRepository.save(fact);
-            rows++;
+            facts.add(fact);
         }
+        int rows = factValueWriter.write(facts);
 
         logger.info("EIA ingestion completed with {} row(s) upserted", rows);
         return new IngestResult(rows, UUID.randomUUID(), rows == 0);
@@ -1,7 +1,14 @@
 package com.utilityexplorer.ingestion;
 
 import com.utilityexplorer.persistence.*;
+import com.utilityexplorer.replica.ReplicaSet;
+import com.utilityexplorer.shared.adapter.IngestionMetrics;
+import com.utilityexplorer.shared.jfr.SourceRunEvent;
 import com.utilityexplorer.shared.persistence.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -16,6 +23,8 @@ import java.time.Clock;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @ConditionalOnProperty(name = "INGESTION_DISPATCHER_ENABLED", havingValue = "true")
@@ -37,12 +46,70 @@ public class IngestionDispatcher {
     
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IngestionMetrics ingestionMetrics;
+
+    @Autowired
+    private IngestionExecutor ingestionExecutor;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    private final AtomicBoolean cyclePending = new AtomicBoolean();
     
     @Value("${INGESTION_TICK_SECONDS:600}")
     private int tickSeconds;
     
     @Scheduled(fixedDelayString = "${INGESTION_TICK_SECONDS:600}000")
     public void dispatchIngestion() {
+        if (!runOnce()) {
+            logger.info("Skipped scheduled ingestion because the previous cycle is still pending or running");
+        }
+    }
+
+    /**
+     * Queues a run of every source on the ingestion executor. Returns false if a full cycle is
+     * already pending or running, or the executor is saturated.
+     */
+    public boolean runOnce() {
+        if (!cyclePending.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            ingestionExecutor.execute(() -> {
+                try {
+                    runAllSources();
+                } finally {
+                    cyclePending.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            cyclePending.set(false);
+            return false;
+        }
+    }
+
+    /**
+     * Queues a run of one source on the ingestion executor. Returns false if the executor is saturated.
+     */
+    public boolean runOnceForSource(String sourceId) {
+        if (sourceId == null || sourceId.isBlank()) {
+            return true;
+        }
+        try {
+            ingestionExecutor.execute(() -> runSource(sourceId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void runAllSources() {
         Instant now = Instant.now();
 
         if (sourcePlugins == null || sourcePlugins.isEmpty()) {
@@ -67,14 +134,7 @@ public class IngestionDispatcher {
         }
     }
 
-    public void runOnce() {
-        dispatchIngestion();
-    }
-
-    public void runOnceForSource(String sourceId) {
-        if (sourceId == null || sourceId.isBlank()) {
-            return;
-        }
+    private void runSource(String sourceId) {
         Instant now = Instant.now();
         for (SourcePlugin plugin : sourcePlugins) {
             if (!sourceId.equalsIgnoreCase(plugin.getSourceId())) {
@@ -118,7 +178,9 @@ public class IngestionDispatcher {
         }
     }
     
+    @WithSpan("ingestion.run")
     private void runIngestion(SourcePlugin plugin, Instant now) {
+        Span.current().setAttribute("ingestion.source", plugin.getSourceId());
         UUID runId = UUID.randomUUID();
         SourceRun run = new SourceRun();
         run.setRunId(runId);
@@ -127,6 +189,9 @@ public class IngestionDispatcher {
         run.setStatus("RUNNING");
         
         sourceRunRepository.save(run);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        SourceRunEvent event = new SourceRunEvent();
+        event.begin();
         
         try {
             SourceContext ctx = new SourceContext(now, dataSource, Clock.systemUTC());
@@ -139,6 +204,7 @@ public class IngestionDispatcher {
                 IngestResult result = plugin.ingest(ctx, check);
                 run.setStatus(result.noChange ? "NO_CHANGE" : "SUCCESS");
                 run.setRowsUpserted(result.rowsUpserted);
+                ingestionMetrics.recordRows(plugin.getSourceId(), result.rowsUpserted);
             }
             
         } catch (Exception e) {
@@ -146,7 +212,16 @@ public class IngestionDispatcher {
             run.setErrorSummary(e.getMessage());
         } finally {
             run.setEndedAt(Instant.now());
+            sample.stop(meterRegistry.timer("ingestion.run", "source", plugin.getSourceId(), "status", run.getStatus()));
+            if (event.shouldCommit()) {
+                event.sourceId = plugin.getSourceId();
+                event.status = run.getStatus();
+                event.rows = run.getRowsUpserted() == null ? 0 : run.getRowsUpserted();
+                event.commit();
+            }
             sourceRunRepository.save(run);
+            // Reads that follow must not see a replica without this run's rows and status
+            replicaSet.recordWrite();
         }
     }
 }
@@ -0,0 +1,55 @@
+package com.utilityexplorer.ingestion;
+
+import com.utilityexplorer.shared.concurrent.VirtualThreads;
+import com.utilityexplorer.workload.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead for ingestion runs inside the API process.
+ *
+ * Runs execute on {@code INGESTION_MAX_CONCURRENCY} dedicated threads that borrow from the
+ * ingestion connection pool, so a backfill neither holds the shared scheduler thread nor the
+ * servlet thread that triggered it. Reported as {@code executor.*{name=ingestion}}.
+ */
+@Component
+@ConditionalOnProperty(name = "INGESTION_DISPATCHER_ENABLED", havingValue = "true")
+public class IngestionExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    public IngestionExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${INGESTION_MAX_CONCURRENCY:1}") int maxConcurrency,
+            @Value("${INGESTION_QUEUE_LIMIT:8}") int queueLimit) {
+        int threads = Math.max(1, maxConcurrency);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueLimit)),
+            Workload.INGESTION.threadFactory(VirtualThreads.threadFactory("ingestion-")),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, "ingestion", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * @throws RejectedExecutionException if every worker is busy and the queue is full
+     */
+    public void execute(Runnable run) {
+        executor.execute(run);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
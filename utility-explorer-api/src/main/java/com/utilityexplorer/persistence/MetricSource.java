@@ -0,0 +1,62 @@
+package com.utilityexplorer.persistence;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Metric to source mapping maintained by fact_value triggers (see V26 migration).
+ */
+@Entity
+@Immutable
+@Table(name = "metric_source")
+@IdClass(MetricSource.Key.class)
+public class MetricSource {
+    
+    @Id
+    @Column(name = "metric_id")
+    private String metricId;
+    
+    @Id
+    @Column(name = "source_id")
+    private String sourceId;
+    
+    @Column(name = "last_changed_at", nullable = false)
+    private Instant lastChangedAt;
+    
+    // Constructors
+    public MetricSource() {}
+    
+    // Getters
+    public String getMetricId() { return metricId; }
+    public String getSourceId() { return sourceId; }
+    public Instant getLastChangedAt() { return lastChangedAt; }
+    
+    public static class Key implements Serializable {
+        private String metricId;
+        private String sourceId;
+        
+        public Key() {}
+        
+        public Key(String metricId, String sourceId) {
+            this.metricId = metricId;
+            this.sourceId = sourceId;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return Objects.equals(metricId, that.metricId) && Objects.equals(sourceId, that.sourceId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(metricId, sourceId);
+        }
+    }
+}
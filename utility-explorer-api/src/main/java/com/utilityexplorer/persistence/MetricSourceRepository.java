@@ -0,0 +1,22 @@
+package com.utilityexplorer.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MetricSourceRepository extends JpaRepository<MetricSource, MetricSource.Key> {
+    
+    @Query("SELECT ms.metricId, MAX(ms.lastChangedAt) FROM MetricSource ms GROUP BY ms.metricId")
+    List<Object[]> findLastChangedAtByMetric();
+
+    /**
+     * One row of counts and change timestamps over metric and metric_source (V31); differs
+     * whenever a metric is added, edited or removed or a metric/source pair appears or goes away.
+     */
+    @Query(value = "SELECT (SELECT COUNT(*) FROM metric), (SELECT MAX(updated_at) FROM metric), "
+        + "(SELECT COUNT(*) FROM metric_source), (SELECT MAX(created_at) FROM metric_source)", nativeQuery = true)
+    List<Object[]> findCatalogVersion();
+}
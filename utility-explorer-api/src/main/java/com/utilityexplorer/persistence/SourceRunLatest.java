@@ -0,0 +1,55 @@
+package com.utilityexplorer.persistence;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-only view over source_run holding the latest run per source plus the start
+ * time of the latest successful run (see V26 migration).
+ */
+@Entity
+@Immutable
+@Table(name = "source_run_latest")
+public class SourceRunLatest {
+    
+    @Id
+    @Column(name = "source_id")
+    private String sourceId;
+    
+    @Column(name = "run_id")
+    private UUID runId;
+    
+    @Column(name = "started_at")
+    private Instant startedAt;
+    
+    @Column(name = "ended_at")
+    private Instant endedAt;
+    
+    @Column
+    private String status;
+    
+    @Column(name = "rows_upserted")
+    private Integer rowsUpserted;
+    
+    @Column(name = "error_summary")
+    private String errorSummary;
+    
+    @Column(name = "last_success_at")
+    private Instant lastSuccessAt;
+    
+    // Constructors
+    public SourceRunLatest() {}
+    
+    // Getters
+    public String getSourceId() { return sourceId; }
+    public UUID getRunId() { return runId; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getEndedAt() { return endedAt; }
+    public String getStatus() { return status; }
+    public Integer getRowsUpserted() { return rowsUpserted; }
+    public String getErrorSummary() { return errorSummary; }
+    public Instant getLastSuccessAt() { return lastSuccessAt; }
+}
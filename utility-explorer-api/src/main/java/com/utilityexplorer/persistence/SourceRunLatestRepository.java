@@ -0,0 +1,8 @@
+package com.utilityexplorer.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SourceRunLatestRepository extends JpaRepository<SourceRunLatest, String> {
+}
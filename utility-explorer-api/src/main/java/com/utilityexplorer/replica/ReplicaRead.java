@@ -0,0 +1,18 @@
+package com.utilityexplorer.replica;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service whose {@code @Transactional(readOnly = true)} work may be served by a read
+ * replica. Read-only transactions elsewhere, including Spring Data's default ones, and anything
+ * joining a read-write transaction stay on the primary.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReplicaRead {
+}
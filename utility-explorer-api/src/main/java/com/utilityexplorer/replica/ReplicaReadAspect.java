@@ -0,0 +1,37 @@
+package com.utilityexplorer.replica;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks whether the current thread is inside a {@link ReplicaRead} service call, for the routing
+ * DataSource to combine with the transaction's read-only flag when a connection is first used.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReplicaReadAspect {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    public static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+
+    @Around("@within(com.utilityexplorer.replica.ReplicaRead) && execution(public * *(..))")
+    public Object markReplicaRead(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (isActive()) {
+            return joinPoint.proceed();
+        }
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+}
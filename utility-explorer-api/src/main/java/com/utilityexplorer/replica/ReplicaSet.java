@@ -0,0 +1,163 @@
+package com.utilityexplorer.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The configured read replicas and how far each has replayed the primary.
+ *
+ * Every {@code DB_REPLICA_CHECK_MS} each replica reports its replay lag. A replica that has
+ * replayed all WAL it received counts as current; one that is not streaming (or cannot be reached)
+ * is unusable until the next check. A read goes to a replica whose data is at most
+ * {@code DB_REPLICA_MAX_STALENESS_MS} old and, with {@code DB_REPLICA_READ_YOUR_WRITES}, that has
+ * replayed past the last ingestion write this instance made; otherwise it goes to the primary.
+ * Writes by the ingestion service are only covered by the staleness bound.
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    // Lag in ms, or NULL when the server is not a streaming standby
+    static final String LAG_SQL =
+        "SELECT CASE " +
+        "WHEN NOT pg_is_in_recovery() THEN NULL " +
+        "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL " +
+        "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private static final class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile Instant replayedThrough;
+
+        private Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration maxStaleness;
+    private final boolean readYourWrites;
+    private final Clock clock;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    private volatile Instant lastWriteAt = Instant.EPOCH;
+
+    public ReplicaSet(Map<String, DataSource> replicas, Duration maxStaleness, boolean readYourWrites,
+                      MeterRegistry meterRegistry, Clock clock) {
+        replicas.forEach((key, dataSource) -> this.replicas.add(new Replica(key, dataSource)));
+        this.maxStaleness = maxStaleness;
+        this.readYourWrites = readYourWrites;
+        this.clock = clock;
+        this.replicaReads = Counter.builder("db.replica.reads").tag("target", "replica")
+            .description("Replica-eligible reads served by a replica").register(meterRegistry);
+        this.primaryReads = Counter.builder("db.replica.reads").tag("target", "primary")
+            .description("Replica-eligible reads sent to the primary because no replica was fresh enough")
+            .register(meterRegistry);
+        for (Replica replica : this.replicas) {
+            Gauge.builder("db.replica.staleness", replica, r -> stalenessSeconds(r))
+                .tag("replica", replica.key)
+                .description("Age of the newest primary data the replica had replayed at the last check")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        }
+    }
+
+    /** A set without replicas: every read goes to the primary. */
+    public static ReplicaSet none() {
+        return new ReplicaSet(Map.of(), Duration.ZERO, false, new SimpleMeterRegistry(), Clock.systemUTC());
+    }
+
+    /** The replica data sources by routing key, for the routing DataSource's targets. */
+    public Map<String, DataSource> dataSources() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        replicas.forEach(replica -> dataSources.put(replica.key, replica.dataSource));
+        return dataSources;
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * Picks a replica fresh enough for a read starting now, rotating between eligible ones, or
+     * returns null to use the primary.
+     */
+    public String select() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        Instant required = clock.instant().minus(maxStaleness);
+        Instant lastWrite = lastWriteAt;
+        if (readYourWrites && lastWrite.isAfter(required)) {
+            required = lastWrite;
+        }
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            Instant replayed = replica.replayedThrough;
+            if (replayed != null && !replayed.isBefore(required)) {
+                replicaReads.increment();
+                return replica.key;
+            }
+        }
+        primaryReads.increment();
+        return null;
+    }
+
+    /** Notes a committed write to the primary that later reads must observe. */
+    public void recordWrite() {
+        lastWriteAt = clock.instant();
+    }
+
+    @Scheduled(fixedDelayString = "${DB_REPLICA_CHECK_MS:1000}")
+    public void refresh() {
+        for (Replica replica : replicas) {
+            Instant checkedAt = clock.instant();
+            Double lagMs;
+            try {
+                lagMs = new JdbcTemplate(replica.dataSource).queryForObject(LAG_SQL, Double.class);
+            } catch (RuntimeException e) {
+                lagMs = null;
+            }
+            update(replica.key, lagMs, checkedAt);
+        }
+    }
+
+    void update(String key, Double lagMs, Instant checkedAt) {
+        for (Replica replica : replicas) {
+            if (replica.key.equals(key)) {
+                replica.replayedThrough = lagMs == null ? null : checkedAt.minusMillis(Math.round(lagMs));
+            }
+        }
+    }
+
+    private double stalenessSeconds(Replica replica) {
+        Instant replayed = replica.replayedThrough;
+        return replayed == null ? Double.NaN : Duration.between(replayed, clock.instant()).toMillis() / 1000.0;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -2,15 +2,19 @@ package com.utilityexplorer.service;
 
 import com.utilityexplorer.dto.ApiDtos.*;
 import com.utilityexplorer.persistence.*;
+import com.utilityexplorer.replica.ReplicaRead;
 import com.utilityexplorer.shared.persistence.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@ReplicaRead
+@Transactional(readOnly = true)
 public class CatalogService {
     
     @Autowired
@@ -0,0 +1,263 @@
+package com.utilityexplorer.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utilityexplorer.shared.persistence.MetricRepository;
+import com.utilityexplorer.persistence.SourceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Streams every fact of a metric/source as NDJSON or CSV.
+ *
+ * Rows are read in pages using keyset pagination over the remaining fact_value primary key
+ * columns (geo_level, geo_id, period_start, period_end), so each page is an index range scan and
+ * memory stays constant regardless of dataset size. Every row carries an opaque cursor; passing
+ * the last received cursor back resumes the export right after that row.
+ *
+ * A failure after rows have been sent cannot change the 200 status, so the export ends with an
+ * error record instead (NDJSON: an object with "error" and "cursor"; CSV: a "#error" line with
+ * the message and cursor) and rethrows; a body without that record is complete.
+ */
+@Service
+public class FactExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String CSV_HEADER =
+        "metricId,sourceId,geoLevel,geoId,periodStart,periodEnd,value,retrievedAt,sourcePublishedAt,cursor\n";
+
+    private static final String FIRST_PAGE_SQL =
+        "SELECT geo_level, geo_id, period_start, period_end, value_numeric, retrieved_at, source_published_at " +
+        "FROM fact_value WHERE metric_id = ? AND source_id = ? " +
+        "ORDER BY geo_level, geo_id, period_start, period_end LIMIT ?";
+
+    private static final String NEXT_PAGE_SQL =
+        "SELECT geo_level, geo_id, period_start, period_end, value_numeric, retrieved_at, source_published_at " +
+        "FROM fact_value WHERE metric_id = ? AND source_id = ? " +
+        "AND (geo_level, geo_id, period_start, period_end) > (?, ?, ?, ?) " +
+        "ORDER BY geo_level, geo_id, period_start, period_end LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MetricRepository metricRepository;
+
+    @Autowired
+    private SourceRepository sourceRepository;
+
+    @Value("${EXPORT_PAGE_SIZE:5000}")
+    private int pageSize;
+
+    public boolean exists(String metricId, String sourceId) {
+        return metricRepository.existsById(metricId) && sourceRepository.existsById(sourceId);
+    }
+
+    /**
+     * Writes rows after {@code cursor} (or from the beginning when null), stopping after
+     * {@code maxRows} rows when set.
+     *
+     * @throws IllegalArgumentException if the cursor cannot be decoded
+     */
+    public void export(String metricId, String sourceId, String cursor, Long maxRows,
+                       Format format, OutputStream out) throws IOException {
+        Cursor position = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator json = null;
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+        } else {
+            // One generator per stream; rows are separated by explicit newlines, not Jackson's root separator
+            json = objectMapper.getFactory().createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            json.setRootValueSeparator(null);
+        }
+
+        ExportRow lastWritten = null;
+        try {
+            long remaining = maxRows != null ? maxRows : Long.MAX_VALUE;
+            while (remaining > 0) {
+                int limit = (int) Math.min(pageSize, remaining);
+                List<ExportRow> page = fetchPage(metricId, sourceId, position, limit);
+                for (ExportRow row : page) {
+                    if (json == null) {
+                        writeCsv(writer, metricId, sourceId, row);
+                    } else {
+                        writeJson(json, metricId, sourceId, row);
+                    }
+                    lastWritten = row;
+                }
+                flush(json, writer);
+                if (page.size() < limit) {
+                    break;
+                }
+                remaining -= page.size();
+                ExportRow last = page.get(page.size() - 1);
+                position = new Cursor(last.geoLevel, last.geoId, last.periodStart, last.periodEnd);
+            }
+        } catch (RuntimeException | IOException e) {
+            String resume = lastWritten != null ? lastWritten.cursor() : position != null ? position.encode() : "";
+            writeError(json, writer, resume, e);
+            throw e;
+        }
+        flush(json, writer);
+    }
+
+    public static Cursor decodeCursor(String cursor) {
+        return Cursor.decode(cursor);
+    }
+
+    private List<ExportRow> fetchPage(String metricId, String sourceId, Cursor after, int limit) {
+        List<ExportRow> rows = new ArrayList<>(limit);
+        if (after == null) {
+            jdbcTemplate.query(FIRST_PAGE_SQL, rs -> { rows.add(mapRow(rs)); },
+                metricId, sourceId, limit);
+        } else {
+            jdbcTemplate.query(NEXT_PAGE_SQL, rs -> { rows.add(mapRow(rs)); },
+                metricId, sourceId, after.geoLevel, after.geoId,
+                Date.valueOf(after.periodStart), Date.valueOf(after.periodEnd), limit);
+        }
+        return rows;
+    }
+
+    private ExportRow mapRow(ResultSet rs) throws SQLException {
+        Timestamp published = rs.getTimestamp("source_published_at");
+        return new ExportRow(
+            rs.getString("geo_level"),
+            rs.getString("geo_id"),
+            rs.getDate("period_start").toLocalDate(),
+            rs.getDate("period_end").toLocalDate(),
+            rs.getBigDecimal("value_numeric").toPlainString(),
+            rs.getTimestamp("retrieved_at").toInstant().toString(),
+            published != null ? published.toInstant().toString() : null
+        );
+    }
+
+    private void writeJson(JsonGenerator json, String metricId, String sourceId, ExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("metricId", metricId);
+        json.writeStringField("sourceId", sourceId);
+        json.writeStringField("geoLevel", row.geoLevel);
+        json.writeStringField("geoId", row.geoId);
+        json.writeStringField("periodStart", row.periodStart.toString());
+        json.writeStringField("periodEnd", row.periodEnd.toString());
+        json.writeNumberField("value", new BigDecimal(row.value));
+        json.writeStringField("retrievedAt", row.retrievedAt);
+        json.writeStringField("sourcePublishedAt", row.sourcePublishedAt);
+        json.writeStringField("cursor", row.cursor());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    /**
+     * Ends a failed stream with an error record carrying the cursor of the last row written before
+     * it. Best effort: if the connection itself is broken the original failure is rethrown regardless.
+     */
+    private void writeError(JsonGenerator json, Writer writer, String resume, Exception failure) {
+        String message = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+        try {
+            if (json != null) {
+                json.writeStartObject();
+                json.writeStringField("error", message);
+                json.writeStringField("cursor", resume);
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } else {
+                writer.write("#error,");
+                writer.write(csv(message.replace('\n', ' ')));
+                writer.write(',');
+                writer.write(resume);
+                writer.write('\n');
+            }
+            flush(json, writer);
+        } catch (IOException | RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private static void flush(JsonGenerator json, Writer writer) throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Writer writer, String metricId, String sourceId, ExportRow row) throws IOException {
+        writer.write(csv(metricId)); writer.write(',');
+        writer.write(csv(sourceId)); writer.write(',');
+        writer.write(csv(row.geoLevel)); writer.write(',');
+        writer.write(csv(row.geoId)); writer.write(',');
+        writer.write(row.periodStart.toString()); writer.write(',');
+        writer.write(row.periodEnd.toString()); writer.write(',');
+        writer.write(row.value); writer.write(',');
+        writer.write(row.retrievedAt); writer.write(',');
+        writer.write(row.sourcePublishedAt != null ? row.sourcePublishedAt : ""); writer.write(',');
+        writer.write(row.cursor());
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record ExportRow(String geoLevel, String geoId, LocalDate periodStart, LocalDate periodEnd,
+                             String value, String retrievedAt, String sourcePublishedAt) {
+        String cursor() {
+            return new Cursor(geoLevel, geoId, periodStart, periodEnd).encode();
+        }
+    }
+
+    /**
+     * Position after a fact_value row, encoded as URL-safe base64 of its key columns.
+     */
+    public record Cursor(String geoLevel, String geoId, LocalDate periodStart, LocalDate periodEnd) {
+
+        String encode() {
+            String raw = geoLevel + "|" + geoId + "|" + periodStart + "|" + periodEnd;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                // geoId may itself contain '|', so split the fixed-shape fields off both ends
+                int first = raw.indexOf('|');
+                int last = raw.lastIndexOf('|');
+                int middle = last > 0 ? raw.lastIndexOf('|', last - 1) : -1;
+                if (first < 0 || middle <= first) {
+                    throw new IllegalArgumentException("Malformed cursor");
+                }
+                return new Cursor(raw.substring(0, first), raw.substring(first + 1, middle),
+                    LocalDate.parse(raw.substring(middle + 1, last)), LocalDate.parse(raw.substring(last + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + token, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.utilityexplorer.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utilityexplorer.timing.RequestTiming;
+import com.utilityexplorer.workload.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs generated read-only SQL (text-to-SQL) with cost controls, streaming rows as NDJSON.
+ *
+ * Statements must pass {@link SqlGuard}: one SELECT over allowlisted tables and functions. They
+ * run in a READ ONLY transaction with a local statement_timeout, wrapped in an outer LIMIT so the
+ * row cap is enforced by the server, and at most {@code SQL_QUERY_MAX_CONCURRENCY} at a time so
+ * generated queries can never hold more than that many connections, which come from the agent
+ * pool rather than the one serving /map and /timeseries.
+ *
+ * Validation results are cached by statement text, and statements execute as the canonical SQL
+ * regenerated by the parser, so formatting and comment variants of one query share the driver's
+ * per-connection prepared statement (and its plan). Small results are cached by canonical SQL and
+ * row cap for {@code SQL_QUERY_RESULT_TTL_SECONDS}; a slow client holds its permit and connection
+ * while rows stream.
+ */
+@Service
+public class GuardedSqlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuardedSqlService.class);
+
+    private static final int FETCH_SIZE = 500;
+    private static final int VALIDATED_CACHE_ENTRIES = 500;
+
+    private record ResultKey(String canonicalSql, int rowLimit) {}
+
+    private record CachedResult(List<String> columns, List<Object[]> rows, Instant expiresAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Set<String> allowedTables;
+    private final int maxRows;
+    private final long timeoutMs;
+    private final Duration resultTtl;
+    private final int resultCacheEntries;
+    private final int resultCacheMaxRows;
+    private final Semaphore permits;
+
+    private final Map<String, SqlGuard.ValidatedSql> validated = lruMap(VALIDATED_CACHE_ENTRIES);
+    private final Map<ResultKey, CachedResult> results;
+
+    public GuardedSqlService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${SQL_QUERY_ALLOWED_TABLES:fact_value,metric,region,source}") String allowedTables,
+                             @Value("${SQL_QUERY_MAX_ROWS:10000}") int maxRows,
+                             @Value("${SQL_QUERY_TIMEOUT_MS:5000}") long timeoutMs,
+                             @Value("${SQL_QUERY_MAX_CONCURRENCY:2}") int maxConcurrency,
+                             @Value("${SQL_QUERY_RESULT_TTL_SECONDS:60}") long resultTtlSeconds,
+                             @Value("${SQL_QUERY_RESULT_CACHE_ENTRIES:200}") int resultCacheEntries,
+                             @Value("${SQL_QUERY_RESULT_CACHE_MAX_ROWS:1000}") int resultCacheMaxRows) {
+        this(jdbcTemplate, objectMapper, meterRegistry, Clock.systemUTC(), allowedTables, maxRows, timeoutMs,
+            maxConcurrency, Duration.ofSeconds(resultTtlSeconds), resultCacheEntries, resultCacheMaxRows);
+    }
+
+    GuardedSqlService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry, Clock clock,
+                      String allowedTables, int maxRows, long timeoutMs, int maxConcurrency, Duration resultTtl,
+                      int resultCacheEntries, int resultCacheMaxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.allowedTables = Arrays.stream(allowedTables.split(","))
+            .map(table -> table.trim().toLowerCase(Locale.ROOT))
+            .filter(table -> !table.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+        this.maxRows = Math.max(1, maxRows);
+        this.timeoutMs = timeoutMs;
+        this.resultTtl = resultTtl;
+        this.resultCacheEntries = resultCacheEntries;
+        this.resultCacheMaxRows = resultCacheMaxRows;
+        this.permits = new Semaphore(Math.max(1, maxConcurrency));
+        this.results = lruMap(Math.max(1, resultCacheEntries));
+    }
+
+    /**
+     * A validated statement ready to stream. Holds a concurrency permit until written unless the
+     * result came from the cache; if the response is abandoned before {@link #writeTo} runs, the
+     * caller must {@link #release} it.
+     */
+    public final class Execution {
+        private static final int PREPARED = 0;
+        private static final int RUNNING = 1;
+        private static final int FINISHED = 2;
+
+        private final SqlGuard.ValidatedSql sql;
+        private final int rowLimit;
+        private final CachedResult cached;
+        private final AtomicInteger state;
+
+        private Execution(SqlGuard.ValidatedSql sql, int rowLimit, CachedResult cached) {
+            this.sql = sql;
+            this.rowLimit = rowLimit;
+            this.cached = cached;
+            this.state = new AtomicInteger(cached != null ? FINISHED : PREPARED);
+        }
+
+        public boolean isCached() {
+            return cached != null;
+        }
+
+        public int getRowLimit() {
+            return rowLimit;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            // One generator per response; rows are separated by explicit newlines, not Jackson's root separator
+            JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            json.setRootValueSeparator(null);
+            if (cached != null) {
+                for (Object[] row : cached.rows()) {
+                    writeRow(json, cached.columns(), row);
+                }
+                json.flush();
+                writer.flush();
+                return;
+            }
+            if (!state.compareAndSet(PREPARED, RUNNING)) {
+                throw new IllegalStateException("Generated query was released before it was written");
+            }
+            try {
+                execute(sql, rowLimit, json);
+            } finally {
+                state.set(FINISHED);
+                permits.release();
+            }
+            json.flush();
+            writer.flush();
+        }
+
+        /**
+         * Returns the permit of a statement that never started. Safe to call more than once; does
+         * nothing once {@link #writeTo} has begun, which releases the permit itself.
+         */
+        public void release() {
+            if (state.compareAndSet(PREPARED, FINISHED)) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the SQL is not an allowlisted read-only query
+     * @throws RejectedExecutionException if the concurrency limit is reached
+     */
+    public Execution prepare(String sql, Integer requestedRows) {
+        SqlGuard.ValidatedSql statement;
+        try {
+            statement = validate(sql);
+        } catch (IllegalArgumentException e) {
+            count("rejected");
+            throw e;
+        }
+        int rowLimit = requestedRows == null ? maxRows : Math.max(1, Math.min(requestedRows, maxRows));
+
+        CachedResult cached = cachedResult(new ResultKey(statement.canonicalSql(), rowLimit));
+        RequestTiming.count(cached != null ? "sql.cache.hit" : "sql.cache.miss", 1);
+        if (cached != null) {
+            count("hit");
+            return new Execution(statement, rowLimit, cached);
+        }
+        if (!permits.tryAcquire()) {
+            count("busy");
+            throw new RejectedExecutionException("Too many generated queries running");
+        }
+        count("miss");
+        return new Execution(statement, rowLimit, null);
+    }
+
+    private SqlGuard.ValidatedSql validate(String sql) {
+        String key = normalize(sql);
+        synchronized (validated) {
+            SqlGuard.ValidatedSql hit = validated.get(key);
+            if (hit != null) {
+                return hit;
+            }
+        }
+        SqlGuard.ValidatedSql statement = SqlGuard.validate(key, allowedTables);
+        synchronized (validated) {
+            validated.put(key, statement);
+        }
+        return statement;
+    }
+
+    private CachedResult cachedResult(ResultKey key) {
+        if (resultCacheEntries <= 0) {
+            return null;
+        }
+        synchronized (results) {
+            CachedResult cached = results.get(key);
+            if (cached != null && cached.expiresAt().isAfter(clock.instant())) {
+                return cached;
+            }
+            if (cached != null) {
+                results.remove(key);
+            }
+            return null;
+        }
+    }
+
+    private void execute(SqlGuard.ValidatedSql statement, int rowLimit, JsonGenerator json) {
+        String sql = "SELECT * FROM (" + statement.canonicalSql() + ") AS guarded LIMIT ?";
+        Workload.AGENT.run(() -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (Statement setup = connection.createStatement()) {
+                    setup.execute("SET TRANSACTION READ ONLY");
+                }
+                try (PreparedStatement timeout = connection.prepareStatement(
+                        "SELECT set_config('statement_timeout', ?, true)")) {
+                    timeout.setString(1, Long.toString(timeoutMs));
+                    timeout.execute();
+                }
+                try (PreparedStatement query = connection.prepareStatement(sql)) {
+                    query.setInt(1, rowLimit);
+                    query.setFetchSize(FETCH_SIZE);
+                    try (ResultSet rs = query.executeQuery()) {
+                        stream(rs, new ResultKey(statement.canonicalSql(), rowLimit), json);
+                    }
+                }
+            } finally {
+                rollbackQuietly(connection);
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        }));
+    }
+
+    private void stream(ResultSet rs, ResultKey key, JsonGenerator json) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        List<String> columns = new ArrayList<>(meta.getColumnCount());
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            columns.add(meta.getColumnLabel(i));
+        }
+        List<Object[]> kept = resultCacheEntries > 0 ? new ArrayList<>() : null;
+        try {
+            while (rs.next()) {
+                Object[] row = new Object[columns.size()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = jsonValue(rs.getObject(i + 1));
+                }
+                writeRow(json, columns, row);
+                if (kept != null && kept.size() == resultCacheMaxRows) {
+                    kept = null; // too large to cache; stop holding rows
+                } else if (kept != null) {
+                    kept.add(row);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (kept != null) {
+            synchronized (results) {
+                results.put(key, new CachedResult(List.copyOf(columns), kept, clock.instant().plus(resultTtl)));
+            }
+        }
+    }
+
+    private static void writeRow(JsonGenerator json, List<String> columns, Object[] row) throws IOException {
+        json.writeStartObject();
+        for (int i = 0; i < row.length; i++) {
+            json.writeFieldName(columns.get(i));
+            json.writeObject(row[i]);
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    // Immutable JSON-friendly values, safe to cache and share between responses
+    private static Object jsonValue(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant().toString();
+        }
+        return value.toString();
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.warn("Failed to roll back generated query: {}", e.getMessage());
+        }
+    }
+
+    // Whitespace inside the statement is left alone: it may be part of a string literal
+    static String normalize(String sql) {
+        String normalized = sql == null ? "" : sql.strip();
+        while (normalized.endsWith(";")) {
+            normalized = normalized.substring(0, normalized.length() - 1).stripTrailing();
+        }
+        return normalized;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("sql.guarded.queries", "outcome", outcome).increment();
+    }
+
+    private static <K, V> Map<K, V> lruMap(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.utilityexplorer.service;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling for line charts.
+ *
+ * Keeps the first and last point and, for every bucket in between, the point forming the
+ * largest triangle with the previously kept point and the average of the next bucket.
+ * This preserves peaks and troughs far better than taking every n-th point.
+ */
+public final class LttbDownsampler {
+
+    private LttbDownsampler() {}
+
+    /**
+     * Returns the ascending indices of the points to keep.
+     *
+     * @param x monotonically increasing x values
+     * @param y y values, same length as x
+     * @param threshold maximum number of points to keep; values below 3 or at least x.length keep everything
+     */
+    public static int[] select(double[] x, double[] y, int threshold) {
+        int n = x.length;
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        int count = 0;
+        selected[count++] = 0;
+
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int rangeStart = (int) Math.floor(bucket * bucketSize) + 1;
+            int rangeEnd = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+            // Average of the following bucket (or the last point for the final bucket)
+            int nextStart = rangeEnd;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            int nextCount = Math.max(nextEnd - nextStart, 0);
+            if (nextCount == 0) {
+                avgX = x[n - 1];
+                avgY = y[n - 1];
+            } else {
+                for (int i = nextStart; i < nextEnd; i++) {
+                    avgX += x[i];
+                    avgY += y[i];
+                }
+                avgX /= nextCount;
+                avgY /= nextCount;
+            }
+
+            double maxArea = -1;
+            int maxIndex = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs((x[a] - avgX) * (y[i] - y[a]) - (x[a] - x[i]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected[count++] = maxIndex;
+            a = maxIndex;
+        }
+
+        selected[count] = n - 1;
+        return selected;
+    }
+}
@@ -2,17 +2,29 @@ package com.utilityexplorer.service;
 
 import com.utilityexplorer.dto.ApiDtos.*;
 import com.utilityexplorer.persistence.*;
+import com.utilityexplorer.replica.ReplicaRead;
+import com.utilityexplorer.shared.jfr.MapBuildEvent;
 import com.utilityexplorer.shared.persistence.*;
+import com.utilityexplorer.timing.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.instrumentation.annotations.SpanAttribute;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@ReplicaRead
+@Transactional(readOnly = true)
 public class MapService {
 
+    /** Period alias resolved from fact_watermark to the newest period loaded at the geo level. */
+    static final String LATEST_PERIOD = "latest";
+
     @Autowired
     private FactValueRepository factValueRepository;
 
@@ -25,15 +37,53 @@ public class MapService {
     @Autowired
     private RegionRepository regionRepository;
 
-    public Optional<MapResponse> getMapData(String metricId, String sourceId, String geoLevel,
+    @Autowired
+    private FactWatermarkRepository factWatermarkRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @WithSpan("MapService.getMapData")
+    public Optional<MapResponse> getMapData(@SpanAttribute("metric.id") String metricId, String sourceId,
+                                            @SpanAttribute("geo.level") String geoLevel,
                                             String parentGeoLevel, String parentGeoId, String period) {
-        Optional<Metric> metric = metricRepository.findById(metricId);
-        Optional<Source> source = sourceRepository.findById(sourceId);
-        if (metric.isEmpty() || source.isEmpty() || period == null) {
-            return Optional.empty();
+        return ServiceTimer.record(meterRegistry, "map.requests", "map",
+            () -> loadMapData(metricId, sourceId, geoLevel, parentGeoLevel, parentGeoId, period));
+    }
+
+    @WithSpan("MapService.getMapDataRange")
+    public Optional<MapRangeResponse> getMapDataRange(@SpanAttribute("metric.id") String metricId, String sourceId,
+                                                      @SpanAttribute("geo.level") String geoLevel,
+                                                      String parentGeoLevel, String parentGeoId,
+                                                      String startPeriod, String endPeriod) {
+        return ServiceTimer.record(meterRegistry, "map.requests", "range",
+            () -> loadMapDataRange(metricId, sourceId, geoLevel, parentGeoLevel, parentGeoId, startPeriod, endPeriod));
+    }
+
+    private Optional<MapResponse> loadMapData(String metricId, String sourceId, String geoLevel,
+                                              String parentGeoLevel, String parentGeoId, String period) {
+        Optional<Metric> metric;
+        Optional<Source> source;
+        LocalDate periodStart;
+        LocalDate periodEnd;
+        try (RequestTiming.Stage lookup = RequestTiming.stage("lookup")) {
+            metric = metricRepository.findById(metricId);
+            source = sourceRepository.findById(sourceId);
+            if (metric.isEmpty() || source.isEmpty() || period == null) {
+                return Optional.empty();
+            }
+            if (LATEST_PERIOD.equalsIgnoreCase(period)) {
+                Optional<FactWatermark> watermark = factWatermarkRepository.findById(new FactWatermarkId(metricId, sourceId, geoLevel));
+                if (watermark.isEmpty()) {
+                    return Optional.empty();
+                }
+                periodStart = watermark.get().getLatestPeriodStart();
+                periodEnd = watermark.get().getLatestPeriodEnd();
+            } else {
+                periodStart = parsePeriodStart(period);
+                periodEnd = parsePeriodEnd(period);
+            }
         }
-        LocalDate periodStart = parsePeriodStart(period);
-        LocalDate periodEnd = parsePeriodEnd(period);
         if (periodStart == null || periodEnd == null) {
             return Optional.empty();
         }
@@ -42,11 +92,15 @@ public class MapService {
         return Optional.of(buildMapResponse(metric.get(), source.get(), geoLevel, parentGeoId, periodStart, periodEnd, facts));
     }
 
-    public Optional<MapRangeResponse> getMapDataRange(String metricId, String sourceId, String geoLevel,
-                                                      String parentGeoLevel, String parentGeoId,
-                                                      String startPeriod, String endPeriod) {
-        Optional<Metric> metric = metricRepository.findById(metricId);
-        Optional<Source> source = sourceRepository.findById(sourceId);
+    private Optional<MapRangeResponse> loadMapDataRange(String metricId, String sourceId, String geoLevel,
+                                                        String parentGeoLevel, String parentGeoId,
+                                                        String startPeriod, String endPeriod) {
+        Optional<Metric> metric;
+        Optional<Source> source;
+        try (RequestTiming.Stage lookup = RequestTiming.stage("lookup")) {
+            metric = metricRepository.findById(metricId);
+            source = sourceRepository.findById(sourceId);
+        }
         if (metric.isEmpty() || source.isEmpty()) {
             return Optional.empty();
         }
@@ -84,6 +138,17 @@ public class MapService {
     private List<FactValue> fetchFacts(String metricId, String sourceId, String geoLevel,
                                        String parentGeoLevel, String parentGeoId,
                                        LocalDate periodStart, LocalDate periodEnd) {
+        // Includes hydrating the FactValue entities
+        try (RequestTiming.Stage stage = RequestTiming.stage("facts")) {
+            List<FactValue> facts = queryFacts(metricId, sourceId, geoLevel, parentGeoLevel, parentGeoId, periodStart, periodEnd);
+            RequestTiming.count("rows", facts.size());
+            return facts;
+        }
+    }
+
+    private List<FactValue> queryFacts(String metricId, String sourceId, String geoLevel,
+                                       String parentGeoLevel, String parentGeoId,
+                                       LocalDate periodStart, LocalDate periodEnd) {
         boolean hasParent = parentGeoLevel != null && parentGeoId != null && !parentGeoId.isBlank()
             && ("COUNTY".equalsIgnoreCase(geoLevel) || "PLACE".equalsIgnoreCase(geoLevel))
             && "STATE".equalsIgnoreCase(parentGeoLevel);
@@ -103,6 +168,8 @@ public class MapService {
 
     private MapResponse buildMapResponse(Metric metric, Source source, String geoLevel, String parentGeoId,
                                          LocalDate periodStart, LocalDate periodEnd, List<FactValue> facts) {
+        MapBuildEvent event = new MapBuildEvent();
+        event.begin();
         MapResponse response = new MapResponse();
         response.setMetric(new MetricInfo(metric.getMetricId(), metric.getName(), metric.getUnit()));
         response.setSource(new SourceInfo(
@@ -125,24 +192,38 @@ public class MapService {
                 .mapToDouble(f -> f.getValueNumeric().doubleValue())
                 .summaryStatistics();
             response.setLegend(new LegendStats(stats.getMin(), stats.getMax()));
-            List<MapValue> values = facts.stream()
-                .map(fact -> {
-                    Optional<Region> region = regionRepository.findByGeoLevelAndGeoId(fact.getGeoLevel(), fact.getGeoId());
-                    String regionName = region.map(Region::getName).orElse("Unknown");
-                    return new MapValue(
-                        fact.getGeoId(),
-                        regionName,
-                        fact.getValueNumeric().doubleValue(),
-                        fact.getRetrievedAt().toString()
-                    );
-                })
-                .toList();
+            List<MapValue> values;
+            try (RequestTiming.Stage stage = RequestTiming.stage("regions")) {
+                values = facts.stream()
+                    .map(fact -> {
+                        Optional<Region> region = regionRepository.findByGeoLevelAndGeoId(fact.getGeoLevel(), fact.getGeoId());
+                        String regionName = region.map(Region::getName).orElse("Unknown");
+                        return new MapValue(
+                            fact.getGeoId(),
+                            regionName,
+                            fact.getValueNumeric().doubleValue(),
+                            fact.getRetrievedAt().toString()
+                        );
+                    })
+                    .toList();
+            }
+            RequestTiming.count("region.lookups", facts.size());
             response.setValues(values);
         } else {
             response.setValues(List.of());
             response.setLegend(new LegendStats(null, null));
         }
         response.setNotes(List.of("If a region lacks a value for this period, it will appear as 'No data'."));
+        if (event.shouldCommit()) {
+            event.metricId = metric.getMetricId();
+            event.sourceId = source.getSourceId();
+            event.geoLevel = geoLevel;
+            event.parentGeoId = parentGeoId;
+            event.periodStart = periodStart.toString();
+            event.periodEnd = periodEnd.toString();
+            event.rows = facts.size();
+            event.commit();
+        }
         return response;
     }
 
@@ -1,62 +1,66 @@
 package com.utilityexplorer.service;
 
 import com.utilityexplorer.dto.ApiDtos.*;
-import com.utilityexplorer.persistence.*;
+import com.utilityexplorer.geo.RegionHierarchyCache;
+import com.utilityexplorer.geo.RegionSearchIndex;
+import com.utilityexplorer.replica.ReplicaRead;
 import com.utilityexplorer.shared.persistence.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@ReplicaRead
+@Transactional(readOnly = true)
 public class RegionService {
     
     @Autowired
-    private RegionRepository regionRepository;
+    private RegionHierarchyCache regionHierarchyCache;
     
-    public List<RegionDto> searchRegions(String query) {
-        return regionRepository.findByNameContainingIgnoreCase(query).stream()
+    public RegionPage searchRegions(String query, Collection<String> geoLevels, int offset, int limit) {
+        RegionSearchIndex.SearchResult result = regionHierarchyCache.getSearchIndex().search(query, geoLevels, offset, limit);
+        List<RegionDto> regions = result.regions().stream()
             .map(this::toRegionDto)
             .toList();
+        return new RegionPage(regions, result.total());
     }
     
     public Optional<RegionDto> getRegion(String geoLevel, String geoId) {
-        return regionRepository.findByGeoLevelAndGeoId(geoLevel, geoId)
+        return regionHierarchyCache.find(geoLevel, geoId)
             .map(this::toRegionDto);
     }
     
-    public List<RegionDto> getChildren(String geoLevel, String geoId) {
-        Optional<Region> parent = regionRepository.findByGeoLevelAndGeoId(geoLevel, geoId);
+    public RegionPage getChildren(String geoLevel, String geoId, int offset, int limit) {
+        Optional<Region> parent = regionHierarchyCache.find(geoLevel, geoId);
         if (parent.isEmpty()) {
-            return List.of();
+            return new RegionPage(List.of(), 0);
         }
         
-        return regionRepository.findByParentRegionPk(parent.get().getRegionPk()).stream()
+        List<RegionDto> children = regionHierarchyCache.getChildren(parent.get().getRegionPk(), offset, limit).stream()
             .map(this::toRegionDto)
             .toList();
+        return new RegionPage(children, regionHierarchyCache.countChildren(parent.get().getRegionPk()));
     }
     
     private RegionDto toRegionDto(Region region) {
-        String parentGeoLevel = null;
-        String parentGeoId = null;
+        Optional<Region> parent = regionHierarchyCache.getParent(region);
         
-        if (region.getParentRegionPk() != null) {
-            Optional<Region> parent = regionRepository.findById(region.getParentRegionPk());
-            if (parent.isPresent()) {
-                parentGeoLevel = parent.get().getGeoLevel();
-                parentGeoId = parent.get().getGeoId();
-            }
-        }
-        
-        return new RegionDto(
+        RegionDto dto = new RegionDto(
             region.getGeoLevel(),
             region.getGeoId(),
             region.getName(),
-            parentGeoLevel,
-            parentGeoId,
+            parent.map(Region::getGeoLevel).orElse(null),
+            parent.map(Region::getGeoId).orElse(null),
             region.getCentroidLat(),
             region.getCentroidLon()
         );
+        dto.setAncestors(regionHierarchyCache.getAncestors(region).stream()
+            .map(ancestor -> new RegionInfo(ancestor.getGeoLevel(), ancestor.getGeoId(), ancestor.getName()))
+            .toList());
+        return dto;
     }
-}
\ No newline at end of file
+}
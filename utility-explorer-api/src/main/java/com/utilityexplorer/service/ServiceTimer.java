@@ -0,0 +1,28 @@
+package com.utilityexplorer.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Times a service call into {@code <name>{operation, outcome}}, where outcome is "ok", "not_found"
+ * for an empty Optional, or "error" when the call throws.
+ */
+final class ServiceTimer {
+
+    private ServiceTimer() {}
+
+    static <T> T record(MeterRegistry meterRegistry, String name, String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = result instanceof Optional<?> optional && optional.isEmpty() ? "not_found" : "ok";
+            return result;
+        } finally {
+            sample.stop(meterRegistry.timer(name, "operation", operation, "outcome", outcome));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.utilityexplorer.service;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.Statements;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.TableFunction;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Validates generated SQL before {@link GuardedSqlService} runs it.
+ *
+ * Accepts exactly one SELECT (CTEs and set operations allowed) that reads only allowlisted tables
+ * and calls only allowlisted functions, so catalog tables, file access and sleep/lock functions
+ * are out of reach. The canonical SQL returned is regenerated from the parse tree, which drops
+ * comments and normalizes whitespace; it is what gets executed and what caches are keyed by.
+ * Execution still happens in a read-only transaction as a second line of defense.
+ */
+final class SqlGuard {
+
+    record ValidatedSql(String canonicalSql, Set<String> tables) {}
+
+    static final Set<String> ALLOWED_FUNCTIONS = Set.of(
+        "count", "sum", "avg", "min", "max", "stddev", "stddev_samp", "stddev_pop", "variance",
+        "percentile_cont", "percentile_disc", "median", "string_agg", "array_agg", "bool_and", "bool_or",
+        "corr", "regr_slope", "regr_intercept",
+        "rank", "dense_rank", "row_number", "ntile", "lag", "lead", "first_value", "last_value",
+        "round", "abs", "floor", "ceil", "ceiling", "trunc", "sqrt", "power", "ln", "log", "exp", "mod", "sign",
+        "coalesce", "nullif", "greatest", "least",
+        "lower", "upper", "trim", "length", "concat", "substring", "substr", "left", "right", "replace",
+        "date_trunc", "date_part", "to_char", "to_date", "make_date", "age");
+
+    private SqlGuard() {}
+
+    /**
+     * @throws IllegalArgumentException if the SQL does not parse or is not an allowlisted read-only query
+     */
+    static ValidatedSql validate(String sql, Set<String> allowedTables) {
+        if (sql == null || sql.isBlank()) {
+            throw new IllegalArgumentException("SQL is required");
+        }
+        Statements statements;
+        try {
+            statements = CCJSqlParserUtil.parseStatements(sql);
+        } catch (JSQLParserException e) {
+            throw new IllegalArgumentException("SQL could not be parsed");
+        }
+        if (statements.size() != 1) {
+            throw new IllegalArgumentException("Exactly one statement is allowed");
+        }
+        Statement statement = statements.get(0);
+        if (!(statement instanceof Select select)) {
+            throw new IllegalArgumentException("Only SELECT statements are allowed");
+        }
+        if (select instanceof PlainSelect plain
+                && (plain.getIntoTables() != null || plain.getForMode() != null)) {
+            throw new IllegalArgumentException("SELECT INTO and locking clauses are not allowed");
+        }
+
+        ReferenceCollector references = new ReferenceCollector();
+        Set<String> tables = new TreeSet<>();
+        for (String table : references.getTables(statement)) {
+            String name = table.toLowerCase(Locale.ROOT).replace("\"", "");
+            if (name.startsWith("public.")) {
+                name = name.substring("public.".length());
+            }
+            if (!allowedTables.contains(name)) {
+                throw new IllegalArgumentException("Table not allowed: " + table);
+            }
+            tables.add(name);
+        }
+        for (String function : references.functions) {
+            if (!ALLOWED_FUNCTIONS.contains(function)) {
+                throw new IllegalArgumentException("Function not allowed: " + function);
+            }
+        }
+        return new ValidatedSql(statement.toString(), tables);
+    }
+
+    /** Table finder that also records every function called, including table functions in FROM. */
+    private static final class ReferenceCollector extends TablesNamesFinder {
+        private final Set<String> functions = new TreeSet<>();
+
+        @Override
+        public void visit(Function function) {
+            functions.add(functionName(function));
+            super.visit(function);
+        }
+
+        @Override
+        public void visit(TableFunction tableFunction) {
+            functions.add(functionName(tableFunction.getFunction()));
+            super.visit(tableFunction);
+        }
+
+        // Schema-qualified names are kept whole, so they never match the allowlist
+        private static String functionName(Function function) {
+            return function.getName().toLowerCase(Locale.ROOT).replace("\"", "");
+        }
+    }
+}
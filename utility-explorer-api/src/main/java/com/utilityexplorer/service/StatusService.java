@@ -2,17 +2,25 @@ package com.utilityexplorer.service;
 
 import com.utilityexplorer.dto.ApiDtos.*;
 import com.utilityexplorer.persistence.*;
+import com.utilityexplorer.replica.ReplicaRead;
 import com.utilityexplorer.shared.persistence.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.scheduling.support.CronExpression;
 
 @Service
+@ReplicaRead
+@Transactional(readOnly = true)
 public class StatusService {
     
     @Autowired
@@ -22,26 +30,40 @@ public class StatusService {
     private SourceConfigRepository sourceConfigRepository;
     
     @Autowired
-    private SourceRunRepository sourceRunRepository;
+    private SourceRunLatestRepository sourceRunLatestRepository;
 
     @Autowired
     private MetricRepository metricRepository;
 
     @Autowired
-    private FactValueRepository factValueRepository;
+    private MetricSourceRepository metricSourceRepository;
+
+    // Cron strings rarely change, so parse each one once instead of on every page load
+    private final Map<String, Optional<CronExpression>> cronCache = new ConcurrentHashMap<>();
     
     public List<SourceStatusResponse> getSourcesStatus() {
+        Map<String, SourceConfig> configs = sourceConfigRepository.findAll().stream()
+            .collect(Collectors.toMap(SourceConfig::getSourceId, Function.identity()));
+        Map<String, SourceRunLatest> latestRuns = sourceRunLatestRepository.findAll().stream()
+            .collect(Collectors.toMap(SourceRunLatest::getSourceId, Function.identity()));
+
         return sourceRepository.findAll().stream()
-            .map(this::buildSourceStatus)
+            .map(source -> buildSourceStatus(source, configs.get(source.getSourceId()), latestRuns.get(source.getSourceId())))
             .toList();
     }
 
     public List<MetricStatusResponse> getMetricStatuses() {
-        List<SourceStatusResponse> sourceStatuses = getSourcesStatus();
+        Map<String, SourceStatusResponse> sourceStatuses = getSourcesStatus().stream()
+            .collect(Collectors.toMap(SourceStatusResponse::getSourceId, Function.identity()));
+        Map<String, List<String>> sourceIdsByMetric = metricSourceRepository.findAll().stream()
+            .collect(Collectors.groupingBy(MetricSource::getMetricId,
+                Collectors.mapping(MetricSource::getSourceId, Collectors.toList())));
+
         return metricRepository.findAll().stream().map(metric -> {
-            List<String> sourceIds = factValueRepository.findDistinctSourceIdsByMetric(metric.getMetricId());
-            List<SourceStatusResponse> relevantSources = sourceStatuses.stream()
-                .filter(s -> sourceIds.contains(s.getSourceId()))
+            List<SourceStatusResponse> relevantSources = sourceIdsByMetric
+                .getOrDefault(metric.getMetricId(), List.of()).stream()
+                .map(sourceStatuses::get)
+                .filter(status -> status != null)
                 .toList();
             return new MetricStatusResponse(
                 metric.getMetricId(),
@@ -51,17 +73,16 @@ public class StatusService {
         }).toList();
     }
     
-    private SourceStatusResponse buildSourceStatus(Source source) {
+    private SourceStatusResponse buildSourceStatus(Source source, SourceConfig config, SourceRunLatest run) {
         SourceStatusResponse status = new SourceStatusResponse();
         status.setSourceId(source.getSourceId());
         
-        // Get config
-        Optional<SourceConfig> config = sourceConfigRepository.findById(source.getSourceId());
-        if (config.isPresent()) {
-            status.setEnabled(config.get().getEnabled());
-            status.setScheduleCron(config.get().getScheduleCron());
-            status.setTimezone(config.get().getTimezone());
-            String next = computeNextRun(config.get().getScheduleCron(), config.get().getTimezone());
+        // Config
+        if (config != null) {
+            status.setEnabled(config.getEnabled());
+            status.setScheduleCron(config.getScheduleCron());
+            status.setTimezone(config.getTimezone());
+            String next = computeNextRun(config.getScheduleCron(), config.getTimezone());
             status.setNextRunAt(next);
         } else {
             status.setEnabled(false);
@@ -70,10 +91,8 @@ public class StatusService {
             status.setNextRunAt(null);
         }
         
-        // Get last run
-        Optional<SourceRun> lastRun = sourceRunRepository.findLatestBySourceId(source.getSourceId());
-        if (lastRun.isPresent()) {
-            SourceRun run = lastRun.get();
+        // Last run and last success
+        if (run != null) {
             status.setLastRun(new LastRunInfo(
                 run.getRunId().toString(),
                 run.getStatus(),
@@ -82,15 +101,9 @@ public class StatusService {
                 run.getRowsUpserted(),
                 run.getErrorSummary()
             ));
+            status.setLastSuccessAt(run.getLastSuccessAt() != null ? run.getLastSuccessAt().toString() : null);
         } else {
             status.setLastRun(null);
-        }
-        
-        // Get last success
-        Optional<SourceRun> lastSuccess = sourceRunRepository.findLatestSuccessBySourceId(source.getSourceId());
-        if (lastSuccess.isPresent()) {
-            status.setLastSuccessAt(lastSuccess.get().getStartedAt().toString());
-        } else {
             status.setLastSuccessAt(null);
         }
         
@@ -100,13 +113,22 @@ public class StatusService {
     private String computeNextRun(String cron, String timezone) {
         if (cron == null || cron.isBlank()) return null;
         try {
-            CronExpression expr = CronExpression.parse(cron);
+            Optional<CronExpression> expr = cronCache.computeIfAbsent(cron, this::parseCron);
+            if (expr.isEmpty()) return null;
             ZoneId zone = timezone != null ? ZoneId.of(timezone) : ZoneId.of("UTC");
             ZonedDateTime now = ZonedDateTime.now(zone);
-            ZonedDateTime next = expr.next(now);
+            ZonedDateTime next = expr.get().next(now);
             return next != null ? next.toString() : null;
         } catch (Exception e) {
             return null;
         }
     }
+
+    private Optional<CronExpression> parseCron(String cron) {
+        try {
+            return Optional.of(CronExpression.parse(cron));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
 }
@@ -1,16 +1,25 @@
 package com.utilityexplorer.service;
 
 import com.utilityexplorer.dto.ApiDtos.*;
+import com.utilityexplorer.geo.RegionHierarchyCache;
 import com.utilityexplorer.persistence.*;
+import com.utilityexplorer.replica.ReplicaRead;
+import com.utilityexplorer.shared.jfr.TimeSeriesQueryEvent;
 import com.utilityexplorer.shared.persistence.*;
+import com.utilityexplorer.timing.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.instrumentation.annotations.SpanAttribute;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
+@ReplicaRead
+@Transactional(readOnly = true)
 public class TimeSeriesService {
     
     @Autowired
@@ -23,23 +32,46 @@ public class TimeSeriesService {
     private SourceRepository sourceRepository;
     
     @Autowired
-    private RegionRepository regionRepository;
+    private RegionHierarchyCache regionHierarchyCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
     
-    public Optional<TimeSeriesResponse> getTimeSeries(String metricId, String sourceId, 
-                                                     String geoLevel, String geoId, 
+    @WithSpan("TimeSeriesService.getTimeSeries")
+    public Optional<TimeSeriesResponse> getTimeSeries(@SpanAttribute("metric.id") String metricId, String sourceId, 
+                                                     @SpanAttribute("geo.level") String geoLevel, String geoId, 
                                                      LocalDate from, LocalDate to) {
-        
+        TimeSeriesQueryEvent event = new TimeSeriesQueryEvent();
+        event.begin();
+        Optional<TimeSeriesResponse> response = ServiceTimer.record(meterRegistry, "timeseries.requests", "series",
+            () -> loadTimeSeries(metricId, sourceId, geoLevel, geoId, from, to));
+        if (event.shouldCommit()) {
+            commit(event, "series", metricId, sourceId, geoLevel, geoId, from, to,
+                response.isPresent() ? 1 : 0, response.map(r -> r.getPoints().size()).orElse(0));
+        }
+        return response;
+    }
+
+    private Optional<TimeSeriesResponse> loadTimeSeries(String metricId, String sourceId,
+                                                        String requestedGeoLevel, String geoId,
+                                                        LocalDate from, LocalDate to) {
+        String geoLevel = RegionHierarchyCache.normalizeGeoLevel(requestedGeoLevel);
         // Validate metric, source, and region exist
-        Optional<Metric> metric = metricRepository.findById(metricId);
-        Optional<Source> source = sourceRepository.findById(sourceId);
-        Optional<Region> region = regionRepository.findByGeoLevelAndGeoId(geoLevel, geoId);
+        Optional<Metric> metric;
+        Optional<Source> source;
+        Optional<Region> region;
+        try (RequestTiming.Stage lookup = RequestTiming.stage("lookup")) {
+            metric = metricRepository.findById(metricId);
+            source = sourceRepository.findById(sourceId);
+            region = regionHierarchyCache.find(geoLevel, geoId);
+        }
         
         if (metric.isEmpty() || source.isEmpty() || region.isEmpty()) {
             return Optional.empty();
         }
         
         // Get time series data
-        List<FactValue> facts = factValueRepository.findTimeSeries(metricId, sourceId, geoLevel, geoId, from, to);
+        List<FactValue> facts = findTimeSeries(metricId, sourceId, geoLevel, geoId, from, to);
         
         // Build response
         TimeSeriesResponse response = new TimeSeriesResponse();
@@ -66,10 +98,178 @@ public class TimeSeriesService {
         return Optional.of(response);
     }
     
-    public String generateCsv(String metricId, String sourceId, String geoLevel, String geoId, 
+    /**
+     * Returns one column-oriented series per requested region from a single ordered query.
+     * Regions come either from {@code geoIds} or, when empty, from the children of the given parent.
+     * When {@code maxPoints} is set, each series longer than that is reduced with LTTB.
+     */
+    @WithSpan("TimeSeriesService.getMultiTimeSeries")
+    public Optional<MultiTimeSeriesResponse> getMultiTimeSeries(@SpanAttribute("metric.id") String metricId, String sourceId,
+                                                               @SpanAttribute("geo.level") String geoLevel,
+                                                               List<String> geoIds, String parentGeoLevel,
+                                                               String parentGeoId, LocalDate from, LocalDate to,
+                                                               Integer maxPoints) {
+        TimeSeriesQueryEvent event = new TimeSeriesQueryEvent();
+        event.begin();
+        Optional<MultiTimeSeriesResponse> response = ServiceTimer.record(meterRegistry, "timeseries.requests", "multi",
+            () -> loadMultiTimeSeries(metricId, sourceId, geoLevel, geoIds, parentGeoLevel, parentGeoId, from, to, maxPoints));
+        if (event.shouldCommit()) {
+            List<SeriesColumns> series = response.map(MultiTimeSeriesResponse::getSeries).orElse(List.of());
+            commit(event, "multi", metricId, sourceId, geoLevel,
+                geoIds != null && !geoIds.isEmpty() ? null : parentGeoId, from, to,
+                series.size(), series.stream().mapToInt(SeriesColumns::getSourcePointCount).sum());
+        }
+        return response;
+    }
+
+    private Optional<MultiTimeSeriesResponse> loadMultiTimeSeries(String metricId, String sourceId, String requestedGeoLevel,
+                                                                 List<String> geoIds, String parentGeoLevel,
+                                                                 String parentGeoId, LocalDate from, LocalDate to,
+                                                                 Integer maxPoints) {
+        // The region cache matches levels case-insensitively; the fact query needs the stored form too
+        String geoLevel = RegionHierarchyCache.normalizeGeoLevel(requestedGeoLevel);
+        Optional<Metric> metric;
+        Optional<Source> source;
+        List<Region> regions;
+        try (RequestTiming.Stage lookup = RequestTiming.stage("lookup")) {
+            metric = metricRepository.findById(metricId);
+            source = sourceRepository.findById(sourceId);
+            if (metric.isEmpty() || source.isEmpty()) {
+                return Optional.empty();
+            }
+            regions = resolveRegions(geoLevel, geoIds, parentGeoLevel, parentGeoId);
+        }
+
+        Map<String, List<FactValue>> factsByGeo = new LinkedHashMap<>();
+        regions.forEach(region -> factsByGeo.put(region.getGeoId(), new ArrayList<>()));
+        if (!regions.isEmpty()) {
+            try (RequestTiming.Stage stage = RequestTiming.stage("facts")) {
+                List<FactValue> facts = factValueRepository.findTimeSeriesForGeos(
+                    metricId, sourceId, geoLevel, factsByGeo.keySet(), from, to);
+                for (FactValue fact : facts) {
+                    factsByGeo.get(fact.getGeoId()).add(fact);
+                }
+                RequestTiming.count("rows", facts.size());
+            }
+        }
+
+        List<SeriesColumns> series = new ArrayList<>(regions.size());
+        try (RequestTiming.Stage stage = RequestTiming.stage("columns")) {
+            for (Region region : regions) {
+                series.add(toColumns(region, factsByGeo.get(region.getGeoId()), maxPoints));
+            }
+        }
+
+        MultiTimeSeriesResponse response = new MultiTimeSeriesResponse();
+        response.setMetric(new MetricInfo(metricId, metric.get().getName(), metric.get().getUnit()));
+        response.setSource(new SourceInfo(
+            sourceId,
+            source.get().getName(),
+            source.get().getTermsUrl(),
+            source.get().isMock()
+        ));
+        response.setGeoLevel(geoLevel);
+        response.setFrom(from.toString());
+        response.setTo(to.toString());
+        response.setMaxPoints(maxPoints);
+        response.setSeries(series);
+        return Optional.of(response);
+    }
+
+    private List<FactValue> findTimeSeries(String metricId, String sourceId, String geoLevel, String geoId,
+                                           LocalDate from, LocalDate to) {
+        try (RequestTiming.Stage stage = RequestTiming.stage("facts")) {
+            List<FactValue> facts = factValueRepository.findTimeSeries(metricId, sourceId, geoLevel, geoId, from, to);
+            RequestTiming.count("rows", facts.size());
+            return facts;
+        }
+    }
+
+    private List<Region> resolveRegions(String geoLevel, List<String> geoIds,
+                                        String parentGeoLevel, String parentGeoId) {
+        if (geoIds != null && !geoIds.isEmpty()) {
+            return geoIds.stream()
+                .distinct()
+                .map(geoId -> regionHierarchyCache.find(geoLevel, geoId))
+                .flatMap(Optional::stream)
+                .toList();
+        }
+        Optional<Region> parent = regionHierarchyCache.find(parentGeoLevel, parentGeoId);
+        if (parent.isEmpty()) {
+            return List.of();
+        }
+        UUID parentPk = parent.get().getRegionPk();
+        return regionHierarchyCache.getChildren(parentPk, 0, regionHierarchyCache.countChildren(parentPk)).stream()
+            .filter(child -> geoLevel.equalsIgnoreCase(child.getGeoLevel()))
+            .toList();
+    }
+
+    private SeriesColumns toColumns(Region region, List<FactValue> facts, Integer maxPoints) {
+        int[] keep;
+        if (maxPoints != null && facts.size() > maxPoints) {
+            double[] x = new double[facts.size()];
+            double[] y = new double[facts.size()];
+            for (int i = 0; i < facts.size(); i++) {
+                x[i] = facts.get(i).getPeriodStart().toEpochDay();
+                y[i] = facts.get(i).getValueNumeric().doubleValue();
+            }
+            keep = LttbDownsampler.select(x, y, maxPoints);
+        } else {
+            keep = new int[facts.size()];
+            for (int i = 0; i < keep.length; i++) {
+                keep[i] = i;
+            }
+        }
+
+        List<String> periodStart = new ArrayList<>(keep.length);
+        List<String> periodEnd = new ArrayList<>(keep.length);
+        List<Double> values = new ArrayList<>(keep.length);
+        List<String> retrievedAt = new ArrayList<>(keep.length);
+        for (int index : keep) {
+            FactValue fact = facts.get(index);
+            periodStart.add(fact.getPeriodStart().toString());
+            periodEnd.add(fact.getPeriodEnd().toString());
+            values.add(fact.getValueNumeric().doubleValue());
+            retrievedAt.add(fact.getRetrievedAt().toString());
+        }
+        return new SeriesColumns(region.getGeoId(), region.getName(), facts.size(),
+            periodStart, periodEnd, values, retrievedAt);
+    }
+    
+    @WithSpan("TimeSeriesService.generateCsv")
+    public String generateCsv(@SpanAttribute("metric.id") String metricId, String sourceId,
+                             @SpanAttribute("geo.level") String geoLevel, String geoId, 
                              LocalDate from, LocalDate to) {
-        
-        List<FactValue> facts = factValueRepository.findTimeSeries(metricId, sourceId, geoLevel, geoId, from, to);
+        TimeSeriesQueryEvent event = new TimeSeriesQueryEvent();
+        event.begin();
+        String csv = ServiceTimer.record(meterRegistry, "timeseries.requests", "csv",
+            () -> buildCsv(metricId, sourceId, geoLevel, geoId, from, to));
+        if (event.shouldCommit()) {
+            // One header line, then one line per fact
+            commit(event, "csv", metricId, sourceId, geoLevel, geoId, from, to,
+                1, (int) csv.chars().filter(c -> c == '\n').count() - 1);
+        }
+        return csv;
+    }
+
+    private static void commit(TimeSeriesQueryEvent event, String operation, String metricId, String sourceId,
+                               String geoLevel, String geoId, LocalDate from, LocalDate to, int regions, int rows) {
+        event.operation = operation;
+        event.metricId = metricId;
+        event.sourceId = sourceId;
+        event.geoLevel = geoLevel;
+        event.geoId = geoId;
+        event.from = String.valueOf(from);
+        event.to = String.valueOf(to);
+        event.regions = regions;
+        event.rows = rows;
+        event.commit();
+    }
+
+    private String buildCsv(String metricId, String sourceId, String geoLevel, String geoId,
+                            LocalDate from, LocalDate to) {
+        List<FactValue> facts = findTimeSeries(metricId, sourceId,
+            RegionHierarchyCache.normalizeGeoLevel(geoLevel), geoId, from, to);
         
         StringBuilder csv = new StringBuilder();
         csv.append("periodStart,periodEnd,value,retrievedAt,sourcePublishedAt\n");
@@ -0,0 +1,116 @@
+package com.utilityexplorer.timing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request stage timings and counters, reported through {@code Server-Timing} and a debug field.
+ *
+ * A recorder is bound to the request thread only when {@link RequestTimingFilter} enables timing
+ * for the request. Otherwise {@link #stage} returns a shared no-op and {@link #count} returns after
+ * one thread-local read, so services can be instrumented unconditionally. Work that runs on other
+ * threads (async streaming, executors) is not attributed to the request.
+ */
+public final class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    /** An open stage; closing it adds its duration to the stage's total. */
+    public interface Stage extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Stage NOOP = () -> {};
+
+    private final long startedAt = System.nanoTime();
+    private final Map<String, long[]> stages = new LinkedHashMap<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+
+    RequestTiming() {}
+
+    static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    static void bind(RequestTiming timing) {
+        if (timing == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(timing);
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Starts timing a stage. A stage entered more than once in a request reports the sum of its
+     * durations, so per-row work can be wrapped inside a loop.
+     */
+    public static Stage stage(String name) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return NOOP;
+        }
+        long start = System.nanoTime();
+        return () -> timing.add(name, System.nanoTime() - start);
+    }
+
+    /** Adds to a request counter, such as rows hydrated or cache hits. */
+    public static void count(String name, long delta) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.counts.merge(name, delta, Long::sum);
+        }
+    }
+
+    void add(String name, long nanos) {
+        long[] total = stages.computeIfAbsent(name, key -> new long[1]);
+        total[0] += nanos;
+    }
+
+    /** Stage durations in milliseconds, in the order the stages were first entered. */
+    public Map<String, Double> stagesMs() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        stages.forEach((name, total) -> result.put(name, toMs(total[0])));
+        return result;
+    }
+
+    public Map<String, Long> counts() {
+        return new LinkedHashMap<>(counts);
+    }
+
+    public double elapsedMs() {
+        return toMs(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Formats the stages, counters and total as a {@code Server-Timing} value, for example
+     * {@code facts;dur=12.4, regions;dur=30.1, rows;desc="3143", total;dur=48.0}.
+     */
+    String serverTiming() {
+        StringBuilder header = new StringBuilder();
+        stages.forEach((name, total) -> append(header, name).append(";dur=").append(format(toMs(total[0]))));
+        counts.forEach((name, value) -> append(header, name).append(";desc=\"").append(value).append('"'));
+        append(header, "total").append(";dur=").append(format(elapsedMs()));
+        return header.toString();
+    }
+
+    private static StringBuilder append(StringBuilder header, String name) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        return header.append(name);
+    }
+
+    private static double toMs(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String format(double ms) {
+        return String.valueOf(Math.round(ms * 10) / 10.0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.utilityexplorer.timing;
+
+import com.utilityexplorer.dto.ApiDtos.TimingDebug;
+import com.utilityexplorer.dto.ApiDtos.TimingDebuggable;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Copies the timings recorded so far into the response's {@code debug} field and marks the start
+ * of serialization for {@link RequestTimingFilter}. Does nothing for requests without timing.
+ */
+@ControllerAdvice
+public class RequestTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return RequestTiming.isActive();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return body;
+        }
+        if (body instanceof TimingDebuggable debuggable) {
+            debuggable.setDebug(new TimingDebug(timing.stagesMs(), timing.counts(), timing.elapsedMs()));
+        }
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            RequestTimingFilter.markSerializeStart(servletRequest.getServletRequest());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,83 @@
+package com.utilityexplorer.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * Times opted-in requests and reports the result in a {@code Server-Timing} response header.
+ *
+ * Timing is off unless {@code REQUEST_TIMING_ENABLED} is set, and then applies only to requests
+ * sending {@code X-Debug-Timing: true} or {@code ?debug=timing}; every other request skips this
+ * filter entirely. Opted-in responses are buffered so the header can include the time spent
+ * serializing the body, which {@link RequestTimingAdvice} marks; avoid opting in on bulk exports.
+ */
+@Component
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String OPT_IN_HEADER = "X-Debug-Timing";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final String TIMING_ATTRIBUTE = RequestTimingFilter.class.getName() + ".timing";
+    private static final String SERIALIZE_ATTRIBUTE = RequestTimingFilter.class.getName() + ".serializeStart";
+
+    private final boolean enabled;
+
+    public RequestTimingFilter(@Value("${REQUEST_TIMING_ENABLED:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !("true".equalsIgnoreCase(request.getHeader(OPT_IN_HEADER))
+            || "timing".equalsIgnoreCase(request.getParameter("debug")));
+    }
+
+    // Streaming responses finish on an async dispatch, where the buffered body is released
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = (RequestTiming) request.getAttribute(TIMING_ATTRIBUTE);
+        if (timing == null) {
+            timing = new RequestTiming();
+            request.setAttribute(TIMING_ATTRIBUTE, timing);
+        }
+        ContentCachingResponseWrapper buffered = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (buffered == null) {
+            buffered = new ContentCachingResponseWrapper(response);
+        }
+
+        RequestTiming.bind(timing);
+        try {
+            chain.doFilter(request, buffered);
+        } finally {
+            RequestTiming.bind(null);
+            if (!isAsyncStarted(request)) {
+                Long serializeStart = (Long) request.getAttribute(SERIALIZE_ATTRIBUTE);
+                if (serializeStart != null) {
+                    timing.add("serialize", System.nanoTime() - serializeStart);
+                }
+                buffered.setHeader(SERVER_TIMING_HEADER, timing.serverTiming());
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    /** Marks the point where the handler returned and body serialization begins. */
+    static void markSerializeStart(HttpServletRequest request) {
+        request.setAttribute(SERIALIZE_ATTRIBUTE, System.nanoTime());
+    }
+}
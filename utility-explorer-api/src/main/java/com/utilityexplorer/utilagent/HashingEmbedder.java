@@ -0,0 +1,88 @@
+package com.utilityexplorer.utilagent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deterministic text embedding by feature hashing, usable offline and inside the API alike.
+ *
+ * Each content word contributes its own feature, its character trigrams (so "prices" lands near
+ * "price") and a bigram with the previous word. Features are hashed into a fixed number of signed
+ * buckets and the vector is L2-normalized, so the dot product of two embeddings is their cosine
+ * similarity. Vectors in a precomputed embeddings file must come from the same {@link #NAME}.
+ */
+final class HashingEmbedder {
+
+    static final String NAME = "hashing-v1";
+    static final int DIMENSION = 1024;
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAMS_WEIGHT = 1.0f; // shared across a word's trigrams
+    private static final float BIGRAM_WEIGHT = 0.5f;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "the", "is", "are", "was", "what", "which", "where", "who", "how", "do", "does",
+        "in", "of", "for", "to", "by", "on", "at", "and", "or", "with", "me", "my", "show", "list",
+        "give", "tell", "find", "top", "most", "least", "highest", "lowest", "best", "worst",
+        "state", "states", "county", "counties", "us", "there", "have", "has");
+
+    private HashingEmbedder() {}
+
+    static float[] embed(String text) {
+        float[] vector = new float[DIMENSION];
+        if (text == null) {
+            return vector;
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : KeywordMatcher.normalize(text).split(" ")) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+
+        String previous = null;
+        for (String word : words) {
+            add(vector, "w:" + word, WORD_WEIGHT);
+            String padded = "<" + word + ">";
+            int trigrams = padded.length() - 2;
+            for (int i = 0; i < trigrams; i++) {
+                add(vector, "g:" + padded.substring(i, i + 3), TRIGRAMS_WEIGHT / trigrams);
+            }
+            if (previous != null) {
+                add(vector, "b:" + previous + " " + word, BIGRAM_WEIGHT);
+            }
+            previous = word;
+        }
+        return normalize(vector);
+    }
+
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private static void add(float[] vector, String feature, float weight) {
+        int hash = fnv1a(feature);
+        int bucket = (hash >>> 1) % DIMENSION;
+        vector[bucket] += (hash & 1) == 0 ? weight : -weight;
+    }
+
+    private static int fnv1a(String feature) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+}
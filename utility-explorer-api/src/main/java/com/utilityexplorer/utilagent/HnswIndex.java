@@ -0,0 +1,244 @@
+package com.utilityexplorer.utilagent;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Hierarchical navigable small world graph for approximate nearest-neighbor search by cosine
+ * similarity (Malkov and Yashunin). Vectors are normalized on insert so similarity is a dot product.
+ *
+ * Not thread-safe while building; once built, {@link #search} may be called concurrently.
+ */
+final class HnswIndex {
+
+    /** A stored vector's key and its similarity to the query. */
+    record Neighbor(String key, float similarity) {}
+
+    private record Candidate(int node, float similarity) {}
+
+    private static final Comparator<Candidate> CLOSEST_FIRST =
+        Comparator.comparingDouble(Candidate::similarity).reversed();
+    private static final Comparator<Candidate> FARTHEST_FIRST =
+        Comparator.comparingDouble(Candidate::similarity);
+
+    private final int dimension;
+    private final int maxLinks;
+    private final int maxLinksLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+
+    private final List<String> keys = new ArrayList<>();
+    private final List<float[]> vectors = new ArrayList<>();
+    private final List<int[][]> links = new ArrayList<>();  // node -> layer -> neighbor ids
+    private final List<int[]> linkCounts = new ArrayList<>(); // node -> layer -> used slots
+    private int entryPoint = -1;
+    private int topLayer = -1;
+
+    HnswIndex(int dimension, int maxLinks, int efConstruction, long seed) {
+        if (dimension <= 0 || maxLinks < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("Invalid HNSW parameters");
+        }
+        this.dimension = dimension;
+        this.maxLinks = maxLinks;
+        this.maxLinksLayer0 = maxLinks * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(maxLinks);
+        this.random = new Random(seed);
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    void add(String key, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected " + dimension + " dimensions, got " + vector.length);
+        }
+        float[] normalized = HashingEmbedder.normalize(vector.clone());
+        int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+        int node = keys.size();
+        keys.add(key);
+        vectors.add(normalized);
+        int[][] layers = new int[level + 1][];
+        for (int layer = 0; layer <= level; layer++) {
+            layers[layer] = new int[capacity(layer)];
+        }
+        links.add(layers);
+        linkCounts.add(new int[level + 1]);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLayer = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int layer = topLayer; layer > level; layer--) {
+            current = greedyClosest(normalized, current, layer);
+        }
+        for (int layer = Math.min(level, topLayer); layer >= 0; layer--) {
+            List<Candidate> candidates = searchLayer(normalized, current, efConstruction, layer);
+            for (Candidate selected : selectNeighbors(candidates, capacity(layer))) {
+                connect(node, selected.node(), layer);
+                connect(selected.node(), node, layer);
+            }
+            current = candidates.get(0).node();
+        }
+        if (level > topLayer) {
+            topLayer = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Up to {@code k} stored vectors closest to {@code query}, most similar first.
+     */
+    List<Neighbor> search(float[] query, int k, int ef) {
+        if (entryPoint < 0 || query.length != dimension) {
+            return List.of();
+        }
+        float[] normalized = HashingEmbedder.normalize(query.clone());
+        int current = entryPoint;
+        for (int layer = topLayer; layer > 0; layer--) {
+            current = greedyClosest(normalized, current, layer);
+        }
+        List<Neighbor> neighbors = new ArrayList<>(k);
+        for (Candidate candidate : searchLayer(normalized, current, Math.max(ef, k), 0)) {
+            if (neighbors.size() == k) {
+                break;
+            }
+            neighbors.add(new Neighbor(keys.get(candidate.node()), candidate.similarity()));
+        }
+        return neighbors;
+    }
+
+    private int greedyClosest(float[] query, int start, int layer) {
+        int current = start;
+        float best = similarity(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbors = links.get(current)[layer];
+            int count = linkCounts.get(current)[layer];
+            for (int i = 0; i < count; i++) {
+                float candidate = similarity(query, neighbors[i]);
+                if (candidate > best) {
+                    best = candidate;
+                    current = neighbors[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Beam search within one layer; returns up to {@code ef} nodes, most similar first. */
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int layer) {
+        BitSet visited = new BitSet(keys.size());
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(CLOSEST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(FARTHEST_FIRST);
+        Candidate first = new Candidate(start, similarity(query, start));
+        visited.set(start);
+        frontier.add(first);
+        results.add(first);
+
+        while (!frontier.isEmpty()) {
+            Candidate closest = frontier.poll();
+            if (results.size() >= ef && closest.similarity() < results.peek().similarity()) {
+                break;
+            }
+            int[][] layers = links.get(closest.node());
+            if (layer >= layers.length) {
+                continue;
+            }
+            int[] neighbors = layers[layer];
+            int count = linkCounts.get(closest.node())[layer];
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float candidateSimilarity = similarity(query, neighbor);
+                if (results.size() < ef || candidateSimilarity > results.peek().similarity()) {
+                    Candidate candidate = new Candidate(neighbor, candidateSimilarity);
+                    frontier.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(results);
+        ordered.sort(CLOSEST_FIRST);
+        return ordered;
+    }
+
+    /**
+     * Neighbor selection heuristic: prefer candidates closer to the new node than to any already
+     * selected neighbor, which keeps links spread across clusters; top up with the rest.
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> candidates, int limit) {
+        List<Candidate> selected = new ArrayList<>(limit);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() == limit) {
+                break;
+            }
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (similarity(vectors.get(candidate.node()), chosen.node()) > candidate.similarity()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? selected : skipped).add(candidate);
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < limit; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    private void connect(int from, int to, int layer) {
+        int[] neighbors = links.get(from)[layer];
+        int[] counts = linkCounts.get(from);
+        if (counts[layer] < neighbors.length) {
+            neighbors[counts[layer]++] = to;
+            return;
+        }
+        // Full: keep the best neighbors of the existing links plus the new one
+        float[] base = vectors.get(from);
+        List<Candidate> candidates = new ArrayList<>(neighbors.length + 1);
+        for (int i = 0; i < counts[layer]; i++) {
+            candidates.add(new Candidate(neighbors[i], similarity(base, neighbors[i])));
+        }
+        candidates.add(new Candidate(to, similarity(base, to)));
+        candidates.sort(CLOSEST_FIRST);
+        List<Candidate> kept = selectNeighbors(candidates, neighbors.length);
+        for (int i = 0; i < kept.size(); i++) {
+            neighbors[i] = kept.get(i).node();
+        }
+        counts[layer] = kept.size();
+    }
+
+    private int capacity(int layer) {
+        return layer == 0 ? maxLinksLayer0 : maxLinks;
+    }
+
+    private float similarity(float[] query, int node) {
+        float[] vector = vectors.get(node);
+        float dot = 0;
+        for (int i = 0; i < dimension; i++) {
+            dot += query[i] * vector[i];
+        }
+        return dot;
+    }
+}
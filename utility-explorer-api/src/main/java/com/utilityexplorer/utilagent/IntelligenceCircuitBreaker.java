@@ -0,0 +1,118 @@
+package com.utilityexplorer.utilagent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Circuit breaker for calls to the intelligence service.
+ *
+ * After {@code failureThreshold} consecutive failures the circuit opens and queries go straight
+ * to the deterministic path. Once {@code openDuration} has passed a single probe request is let
+ * through (half-open); its outcome closes the circuit again or re-opens it.
+ *
+ * Only errors that say the service is unhealthy count as failures: 5xx responses, timeouts and
+ * connection errors (see {@link #isServiceFailure}). A 4xx rejects the caller's input and is
+ * neither a success nor a failure.
+ */
+@Component
+public class IntelligenceCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntelligenceCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight;
+    private Instant probeStartedAt;
+
+    @Autowired
+    public IntelligenceCircuitBreaker(
+            @Value("${intelligence.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${intelligence.circuit.open-seconds:30}") long openSeconds) {
+        this(failureThreshold, Duration.ofSeconds(openSeconds), Clock.systemUTC());
+    }
+
+    IntelligenceCircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns true if a call may be attempted now. In the half-open state only one caller is
+     * admitted until that probe reports back, or until it has been outstanding for longer than
+     * the open duration.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                Instant now = clock.instant();
+                if (probeInFlight && now.isBefore(probeStartedAt.plus(openDuration))) {
+                    return false;
+                }
+                probeInFlight = true;
+                probeStartedAt = now;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                logger.warn("Intelligence service circuit opened after {} consecutive failures", consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAt = clock.instant();
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Records a call that says nothing about the service's health, such as a 4xx or a call
+     * abandoned by the caller. Only frees the half-open probe slot.
+     */
+    public synchronized void recordIgnored() {
+        probeInFlight = false;
+    }
+
+    /**
+     * Whether an error from the intelligence call should count towards opening the circuit.
+     */
+    public static boolean isServiceFailure(Throwable error) {
+        return error instanceof HttpServerErrorException || error instanceof ResourceAccessException;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
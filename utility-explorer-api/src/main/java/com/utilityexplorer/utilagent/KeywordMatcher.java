@@ -0,0 +1,232 @@
+package com.utilityexplorer.utilagent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable Aho-Corasick automaton over weighted keyword phrases.
+ *
+ * Text is lowercased and reduced to {@code [a-z0-9]} words separated by single spaces while it is
+ * fed through the automaton, so normalization and matching of every phrase happen in one pass.
+ * Phrases and text are both padded with a space on each side, which makes every match a
+ * whole-word match without any boundary bookkeeping.
+ */
+final class KeywordMatcher {
+
+    /** A phrase that scores {@code weight} for {@code key} when it appears in the text. */
+    record Keyword(String phrase, String key, double weight) {}
+
+    private static final int ALPHABET = 37; // a-z, 0-9, space
+    private static final int SPACE = 36;
+
+    private final int[] transitions;  // state * ALPHABET + symbol -> state (complete DFA)
+    private final int[][] outputs;    // state -> pattern ids ending here, via fail links included
+    private final int[][] patternKeys;
+    private final double[][] patternWeights;
+    private final String[] keys;
+
+    private KeywordMatcher(int[] transitions, int[][] outputs, int[][] patternKeys,
+                           double[][] patternWeights, String[] keys) {
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.patternKeys = patternKeys;
+        this.patternWeights = patternWeights;
+        this.keys = keys;
+    }
+
+    static KeywordMatcher build(Iterable<Keyword> keywords) {
+        // Deduplicate phrases; the same phrase may score several keys, keeping the highest weight per key
+        Map<String, Map<String, Double>> byPhrase = new LinkedHashMap<>();
+        for (Keyword keyword : keywords) {
+            String phrase = normalize(keyword.phrase());
+            if (phrase.isEmpty()) {
+                continue;
+            }
+            byPhrase.computeIfAbsent(phrase, p -> new LinkedHashMap<>())
+                .merge(keyword.key(), keyword.weight(), Math::max);
+        }
+
+        Map<String, Integer> keyIndex = new LinkedHashMap<>();
+        int patternCount = byPhrase.size();
+        int[][] patternKeys = new int[patternCount][];
+        double[][] patternWeights = new double[patternCount][];
+
+        List<int[]> gotoRows = new ArrayList<>();
+        List<List<Integer>> ownOutputs = new ArrayList<>();
+        gotoRows.add(newRow());
+        ownOutputs.add(new ArrayList<>());
+
+        int patternId = 0;
+        for (Map.Entry<String, Map<String, Double>> entry : byPhrase.entrySet()) {
+            int state = 0;
+            String padded = " " + entry.getKey() + " ";
+            for (int i = 0; i < padded.length(); i++) {
+                int symbol = symbol(padded.charAt(i));
+                int next = gotoRows.get(state)[symbol];
+                if (next < 0) {
+                    next = gotoRows.size();
+                    gotoRows.get(state)[symbol] = next;
+                    gotoRows.add(newRow());
+                    ownOutputs.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            ownOutputs.get(state).add(patternId);
+
+            Map<String, Double> scored = entry.getValue();
+            patternKeys[patternId] = new int[scored.size()];
+            patternWeights[patternId] = new double[scored.size()];
+            int k = 0;
+            for (Map.Entry<String, Double> keyWeight : scored.entrySet()) {
+                patternKeys[patternId][k] = keyIndex.computeIfAbsent(keyWeight.getKey(), key -> keyIndex.size());
+                patternWeights[patternId][k] = keyWeight.getValue();
+                k++;
+            }
+            patternId++;
+        }
+
+        int stateCount = gotoRows.size();
+        int[] transitions = new int[stateCount * ALPHABET];
+        int[] fail = new int[stateCount];
+        int[][] outputs = new int[stateCount][];
+
+        // Breadth-first: fail links and merged outputs of shallower states are final before use
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        outputs[0] = new int[0];
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            int child = gotoRows.get(0)[symbol];
+            if (child < 0) {
+                transitions[symbol] = 0;
+            } else {
+                transitions[symbol] = child;
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = merge(ownOutputs.get(state), outputs[fail[state]]);
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int child = gotoRows.get(state)[symbol];
+                int viaFail = transitions[fail[state] * ALPHABET + symbol];
+                if (child < 0) {
+                    transitions[state * ALPHABET + symbol] = viaFail;
+                } else {
+                    transitions[state * ALPHABET + symbol] = child;
+                    fail[child] = viaFail;
+                    queue.add(child);
+                }
+            }
+        }
+
+        return new KeywordMatcher(transitions, outputs, patternKeys, patternWeights,
+            keyIndex.keySet().toArray(new String[0]));
+    }
+
+    /**
+     * Scores every key whose phrases occur in {@code text}. Each distinct phrase counts once.
+     * Keys are returned by descending score.
+     */
+    Map<String, Double> match(String text) {
+        double[] scores = new double[keys.length];
+        boolean[] seen = new boolean[patternKeys.length];
+        int state = transitions[SPACE];
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int symbol = wordSymbol(c);
+            if (symbol < 0) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                state = step(state, SPACE, scores, seen);
+                pendingSpace = false;
+            }
+            state = step(state, symbol, scores, seen);
+        }
+        step(state, SPACE, scores, seen);
+
+        List<Integer> matched = new ArrayList<>();
+        for (int k = 0; k < scores.length; k++) {
+            if (scores[k] > 0) {
+                matched.add(k);
+            }
+        }
+        matched.sort((a, b) -> Double.compare(scores[b], scores[a]));
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int k : matched) {
+            result.put(keys[k], scores[k]);
+        }
+        return result;
+    }
+
+    int stateCount() {
+        return outputs.length;
+    }
+
+    /**
+     * Lowercases and reduces text to {@code [a-z0-9]} words separated by single spaces.
+     */
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (wordSymbol(c) < 0) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace && normalized.length() > 0) {
+                normalized.append(' ');
+            }
+            pendingSpace = false;
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    private int step(int state, int symbol, double[] scores, boolean[] seen) {
+        int next = transitions[state * ALPHABET + symbol];
+        for (int pattern : outputs[next]) {
+            if (seen[pattern]) {
+                continue;
+            }
+            seen[pattern] = true;
+            int[] patternKeyIds = patternKeys[pattern];
+            for (int k = 0; k < patternKeyIds.length; k++) {
+                scores[patternKeyIds[k]] += patternWeights[pattern][k];
+            }
+        }
+        return next;
+    }
+
+    private static int wordSymbol(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= '0' && c <= '9') return 26 + (c - '0');
+        return -1;
+    }
+
+    private static int symbol(char c) {
+        return c == ' ' ? SPACE : wordSymbol(c);
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] merge(List<Integer> own, int[] inherited) {
+        int[] merged = new int[own.size() + inherited.length];
+        for (int i = 0; i < own.size(); i++) {
+            merged[i] = own.get(i);
+        }
+        System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+        return merged;
+    }
+}
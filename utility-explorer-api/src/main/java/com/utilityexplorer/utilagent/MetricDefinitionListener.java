@@ -0,0 +1,40 @@
+package com.utilityexplorer.utilagent;
+
+import com.utilityexplorer.shared.dto.MetricDefinition;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Feeds adapter MetricDefinition broadcasts into the Util Agent keyword index.
+ *
+ * The metadata topic is compacted and every API instance needs all of it, so each instance joins
+ * under a stable per-host group id (METADATA_CONSUMER_GROUP, default from HOSTNAME) and seeks to
+ * the beginning on every assignment rather than resuming from committed offsets. Restarts reuse
+ * the same group instead of leaving a new one behind. Only active when Kafka is configured.
+ */
+@Component
+@ConditionalOnProperty(name = "KAFKA_BOOTSTRAP_SERVERS")
+public class MetricDefinitionListener implements ConsumerSeekAware {
+
+    private final MetricKeywordIndex metricKeywordIndex;
+
+    public MetricDefinitionListener(MetricKeywordIndex metricKeywordIndex) {
+        this.metricKeywordIndex = metricKeywordIndex;
+    }
+
+    @KafkaListener(topics = "system.metadata.metrics",
+        groupId = "${METADATA_CONSUMER_GROUP:utility-explorer-api-metadata-${HOSTNAME:local}}")
+    public void onDefinition(MetricDefinition definition) {
+        metricKeywordIndex.onDefinition(definition);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+    }
+}
@@ -0,0 +1,132 @@
+package com.utilityexplorer.utilagent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads and writes the precomputed metric embeddings file loaded by {@link MetricEmbeddingIndex}.
+ *
+ * Format: a header line {@code # embedder=<name> dimension=<n>}, then one tab-separated line per
+ * phrasing: metric id, phrasing text and the non-zero vector components as comma-separated
+ * {@code index:value} pairs (hashed embeddings are sparse). A metric may have many phrasings.
+ *
+ * Regenerate the bundled file offline from the phrasing corpus with:
+ * <pre>
+ * java -cp utility-explorer-api/target/classes com.utilityexplorer.utilagent.MetricEmbeddingFile \
+ *     config/metric-embedding-corpus.tsv utility-explorer-api/src/main/resources/utilagent/metric-embeddings.tsv
+ * </pre>
+ */
+public final class MetricEmbeddingFile {
+
+    record Entry(String metricId, String text, float[] vector) {}
+
+    record Contents(String embedder, int dimension, List<Entry> entries) {}
+
+    private MetricEmbeddingFile() {}
+
+    /**
+     * Embeds a corpus of {@code metricId<TAB>phrasing} lines ({@code #} comments allowed) and
+     * writes the embeddings file.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: MetricEmbeddingFile <corpus.tsv> [embeddings.tsv]");
+            System.exit(2);
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\t", 2);
+            if (parts.length < 2 || parts[1].isBlank()) {
+                throw new IllegalArgumentException("Expected metricId<TAB>phrasing: " + line);
+            }
+            entries.add(new Entry(parts[0].trim(), parts[1].trim(), HashingEmbedder.embed(parts[1])));
+        }
+        try (Writer out = args.length == 2
+                ? Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out, StandardCharsets.UTF_8)) {
+            write(out, entries);
+        }
+    }
+
+    static void write(Writer writer, List<Entry> entries) {
+        PrintWriter out = new PrintWriter(writer);
+        out.printf("# embedder=%s dimension=%d\n", HashingEmbedder.NAME, HashingEmbedder.DIMENSION);
+        for (Entry entry : entries) {
+            StringBuilder vector = new StringBuilder();
+            for (int i = 0; i < entry.vector().length; i++) {
+                float v = entry.vector()[i];
+                if (v != 0f) {
+                    vector.append(vector.length() == 0 ? "" : ",").append(i).append(':')
+                        .append(String.format(Locale.ROOT, "%.5f", v));
+                }
+            }
+            out.print(entry.metricId() + "\t" + entry.text().replace('\t', ' ') + "\t" + vector + "\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the header is missing or a component is outside the dimension
+     */
+    static Contents read(Reader reader) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        String header = in.readLine();
+        if (header == null || !header.startsWith("# ")) {
+            throw new IllegalArgumentException("Missing embeddings header");
+        }
+        String embedder = null;
+        int dimension = -1;
+        for (String field : header.substring(2).trim().split("\\s+")) {
+            if (field.startsWith("embedder=")) {
+                embedder = field.substring("embedder=".length());
+            } else if (field.startsWith("dimension=")) {
+                dimension = Integer.parseInt(field.substring("dimension=".length()));
+            }
+        }
+        if (embedder == null || dimension <= 0) {
+            throw new IllegalArgumentException("Invalid embeddings header: " + header);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\t");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected metricId<TAB>text<TAB>vector: " + line);
+            }
+            float[] vector = new float[dimension];
+            for (String component : parts[2].split(",")) {
+                int separator = component.indexOf(':');
+                int index = separator > 0 ? Integer.parseInt(component.substring(0, separator)) : -1;
+                if (index < 0 || index >= dimension) {
+                    throw new IllegalArgumentException("Invalid component for " + parts[0] + ": " + component);
+                }
+                vector[index] = Float.parseFloat(component.substring(separator + 1));
+            }
+            entries.add(new Entry(parts[0], parts[1], vector));
+        }
+        return new Contents(embedder, dimension, entries);
+    }
+
+    static Contents read(InputStream input) throws IOException {
+        return read(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+package com.utilityexplorer.utilagent;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Semantic metric routing for the deterministic Util Agent parser, without the intelligence service.
+ *
+ * Phrasing embeddings are precomputed offline (see {@link MetricEmbeddingFile}) and loaded into an
+ * in-memory HNSW graph at startup. Questions are embedded in-process with the same
+ * {@link HashingEmbedder}, so routing needs no network call. A file built with a different
+ * embedder is rejected, because its vectors would not be comparable with question vectors.
+ */
+@Component
+public class MetricEmbeddingIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricEmbeddingIndex.class);
+
+    private static final int MAX_LINKS = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final long SEED = 42L;
+    private static final int CANDIDATES = 10;
+
+    private final ResourceLoader resourceLoader;
+    private final MetricKeywordIndex metricKeywordIndex;
+    private final boolean enabled;
+    private final String path;
+    private final double minSimilarity;
+    private final int efSearch;
+
+    private volatile HnswIndex index;
+
+    public MetricEmbeddingIndex(ResourceLoader resourceLoader,
+                                MetricKeywordIndex metricKeywordIndex,
+                                @Value("${METRIC_EMBEDDINGS_ENABLED:true}") boolean enabled,
+                                @Value("${METRIC_EMBEDDINGS_PATH:classpath:utilagent/metric-embeddings.tsv}") String path,
+                                @Value("${METRIC_EMBEDDINGS_MIN_SIMILARITY:0.25}") double minSimilarity,
+                                @Value("${METRIC_EMBEDDINGS_EF_SEARCH:32}") int efSearch) {
+        this.resourceLoader = resourceLoader;
+        this.metricKeywordIndex = metricKeywordIndex;
+        this.enabled = enabled;
+        this.path = path;
+        this.minSimilarity = minSimilarity;
+        this.efSearch = efSearch;
+    }
+
+    @PostConstruct
+    void load() {
+        if (!enabled) {
+            return;
+        }
+        Resource resource = resourceLoader.getResource(path);
+        if (!resource.exists()) {
+            logger.warn("Metric embeddings file {} not found; semantic routing disabled", path);
+            return;
+        }
+        try (InputStream input = resource.getInputStream()) {
+            index = build(MetricEmbeddingFile.read(input));
+            logger.info("Loaded {} metric phrasing embeddings from {}", index.size(), path);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not load metric embeddings from {}: {}; semantic routing disabled", path, e.getMessage());
+        }
+    }
+
+    static HnswIndex build(MetricEmbeddingFile.Contents contents) {
+        if (!HashingEmbedder.NAME.equals(contents.embedder()) || contents.dimension() != HashingEmbedder.DIMENSION) {
+            throw new IllegalArgumentException("file was built with " + contents.embedder() + "/" + contents.dimension()
+                + ", expected " + HashingEmbedder.NAME + "/" + HashingEmbedder.DIMENSION);
+        }
+        HnswIndex built = new HnswIndex(contents.dimension(), MAX_LINKS, EF_CONSTRUCTION, SEED);
+        for (MetricEmbeddingFile.Entry entry : contents.entries()) {
+            built.add(entry.metricId(), entry.vector());
+        }
+        return built;
+    }
+
+    /**
+     * Metrics whose phrasings are semantically close to {@code question} and that have a source to
+     * query, by descending cosine similarity. Empty when the index is not loaded.
+     */
+    public List<MetricKeywordIndex.MetricMatch> match(String question) {
+        HnswIndex current = index;
+        if (current == null || question == null) {
+            return List.of();
+        }
+        Map<String, Float> bestByMetric = new LinkedHashMap<>();
+        for (HnswIndex.Neighbor neighbor : current.search(HashingEmbedder.embed(question), CANDIDATES, efSearch)) {
+            if (neighbor.similarity() >= minSimilarity) {
+                bestByMetric.putIfAbsent(neighbor.key(), neighbor.similarity());
+            }
+        }
+        List<MetricKeywordIndex.MetricMatch> matches = new ArrayList<>();
+        bestByMetric.forEach((metricId, similarity) -> {
+            String sourceId = metricKeywordIndex.sourceFor(metricId);
+            if (sourceId != null) {
+                matches.add(new MetricKeywordIndex.MetricMatch(metricId, sourceId, similarity));
+            }
+        });
+        return matches;
+    }
+}
@@ -0,0 +1,184 @@
+package com.utilityexplorer.utilagent;
+
+import com.utilityexplorer.persistence.MetricSource;
+import com.utilityexplorer.persistence.MetricSourceRepository;
+import com.utilityexplorer.shared.dto.MetricDefinition;
+import com.utilityexplorer.shared.persistence.Metric;
+import com.utilityexplorer.shared.persistence.MetricRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keyword index used by the deterministic Util Agent parser.
+ *
+ * Built from the metric table (name, description, synonyms), metric_source for the source to
+ * query, and MetricDefinition broadcasts from the adapters. The index is rebuilt lazily after a
+ * definition arrives and by a periodic check that compares a one-row catalog version (counts and
+ * change timestamps, see V31) and reloads the tables only when it differs.
+ */
+@Component
+public class MetricKeywordIndex {
+
+    static final double PHRASE_WEIGHT = 3.0;
+    static final double NAME_WORD_WEIGHT = 1.0;
+    static final double DESCRIPTION_WORD_WEIGHT = 0.5;
+
+    private static final int MIN_WORD_LENGTH = 4;
+    private static final Set<String> STOP_WORDS = Set.of(
+        "with", "from", "that", "this", "based", "average", "data", "value", "values", "each", "year",
+        "years", "month", "monthly", "total", "per", "the", "and", "for", "assumed", "estimated");
+
+    public record MetricMatch(String metricId, String sourceId, double score) {}
+
+    private record Snapshot(KeywordMatcher matcher, Map<String, String> sourceByMetric, List<Object> version) {}
+
+    private final MetricRepository metricRepository;
+    private final MetricSourceRepository metricSourceRepository;
+    private final Map<String, MetricDefinition> definitions = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+    // Rebuilds query the metric tables, so this is a ReentrantLock (virtual threads park on it)
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    public MetricKeywordIndex(MetricRepository metricRepository, MetricSourceRepository metricSourceRepository) {
+        this.metricRepository = metricRepository;
+        this.metricSourceRepository = metricSourceRepository;
+    }
+
+    /**
+     * Metrics mentioned in {@code question} that have a source to query, by descending score.
+     */
+    public List<MetricMatch> match(String question) {
+        Snapshot current = current();
+        List<MetricMatch> matches = new ArrayList<>();
+        current.matcher().match(question).forEach((metricId, score) -> {
+            String sourceId = current.sourceByMetric().get(metricId);
+            if (sourceId != null) {
+                matches.add(new MetricMatch(metricId, sourceId, score));
+            }
+        });
+        return matches;
+    }
+
+    /**
+     * Source to query for {@code metricId}, or null when the metric has no data yet.
+     */
+    public String sourceFor(String metricId) {
+        return current().sourceByMetric().get(metricId);
+    }
+
+    public void onDefinition(MetricDefinition definition) {
+        if (definition == null || definition.metricId() == null) {
+            return;
+        }
+        if (!definition.equals(definitions.put(definition.metricId(), definition))) {
+            stale = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${METRIC_KEYWORD_REFRESH_MS:300000}")
+    public void refreshIfChanged() {
+        Snapshot current = snapshot;
+        if (current == null || stale) {
+            return; // next match() rebuilds anyway
+        }
+        List<Object> version = catalogVersion();
+        if (!version.equals(current.version())) {
+            snapshot = build(version);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && !stale) {
+            return current;
+        }
+        buildLock.lock();
+        try {
+            if (snapshot == null || stale) {
+                stale = false;
+                snapshot = build(catalogVersion());
+            }
+            return snapshot;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private List<Object> catalogVersion() {
+        List<Object[]> rows = metricSourceRepository.findCatalogVersion();
+        return rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0));
+    }
+
+    // The version is read before the tables, so a change in between triggers another rebuild
+    private Snapshot build(List<Object> version) {
+        List<Metric> metrics = metricRepository.findAll();
+        List<MetricSource> metricSources = metricSourceRepository.findAll();
+        List<KeywordMatcher.Keyword> keywords = new ArrayList<>();
+        Set<String> known = new TreeSet<>();
+        for (Metric metric : metrics) {
+            known.add(metric.getMetricId());
+            addPhrase(keywords, metric.getMetricId(), metric.getName());
+            addWords(keywords, metric.getMetricId(), metric.getName(), NAME_WORD_WEIGHT);
+            addWords(keywords, metric.getMetricId(), metric.getDescription(), DESCRIPTION_WORD_WEIGHT);
+            if (metric.getSynonyms() != null) {
+                for (String synonym : metric.getSynonyms().split(",")) {
+                    addPhrase(keywords, metric.getMetricId(), synonym);
+                }
+            }
+        }
+        for (MetricDefinition definition : definitions.values()) {
+            known.add(definition.metricId());
+            addPhrase(keywords, definition.metricId(), definition.displayName());
+            addWords(keywords, definition.metricId(), definition.displayName(), NAME_WORD_WEIGHT);
+            addWords(keywords, definition.metricId(), definition.description(), DESCRIPTION_WORD_WEIGHT);
+        }
+
+        Map<String, TreeSet<String>> sourcesByMetric = new TreeMap<>();
+        for (MetricSource metricSource : metricSources) {
+            sourcesByMetric.computeIfAbsent(metricSource.getMetricId(), id -> new TreeSet<>())
+                .add(metricSource.getSourceId());
+        }
+        Map<String, String> sourceByMetric = new ConcurrentHashMap<>();
+        for (String metricId : known) {
+            MetricDefinition definition = definitions.get(metricId);
+            String declared = definition != null ? definition.sourceSystem() : null;
+            TreeSet<String> sources = sourcesByMetric.get(metricId);
+            if (sources != null && !sources.isEmpty()) {
+                sourceByMetric.put(metricId, declared != null && sources.contains(declared) ? declared : sources.first());
+            } else if (declared != null) {
+                sourceByMetric.put(metricId, declared);
+            }
+        }
+
+        return new Snapshot(KeywordMatcher.build(keywords), sourceByMetric, version);
+    }
+
+    private static void addPhrase(List<KeywordMatcher.Keyword> keywords, String metricId, String phrase) {
+        if (phrase != null && !phrase.isBlank()) {
+            keywords.add(new KeywordMatcher.Keyword(phrase, metricId, PHRASE_WEIGHT));
+        }
+    }
+
+    private static void addWords(List<KeywordMatcher.Keyword> keywords, String metricId, String text, double weight) {
+        if (text == null) {
+            return;
+        }
+        for (String word : KeywordMatcher.normalize(text).split(" ")) {
+            if (word.length() >= MIN_WORD_LENGTH && !STOP_WORDS.contains(word) && !Character.isDigit(word.charAt(0))) {
+                keywords.add(new KeywordMatcher.Keyword(word, metricId, weight));
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.utilityexplorer.utilagent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiles an INTERSECTION {@link QuerySpec} into a single SQL statement.
+ *
+ * The statement resolves each metric's latest period at the requested geo level from
+ * fact_watermark (a primary-key lookup), pivots the facts of that period into one column per
+ * metric, applies filters, orders by the requested directions and limits the result. Metrics
+ * without a watermark at that level drop out. "Latest" is per geo level, not global: a metric whose
+ * newest period exists only for counties is answered for states from its newest state period.
+ * Only generated aliases and whitelisted operators are spliced into the SQL; every value is a bind
+ * parameter.
+ *
+ * Result columns: geo_id, region_name, then for each metric i: v{i} (value), and window
+ * aggregates over all matching rows s{i}/e{i}/r{i} (period start, period end, retrieved at).
+ */
+final class QuerySpecCompiler {
+
+    record CompiledQuery(String sql, List<Object> params, List<MetricSpec> metrics) {}
+
+    private static final Map<String, String> OPERATORS = Map.ofEntries(
+        Map.entry(">", ">"), Map.entry("gt", ">"),
+        Map.entry(">=", ">="), Map.entry("gte", ">="),
+        Map.entry("<", "<"), Map.entry("lt", "<"),
+        Map.entry("<=", "<="), Map.entry("lte", "<="),
+        Map.entry("=", "="), Map.entry("eq", "="),
+        Map.entry("!=", "<>"), Map.entry("<>", "<>"), Map.entry("ne", "<>"));
+
+    private QuerySpecCompiler() {}
+
+    /**
+     * @throws IllegalArgumentException if the spec has no metrics, a filter references a metric
+     *         that is not queried, or an operator or direction is not supported
+     */
+    static CompiledQuery compile(QuerySpec spec, int defaultLimit) {
+        Map<String, Integer> ordinals = new LinkedHashMap<>();
+        List<MetricSpec> metrics = new ArrayList<>();
+        if (spec.getMetrics() != null) {
+            for (MetricSpec metric : spec.getMetrics()) {
+                if (metric != null && metric.getMetricId() != null && !ordinals.containsKey(metric.getMetricId())) {
+                    ordinals.put(metric.getMetricId(), metrics.size());
+                    metrics.add(metric);
+                }
+            }
+        }
+        if (metrics.isEmpty()) {
+            throw new IllegalArgumentException("No metrics requested");
+        }
+
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("WITH requested(ord, metric_id, source_id) AS (VALUES ");
+        for (int i = 0; i < metrics.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(").append(i).append(", ?, ?)");
+            params.add(metrics.get(i).getMetricId());
+            params.add(metrics.get(i).getSourceId());
+        }
+        sql.append("),\n")
+           .append("latest AS (\n")
+           .append("  SELECT q.ord, q.metric_id, q.source_id,\n")
+           .append("         w.latest_period_start AS period_start\n")
+           .append("  FROM requested q\n")
+           .append("  JOIN fact_watermark w ON w.metric_id = q.metric_id AND w.source_id = q.source_id AND w.geo_level = ?\n")
+           .append("),\n")
+           .append("pivot AS (\n")
+           .append("  SELECT f.geo_id");
+        params.add(spec.getGeoLevel());
+        for (int i = 0; i < metrics.size(); i++) {
+            sql.append(",\n         MAX(f.value_numeric) FILTER (WHERE l.ord = ").append(i).append(") AS v").append(i)
+               .append(",\n         MAX(f.period_start) FILTER (WHERE l.ord = ").append(i).append(") AS s").append(i)
+               .append(",\n         MAX(f.period_end) FILTER (WHERE l.ord = ").append(i).append(") AS e").append(i)
+               .append(",\n         MAX(f.retrieved_at) FILTER (WHERE l.ord = ").append(i).append(") AS r").append(i);
+        }
+        sql.append("\n  FROM latest l\n")
+           .append("  JOIN fact_value f ON f.metric_id = l.metric_id AND f.source_id = l.source_id\n")
+           .append("   AND f.geo_level = ? AND f.period_start = l.period_start\n")
+           .append("  GROUP BY f.geo_id\n")
+           .append(")\n")
+           .append("SELECT p.geo_id, r.name AS region_name");
+        params.add(spec.getGeoLevel());
+        for (int i = 0; i < metrics.size(); i++) {
+            sql.append(", p.v").append(i)
+               .append(", MAX(p.s").append(i).append(") OVER () AS s").append(i)
+               .append(", MAX(p.e").append(i).append(") OVER () AS e").append(i)
+               .append(", MAX(p.r").append(i).append(") OVER () AS r").append(i);
+        }
+        sql.append("\nFROM pivot p\n")
+           .append("LEFT JOIN region r ON r.geo_level = ? AND r.geo_id = p.geo_id\n");
+        params.add(spec.getGeoLevel());
+
+        List<String> conditions = new ArrayList<>();
+        if (spec.getFilters() != null) {
+            for (FilterSpec filter : spec.getFilters()) {
+                if (filter == null) {
+                    continue;
+                }
+                Integer ordinal = ordinals.get(filter.getMetricId());
+                if (ordinal == null) {
+                    throw new IllegalArgumentException("Filter on metric not in query: " + filter.getMetricId());
+                }
+                String operator = filter.getOp() != null ? OPERATORS.get(filter.getOp().toLowerCase(Locale.ROOT)) : null;
+                if (operator == null || filter.getValue() == null) {
+                    throw new IllegalArgumentException("Unsupported filter: " + filter.getOp());
+                }
+                conditions.add("p.v" + ordinal + " " + operator + " ?");
+                params.add(filter.getValue());
+            }
+        }
+        if (!conditions.isEmpty()) {
+            sql.append("WHERE ").append(String.join(" AND ", conditions)).append("\n");
+        }
+
+        List<String> orderBy = new ArrayList<>();
+        for (int i = 0; i < metrics.size(); i++) {
+            String direction = metrics.get(i).getDirection();
+            if (direction != null) {
+                orderBy.add("p.v" + i + " " + sqlDirection(direction) + " NULLS LAST");
+            }
+        }
+        orderBy.add("p.geo_id");
+        sql.append("ORDER BY ").append(String.join(", ", orderBy)).append("\n")
+           .append("LIMIT ?");
+        params.add(spec.getLimit() != null && spec.getLimit() > 0 ? spec.getLimit() : defaultLimit);
+
+        return new CompiledQuery(sql.toString(), params, metrics);
+    }
+
+    private static String sqlDirection(String direction) {
+        switch (direction.toUpperCase(Locale.ROOT)) {
+            case "ASC":
+            case "LOW":
+            case "LOWEST":
+                return "ASC";
+            case "DESC":
+            case "HIGH":
+            case "HIGHEST":
+                return "DESC";
+            default:
+                throw new IllegalArgumentException("Unsupported direction: " + direction);
+        }
+    }
+}
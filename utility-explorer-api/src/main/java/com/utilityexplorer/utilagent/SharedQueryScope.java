@@ -0,0 +1,67 @@
+package com.utilityexplorer.utilagent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates identical fact lookups across the questions of one batch evaluation.
+ *
+ * Questions that compile to the same SQL and parameters (for example "cheapest electricity" and
+ * "lowest electricity price") share one execution; a lookup that is still running is joined rather
+ * than repeated. The scope is bound to the evaluating thread for the duration of each question.
+ */
+final class SharedQueryScope {
+
+    private static final ThreadLocal<SharedQueryScope> CURRENT = new ThreadLocal<>();
+
+    private record Key(String sql, List<Object> params) {}
+
+    private final Map<Key, CompletableFuture<List<?>>> results = new ConcurrentHashMap<>();
+    private final AtomicInteger sharedLookups = new AtomicInteger();
+
+    static SharedQueryScope current() {
+        return CURRENT.get();
+    }
+
+    <T> T run(Supplier<T> task) {
+        SharedQueryScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> List<T> query(String sql, List<Object> params, Supplier<List<T>> loader) {
+        CompletableFuture<List<?>> created = new CompletableFuture<>();
+        CompletableFuture<List<?>> existing = results.putIfAbsent(new Key(sql, new ArrayList<>(params)), created);
+        if (existing != null) {
+            sharedLookups.incrementAndGet();
+            return (List<T>) existing.join();
+        }
+        try {
+            List<T> rows = loader.get();
+            created.complete(rows);
+            return rows;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Lookups answered from another question's execution. */
+    int getSharedLookups() {
+        return sharedLookups.get();
+    }
+}
@@ -0,0 +1,250 @@
+package com.utilityexplorer.utilagent;
+
+import com.utilityexplorer.workload.Workload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind log of Util Agent questions.
+ *
+ * Questions are assigned an id from a preallocated block of user_query_id_seq (see V28) and queued;
+ * a scheduled flush batch-inserts them. When the queue is full the overflow policy applies:
+ * DROP discards the entry (no queryId is returned) and SYNC writes it on the caller's thread.
+ * A batch whose insert fails is retried on the following flushes, up to
+ * {@value #MAX_FLUSH_ATTEMPTS} attempts, then counted in utilagent.query_log.failed and logged
+ * by id. Pending entries are flushed on shutdown.
+ */
+@Component
+public class UserQueryLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserQueryLogWriter.class);
+
+    public enum OverflowPolicy { DROP, SYNC }
+
+    // Must match the INCREMENT BY of user_query_id_seq
+    static final int ID_BLOCK_SIZE = 50;
+
+    static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    // Ids are preassigned, so a retried batch that did reach the table is a no-op
+    private static final String INSERT_SQL =
+        "INSERT INTO user_query (id, question_text, timestamp, metric_id, source_id, feedback, " +
+        "is_model_generated, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<PendingQuery> queue;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Counter written;
+    // Entries from failed inserts awaiting another attempt; guarded by flushLock
+    private final List<PendingQuery> retries = new ArrayList<>();
+
+    // Held while draining and inserting so feedback cannot slip between the queue and the table
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Guards the id block, including the nextval round trip when a block runs out
+    private final ReentrantLock idLock = new ReentrantLock();
+
+    private long nextId;
+    private long blockEnd = -1;
+
+    public UserQueryLogWriter(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${USER_QUERY_LOG_QUEUE_CAPACITY:10000}") int queueCapacity,
+            @Value("${USER_QUERY_LOG_BATCH_SIZE:200}") int batchSize,
+            @Value("${USER_QUERY_LOG_OVERFLOW:DROP}") OverflowPolicy overflowPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+        this.dropped = Counter.builder("utilagent.query_log.dropped")
+            .description("User queries not logged because the write-behind queue was full")
+            .register(meterRegistry);
+        this.failed = Counter.builder("utilagent.query_log.failed")
+            .description("User queries not logged because every insert attempt failed")
+            .register(meterRegistry);
+        this.written = Counter.builder("utilagent.query_log.written")
+            .description("User queries batch-inserted by the write-behind log")
+            .register(meterRegistry);
+        Gauge.builder("utilagent.query_log.pending", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Queues a question for logging and returns its id, or null if it was dropped.
+     */
+    public Long log(String questionText, String metricId, String sourceId, boolean modelGenerated) {
+        LocalDateTime now = LocalDateTime.now();
+        PendingQuery entry = new PendingQuery(allocateId(), questionText, now, metricId, sourceId, modelGenerated);
+        if (queue.offer(entry)) {
+            return entry.id;
+        }
+        if (overflowPolicy == OverflowPolicy.SYNC) {
+            insert(List.of(entry));
+            return entry.id;
+        }
+        dropped.increment();
+        return null;
+    }
+
+    /**
+     * Attaches feedback to a query that has not been written yet. Returns false if the query is
+     * not pending, in which case the caller should update the stored row.
+     */
+    public boolean setFeedbackIfPending(Long queryId, String feedback) {
+        flushLock.lock();
+        try {
+            for (PendingQuery entry : queue) {
+                if (Objects.equals(entry.id, queryId)) {
+                    entry.feedback = feedback;
+                    return true;
+                }
+            }
+            for (PendingQuery entry : retries) {
+                if (Objects.equals(entry.id, queryId)) {
+                    entry.feedback = feedback;
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${USER_QUERY_LOG_FLUSH_MS:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<PendingQuery> batch = new ArrayList<>(batchSize);
+            while (!retries.isEmpty()) {
+                List<PendingQuery> head = retries.subList(0, Math.min(batchSize, retries.size()));
+                batch.addAll(head);
+                head.clear();
+                if (!tryInsert(batch)) {
+                    return; // still failing; leave the rest for the next flush
+                }
+                batch.clear();
+            }
+            while (queue.drainTo(batch, batchSize) > 0) {
+                if (!tryInsert(batch)) {
+                    return;
+                }
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts one batch, keeping it for a later flush when the insert fails. Non-blocking for
+     * callers of {@link #log}: failures are never propagated.
+     */
+    private boolean tryInsert(List<PendingQuery> batch) {
+        try {
+            // Runs on the shared scheduler; the log belongs with the agent's connections
+            Workload.AGENT.run(() -> insert(batch));
+            return true;
+        } catch (RuntimeException e) {
+            List<Long> abandoned = new ArrayList<>();
+            for (PendingQuery entry : batch) {
+                if (++entry.attempts < MAX_FLUSH_ATTEMPTS) {
+                    retries.add(entry);
+                } else {
+                    abandoned.add(entry.id);
+                }
+            }
+            logger.warn("Failed to log {} user queries, {} will be retried: {}",
+                batch.size(), batch.size() - abandoned.size(), e.getMessage());
+            if (!abandoned.isEmpty()) {
+                failed.increment(abandoned.size());
+                logger.error("Gave up logging {} user queries after {} attempts: ids {}",
+                    abandoned.size(), MAX_FLUSH_ATTEMPTS, abandoned);
+            }
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    private long allocateId() {
+        idLock.lock();
+        try {
+            if (nextId > blockEnd) {
+                Long blockStart = jdbcTemplate.queryForObject("SELECT nextval('user_query_id_seq')", Long.class);
+                nextId = blockStart;
+                blockEnd = blockStart + ID_BLOCK_SIZE - 1;
+            }
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private void insert(List<PendingQuery> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+            Timestamp timestamp = Timestamp.valueOf(entry.timestamp);
+            ps.setLong(1, entry.id);
+            ps.setString(2, entry.questionText);
+            ps.setTimestamp(3, timestamp);
+            ps.setString(4, entry.metricId);
+            ps.setString(5, entry.sourceId);
+            if (entry.feedback != null) {
+                ps.setString(6, entry.feedback);
+            } else {
+                ps.setNull(6, Types.VARCHAR);
+            }
+            ps.setBoolean(7, entry.modelGenerated);
+            ps.setTimestamp(8, timestamp);
+        });
+        written.increment(batch.size());
+    }
+
+    private static final class PendingQuery {
+        final long id;
+        final String questionText;
+        final LocalDateTime timestamp;
+        final String metricId;
+        final String sourceId;
+        final boolean modelGenerated;
+        volatile String feedback;
+        int attempts;
+
+        PendingQuery(long id, String questionText, LocalDateTime timestamp, String metricId,
+                     String sourceId, boolean modelGenerated) {
+            this.id = id;
+            this.questionText = questionText;
+            this.timestamp = timestamp;
+            this.metricId = metricId;
+            this.sourceId = sourceId;
+            this.modelGenerated = modelGenerated;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.utilityexplorer.utilagent;
+
+import com.utilityexplorer.dto.ApiDtos.UtilAgentResponse;
+import com.utilityexplorer.persistence.MetricSourceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answer cache for the Util Agent, keyed by the normalized question.
+ *
+ * Entries expire after a TTL and are evicted early when facts for a metric they cite change, as
+ * recorded in metric_source.last_changed_at (V27). Answers with unknown provenance (GenAI) cite no
+ * specific metric and are evicted on any fact change.
+ *
+ * Every invalidation bumps a generation counter. Callers read {@link #generation()} before
+ * computing an answer and pass it to {@link #put}, which drops answers computed before the latest
+ * invalidation so they cannot be served stale until their TTL.
+ */
+@Component
+public class UtilAgentAnswerCache {
+
+    private final MetricSourceRepository metricSourceRepository;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final boolean enabled;
+    private final Clock clock;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    // Access-ordered so the least recently asked question is evicted first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Instant> lastChangedByMetric = new HashMap<>();
+    private boolean primed;
+    // Guarded by entries
+    private long generation;
+
+    @Autowired
+    public UtilAgentAnswerCache(
+            MetricSourceRepository metricSourceRepository,
+            MeterRegistry meterRegistry,
+            @Value("${UTIL_AGENT_CACHE_ENABLED:true}") boolean enabled,
+            @Value("${UTIL_AGENT_CACHE_TTL_SECONDS:600}") long ttlSeconds,
+            @Value("${UTIL_AGENT_CACHE_MAX_ENTRIES:1000}") int maxEntries) {
+        this(metricSourceRepository, meterRegistry, enabled, Duration.ofSeconds(ttlSeconds), maxEntries, Clock.systemUTC());
+    }
+
+    UtilAgentAnswerCache(MetricSourceRepository metricSourceRepository, MeterRegistry meterRegistry,
+                         boolean enabled, Duration ttl, int maxEntries, Clock clock) {
+        this.metricSourceRepository = metricSourceRepository;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.clock = clock;
+        this.hits = Counter.builder("utilagent.answer.cache.requests").tag("result", "hit")
+            .description("Util Agent answer cache lookups").register(meterRegistry);
+        this.misses = Counter.builder("utilagent.answer.cache.requests").tag("result", "miss")
+            .description("Util Agent answer cache lookups").register(meterRegistry);
+        this.invalidations = Counter.builder("utilagent.answer.cache.invalidations")
+            .description("Entries evicted because cited facts changed").register(meterRegistry);
+        Gauge.builder("utilagent.answer.cache.size", this, UtilAgentAnswerCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns a copy of the cached answer, or null on a miss.
+     */
+    public UtilAgentResponse get(String normalizedQuestion) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(normalizedQuestion);
+            if (entry != null && clock.instant().isBefore(entry.expiresAt)) {
+                hits.increment();
+                return copyOf(entry.response);
+            }
+            if (entry != null) {
+                entries.remove(normalizedQuestion);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * The current invalidation generation; read it before computing an answer to cache.
+     */
+    public long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Caches a copy of {@code response} unless an invalidation has happened since
+     * {@code generation} was read. An empty {@code metricIds} means the answer depends on any metric.
+     */
+    public void put(String normalizedQuestion, UtilAgentResponse response, Set<String> metricIds, long generation) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = new Entry(copyOf(response), Set.copyOf(metricIds), clock.instant().plus(ttl));
+        synchronized (entries) {
+            if (generation != this.generation) {
+                return;
+            }
+            entries.put(normalizedQuestion, entry);
+            Iterator<String> eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${UTIL_AGENT_CACHE_POLL_MS:30000}")
+    public void evictChangedMetrics() {
+        if (!enabled) {
+            return;
+        }
+        Set<String> changed = new HashSet<>();
+        for (Object[] row : metricSourceRepository.findLastChangedAtByMetric()) {
+            String metricId = (String) row[0];
+            Instant changedAt = (Instant) row[1];
+            Instant previous = lastChangedByMetric.put(metricId, changedAt);
+            if (primed && (previous == null || (changedAt != null && changedAt.isAfter(previous)))) {
+                changed.add(metricId);
+            }
+        }
+        primed = true;
+        if (!changed.isEmpty()) {
+            invalidate(changed);
+        }
+    }
+
+    void invalidate(Set<String> changedMetricIds) {
+        int removed = 0;
+        synchronized (entries) {
+            generation++;
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Set<String> cited = it.next().metricIds;
+                if (cited.isEmpty() || cited.stream().anyMatch(changedMetricIds::contains)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        invalidations.increment(removed);
+    }
+
+    // Per-request fields (queryId, responseTimestamp) are reset on the copy; nested parts are never mutated
+    private static UtilAgentResponse copyOf(UtilAgentResponse source) {
+        UtilAgentResponse copy = new UtilAgentResponse();
+        copy.setStatus(source.getStatus());
+        copy.setSummary(source.getSummary());
+        copy.setPeriod(source.getPeriod());
+        copy.setTable(source.getTable());
+        copy.setHighlightRegions(source.getHighlightRegions());
+        copy.setCitations(source.getCitations());
+        copy.setNotes(source.getNotes());
+        copy.setResponseOrigin(source.getResponseOrigin());
+        copy.setConfidence(source.getConfidence());
+        copy.setDisclaimer(source.getDisclaimer());
+        return copy;
+    }
+
+    private record Entry(UtilAgentResponse response, Set<String> metricIds, Instant expiresAt) {}
+}
@@ -0,0 +1,228 @@
+package com.utilityexplorer.utilagent;
+
+import com.utilityexplorer.dto.ApiDtos.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Evaluates many Util Agent questions concurrently, for regression suites.
+ *
+ * Identical questions (after normalization) are answered once, and identical fact lookups across
+ * different questions share one execution through a {@link SharedQueryScope}. Answers come from
+ * {@link UtilAgentService#evaluateQuery}, so they bypass the answer cache and the query log.
+ *
+ * At most {@code parallelism} questions run at a time on the {@link UtilAgentExecutor} bulkhead,
+ * capped at {@code UTIL_AGENT_BATCH_MAX_PARALLELISM} and always leaving a worker free for live
+ * queries when the bulkhead has more than one. The next question is submitted as each one
+ * completes, so no thread blocks waiting on the batch.
+ */
+@Component
+public class UtilAgentBatchEvaluator {
+
+    private final UtilAgentService utilAgentService;
+    private final UtilAgentExecutor utilAgentExecutor;
+    private final int maxParallelism;
+
+    public UtilAgentBatchEvaluator(
+            UtilAgentService utilAgentService,
+            UtilAgentExecutor utilAgentExecutor,
+            @Value("${UTIL_AGENT_BATCH_MAX_PARALLELISM:4}") int maxParallelism) {
+        this.utilAgentService = utilAgentService;
+        this.utilAgentExecutor = utilAgentExecutor;
+        this.maxParallelism = Math.max(1, Math.min(maxParallelism, utilAgentExecutor.getMaxConcurrency() - 1));
+    }
+
+    public CompletableFuture<UtilAgentBatchResponse> evaluate(List<String> questions, Integer parallelism) {
+        long started = System.nanoTime();
+        int effectiveParallelism = parallelism == null ? maxParallelism : Math.max(1, Math.min(parallelism, maxParallelism));
+
+        UtilAgentBatchResult[] results = new UtilAgentBatchResult[questions.size()];
+        Map<String, Integer> firstIndexByQuestion = new LinkedHashMap<>();
+        Queue<Integer> pending = new ArrayDeque<>();
+        for (int i = 0; i < questions.size(); i++) {
+            Integer first = firstIndexByQuestion.putIfAbsent(UtilAgentService.normalizeQuestion(questions.get(i)), i);
+            if (first == null) {
+                pending.add(i);
+            }
+        }
+
+        Batch batch = new Batch(questions, results, pending, firstIndexByQuestion.size());
+        for (int i = 0; i < effectiveParallelism; i++) {
+            batch.startNext();
+        }
+
+        return batch.done.thenApply(ignored -> {
+            // Duplicates reuse the answer of the first occurrence
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    int first = firstIndexByQuestion.get(UtilAgentService.normalizeQuestion(questions.get(i)));
+                    results[i] = duplicate(i, questions.get(i), results[first]);
+                }
+            }
+            UtilAgentBatchSummary summary = summarize(results, effectiveParallelism, batch.scope.getSharedLookups(),
+                firstIndexByQuestion.size(), (System.nanoTime() - started) / 1_000_000);
+            return new UtilAgentBatchResponse(summary, Arrays.asList(results));
+        });
+    }
+
+    private final class Batch {
+        final List<String> questions;
+        final UtilAgentBatchResult[] results;
+        final Queue<Integer> pending;
+        final SharedQueryScope scope = new SharedQueryScope();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        int remaining;
+
+        Batch(List<String> questions, UtilAgentBatchResult[] results, Queue<Integer> pending, int unique) {
+            this.questions = questions;
+            this.results = results;
+            this.pending = pending;
+            this.remaining = unique;
+            if (unique == 0) {
+                done.complete(null);
+            }
+        }
+
+        // Loops rather than recursing: rejected submits and answers that are already done are
+        // recorded inline, so a long batch never deepens the stack
+        void startNext() {
+            while (true) {
+                Integer index;
+                synchronized (this) {
+                    index = pending.poll();
+                }
+                if (index == null) {
+                    return;
+                }
+                String question = questions.get(index);
+                long[] latency = new long[1];
+                CompletableFuture<UtilAgentResponse> answer;
+                try {
+                    answer = utilAgentExecutor.submit(() -> scope.run(() -> {
+                        long start = System.nanoTime();
+                        try {
+                            return utilAgentService.evaluateQuery(question);
+                        } finally {
+                            latency[0] = (System.nanoTime() - start) / 1_000_000;
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    answer = CompletableFuture.failedFuture(e);
+                }
+                if (!answer.isDone()) {
+                    answer.whenComplete((response, error) -> {
+                        if (!complete(index, question, latency[0], response, error)) {
+                            startNext();
+                        }
+                    });
+                    return;
+                }
+                UtilAgentResponse response = null;
+                Throwable error = null;
+                try {
+                    response = answer.join();
+                } catch (CompletionException e) {
+                    error = e;
+                }
+                if (complete(index, question, latency[0], response, error)) {
+                    return;
+                }
+            }
+        }
+
+        /** Records one answer; returns true once every unique question has one. */
+        private boolean complete(int index, String question, long latencyMs, UtilAgentResponse response, Throwable error) {
+            results[index] = result(index, question, latencyMs, response, error);
+            boolean finished;
+            synchronized (this) {
+                finished = --remaining == 0;
+            }
+            if (finished) {
+                done.complete(null);
+            }
+            return finished;
+        }
+    }
+
+    private static UtilAgentBatchResult result(int index, String question, long latencyMs,
+                                               UtilAgentResponse response, Throwable error) {
+        UtilAgentBatchResult result = new UtilAgentBatchResult();
+        result.setIndex(index);
+        result.setQuestion(question);
+        result.setLatencyMs(latencyMs);
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            result.setStatus(cause instanceof RejectedExecutionException ? "BUSY" : "ERROR");
+            result.setError(cause.getMessage());
+        } else {
+            result.setStatus(response.getStatus());
+            result.setOrigin(response.getResponseOrigin());
+            result.setResponse(response);
+        }
+        return result;
+    }
+
+    private static UtilAgentBatchResult duplicate(int index, String question, UtilAgentBatchResult first) {
+        UtilAgentBatchResult result = new UtilAgentBatchResult();
+        result.setIndex(index);
+        result.setQuestion(question);
+        result.setDuplicateOf(first.getIndex());
+        result.setLatencyMs(0);
+        result.setOrigin(first.getOrigin());
+        result.setStatus(first.getStatus());
+        result.setError(first.getError());
+        result.setResponse(first.getResponse());
+        return result;
+    }
+
+    private static UtilAgentBatchSummary summarize(UtilAgentBatchResult[] results, int parallelism,
+                                                   int sharedLookups, int evaluated, long wallMs) {
+        List<Long> latencies = new ArrayList<>();
+        Map<String, Integer> byOrigin = new TreeMap<>();
+        Map<String, Integer> byStatus = new TreeMap<>();
+        for (UtilAgentBatchResult result : results) {
+            byStatus.merge(result.getStatus(), 1, Integer::sum);
+            if (result.getDuplicateOf() == null) {
+                latencies.add(result.getLatencyMs());
+                if (result.getOrigin() != null) {
+                    byOrigin.merge(result.getOrigin(), 1, Integer::sum);
+                }
+            }
+        }
+        latencies.sort(null);
+
+        UtilAgentBatchSummary summary = new UtilAgentBatchSummary();
+        summary.setQuestions(results.length);
+        summary.setEvaluated(evaluated);
+        summary.setParallelism(parallelism);
+        summary.setSharedLookups(sharedLookups);
+        summary.setWallMs(wallMs);
+        summary.setLatencyP50Ms(percentile(latencies, 0.50));
+        summary.setLatencyP95Ms(percentile(latencies, 0.95));
+        summary.setLatencyMaxMs(latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1));
+        summary.setByOrigin(byOrigin);
+        summary.setByStatus(byStatus);
+        return summary;
+    }
+
+    // Nearest-rank percentile over sorted values
+    static long percentile(List<Long> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+}
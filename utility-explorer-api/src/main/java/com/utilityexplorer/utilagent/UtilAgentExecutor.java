@@ -0,0 +1,91 @@
+package com.utilityexplorer.utilagent;
+
+import com.utilityexplorer.shared.concurrent.VirtualThreads;
+import com.utilityexplorer.workload.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead for Util Agent queries.
+ *
+ * Queries run on their own fixed-size pool with a bounded queue, so slow GenAI round trips tie up
+ * at most {@code UTIL_AGENT_MAX_CONCURRENCY} threads and never the servlet threads that serve /map.
+ * Work beyond the queue limit is rejected immediately instead of piling up. With virtual threads
+ * enabled the workers are virtual, but the concurrency and queue limits still apply. Workers use
+ * the agent connection pool and report as {@code executor.*{name=util-agent}}.
+ */
+@Component
+public class UtilAgentExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    public UtilAgentExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${UTIL_AGENT_MAX_CONCURRENCY:8}") int maxConcurrency,
+            @Value("${UTIL_AGENT_QUEUE_LIMIT:32}") int queueLimit) {
+        int threads = Math.max(1, maxConcurrency);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueLimit)),
+            Workload.AGENT.threadFactory(VirtualThreads.threadFactory("util-agent-")),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, "util-agent", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Cancelling the returned future while the task is queued frees its queue slot and the task
+     * never runs; a task that has already started runs to completion.
+     *
+     * @throws RejectedExecutionException if every worker is busy and the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable run = () -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                // Same shape as supplyAsync, which callers unwrap
+                future.completeExceptionally(new CompletionException(e));
+            }
+        };
+        executor.execute(run);
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                executor.remove(run);
+            }
+        });
+        return future;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getMaxConcurrency() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,10 +1,22 @@
 package com.utilityexplorer.utilagent;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import com.utilityexplorer.dto.ApiDtos.*;
 import com.utilityexplorer.persistence.*;
+import com.utilityexplorer.shared.concurrent.VirtualThreads;
+import com.utilityexplorer.shared.jfr.UtilAgentQueryEvent;
 import com.utilityexplorer.shared.persistence.*;
+import com.utilityexplorer.timing.RequestTiming;
+import com.utilityexplorer.workload.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,26 +24,32 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class UtilAgentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UtilAgentService.class);
     
-    private static final String ELECTRICITY_PRICE = "ELECTRICITY_RETAIL_PRICE_CENTS_PER_KWH";
-    private static final String ACS_ELECTRICITY_COST = "ELECTRICITY_MONTHLY_COST_USD_ACS";
+    // A metric joins the query when it scores at least this, and at least half the best match
+    private static final double MIN_METRIC_SCORE = 1.0;
+    private static final double RELATIVE_METRIC_SCORE = 0.5;
+    private static final int MAX_QUERY_METRICS = 3;
+    private static final int DEFAULT_QUERY_LIMIT = 20;
 
-    private static final Map<String, List<String>> METRIC_KEYWORDS = createMetricKeywordMap();
-    private static final Map<String, String> METRIC_SOURCES = Map.of(
-        ELECTRICITY_PRICE, "EIA",
-        ACS_ELECTRICITY_COST, "CENSUS_ACS"
-    );
+    private static final Set<String> ASCENDING_WORDS = Set.of(
+        "least", "lowest", "cheapest", "min", "minimum", "bottom", "smallest", "fewest", "coldest");
+    private static final Set<String> DESCENDING_WORDS = Set.of(
+        "most", "highest", "max", "maximum", "top", "largest", "greatest", "priciest", "expensive", "hottest", "warmest");
 
-    @Autowired
-    private FactValueRepository factValueRepository;
-    
     @Autowired
     private MetricRepository metricRepository;
     
@@ -39,7 +57,7 @@ public class UtilAgentService {
     private SourceRepository sourceRepository;
     
     @Autowired
-    private RegionRepository regionRepository;
+    private JdbcTemplate jdbcTemplate;
     
     @Autowired
     private UserQueryRepository userQueryRepository;
@@ -47,17 +65,102 @@ public class UtilAgentService {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private IntelligenceCircuitBreaker intelligenceCircuitBreaker;
+
+    @Autowired
+    private UtilAgentAnswerCache answerCache;
+
+    @Autowired
+    private UserQueryLogWriter userQueryLogWriter;
+
+    @Autowired
+    private MetricKeywordIndex metricKeywordIndex;
+
+    @Autowired
+    private MetricEmbeddingIndex metricEmbeddingIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${intelligence.url:http://localhost:8092}")
     private String intelligenceUrl;
 
+    @Value("${intelligence.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${intelligence.hedge.budget-ms:1500}")
+    private long hedgeBudgetMs;
+
+    @Value("${intelligence.hedge.threads:16}")
+    private int hedgeThreads;
+
     private final Map<String, Metric> metricCache = new LinkedHashMap<>();
+
+    private ExecutorService hedgeExecutor;
     
     @PostConstruct
     private void initMetricCache() {
         metricRepository.findAll().forEach(metric -> metricCache.put(metric.getMetricId(), metric));
+        if (hedgeEnabled) {
+            hedgeExecutor = new ThreadPoolExecutor(hedgeThreads, hedgeThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(hedgeThreads * 4),
+                Workload.AGENT.threadFactory(VirtualThreads.threadFactory("intelligence-hedge-")));
+        }
+    }
+
+    @PreDestroy
+    private void shutdownHedgeExecutor() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
     }
     
+    /**
+     * Answers a question, timing it into {@code utilagent.queries} by response origin and status.
+     */
+    @WithSpan("UtilAgentService.processQuery")
     public UtilAgentResponse processQuery(String question) {
+        return process(question, true);
+    }
+
+    /**
+     * Answers a question for a regression run. The answer is computed fresh: the answer cache is
+     * neither read nor filled, no {@code user_query} row is written and {@code utilagent.queries}
+     * is not updated.
+     */
+    @WithSpan("UtilAgentService.evaluateQuery")
+    public UtilAgentResponse evaluateQuery(String question) {
+        return process(question, false);
+    }
+
+    private UtilAgentResponse process(String question, boolean live) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        UtilAgentQueryEvent event = new UtilAgentQueryEvent();
+        event.begin();
+        UtilAgentResponse response = null;
+        try {
+            response = answer(question, live);
+            return response;
+        } finally {
+            String origin = response == null ? "error" : Objects.requireNonNullElse(response.getResponseOrigin(), "unknown");
+            String status = response == null ? "ERROR" : Objects.requireNonNullElse(response.getStatus(), "UNKNOWN");
+            if (live) {
+                sample.stop(meterRegistry.timer("utilagent.queries", "origin", origin, "status", status));
+            }
+            Span.current().setAttribute("utilagent.origin", origin);
+            if (event.shouldCommit()) {
+                event.question = question == null || question.length() <= 256 ? question : question.substring(0, 256);
+                event.origin = origin;
+                event.status = status;
+                event.rows = response == null || response.getTable() == null || response.getTable().getRows() == null
+                    ? 0 : response.getTable().getRows().size();
+                event.commit();
+            }
+        }
+    }
+
+    private UtilAgentResponse answer(String question, boolean live) {
         /**
          * Hybrid Architectue Decision:
          * 1. Primary: Logic-driven "Intelligence Service" (Python/FastAPI) which processes natural language
@@ -65,27 +168,135 @@ public class UtilAgentService {
          * 2. Fallback: If Python service fails or is disabled, falls back to internal 'deterministic' Java logic
          *    (regex parsing) to ensure basic functionality (uptime reliability).
          */
-        // Try Python Intelligence Service first
+        // Read before computing so an answer that races an invalidation is not cached
+        long cacheGeneration = answerCache.generation();
+        UtilAgentResponse cached = live ? answerCache.get(normalizeQuestion(question)) : null;
+        if (live) {
+            RequestTiming.count(cached != null ? "answer.cache.hit" : "answer.cache.miss", 1);
+        }
+        if (cached != null) {
+            cached.setResponseTimestamp(Instant.now().toString());
+            logUserQuery(cached, question, null);
+            return cached;
+        }
+
+        // Try Python Intelligence Service first, unless the circuit is open
         if (intelligenceUrl != null && !intelligenceUrl.isEmpty()) {
-            try {
-                return callIntelligenceService(question);
-            } catch (Exception e) {
-                System.err.println("Warning: Intelligence service unavailable (" + e.getMessage() + "). Falling back to deterministic logic.");
+            if (!intelligenceCircuitBreaker.allowRequest()) {
+                logger.warn("Intelligence service circuit open. Using deterministic logic.");
+            } else if (hedgeEnabled && hedgeExecutor != null) {
+                return processHedged(question, live, cacheGeneration);
+            } else {
+                try {
+                    UtilAgentResponse response = callIntelligenceService(question);
+                    enrichAndLogResponse(response, question, null, live, cacheGeneration);
+                    return response;
+                } catch (Exception e) {
+                    logger.warn("Intelligence service unavailable ({}). Falling back to deterministic logic.", e.getMessage());
+                }
             }
         }
 
         // Fallback to internal logic
-        UtilAgentResponse response;
+        DeterministicAnswer answer = answerDeterministically(question);
+        enrichAndLogResponse(answer.response(), question, answer.querySpec(), live, cacheGeneration);
+        return answer.response();
+    }
+
+    /**
+     * Races the intelligence service against the deterministic path. GenAI wins if it answers
+     * within the hedge budget; otherwise the deterministic answer is returned when it could
+     * answer the question, and GenAI is awaited up to its own read timeout when it could not.
+     * A GenAI call that loses is cancelled so it stops holding a hedge thread and a pooled connection.
+     */
+    private UtilAgentResponse processHedged(String question, boolean live, long cacheGeneration) {
+        CompletableFuture<UtilAgentResponse> genAi;
+        CompletableFuture<DeterministicAnswer> deterministic;
+        // The batch evaluator's scope is thread-bound, so rebind it on the hedge thread
+        SharedQueryScope sharedQueries = SharedQueryScope.current();
+        try {
+            genAi = hedge(() -> callIntelligenceService(question));
+            deterministic = hedge(() -> sharedQueries != null
+                ? sharedQueries.run(() -> answerDeterministically(question))
+                : answerDeterministically(question));
+        } catch (RejectedExecutionException e) {
+            // Hedge pool saturated: degrade to the cheap path rather than queueing behind GenAI
+            DeterministicAnswer answer = answerDeterministically(question);
+            enrichAndLogResponse(answer.response(), question, answer.querySpec(), live, cacheGeneration);
+            return answer.response();
+        }
+
+        UtilAgentResponse response = awaitGenAi(genAi, hedgeBudgetMs);
+        if (response == null && !genAi.isDone()) {
+            DeterministicAnswer answer = deterministic.join();
+            if ("OK".equals(answer.response().getStatus())) {
+                genAi.cancel(true);
+                enrichAndLogResponse(answer.response(), question, answer.querySpec(), live, cacheGeneration);
+                return answer.response();
+            }
+            response = awaitGenAi(genAi, -1);
+        }
+        if (response != null) {
+            enrichAndLogResponse(response, question, null, live, cacheGeneration);
+            return response;
+        }
+
+        DeterministicAnswer answer = deterministic.join();
+        enrichAndLogResponse(answer.response(), question, answer.querySpec(), live, cacheGeneration);
+        return answer.response();
+    }
+
+    /**
+     * Runs a call on the hedge pool. Cancelling the returned future interrupts the worker, which
+     * drops a still-queued call and, on a virtual thread, closes the socket of a blocked HTTP read;
+     * a platform worker is freed when the client's read timeout fires.
+     *
+     * @throws RejectedExecutionException if the hedge pool is saturated
+     */
+    private <T> CompletableFuture<T> hedge(Supplier<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task = hedgeExecutor.submit(() -> {
+            try {
+                future.complete(call.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private UtilAgentResponse awaitGenAi(CompletableFuture<UtilAgentResponse> genAi, long timeoutMs) {
+        try {
+            return timeoutMs < 0 ? genAi.get() : genAi.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            logger.warn("Intelligence service unavailable ({}). Falling back to deterministic logic.", e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    @WithSpan("UtilAgentService.answerDeterministically")
+    private DeterministicAnswer answerDeterministically(String question) {
         QuerySpec querySpec = parseQuestion(question);
         if (querySpec == null) {
-            response = createInsufficientDataResponse("Unable to understand the query");
-        } else {
-            response = executeQuery(querySpec);
+            return new DeterministicAnswer(createInsufficientDataResponse("Unable to understand the query"), null);
         }
-        enrichAndLogResponse(response, question, querySpec);
-        return response;
+        return new DeterministicAnswer(executeQuery(querySpec), querySpec);
     }
 
+    private record DeterministicAnswer(UtilAgentResponse response, QuerySpec querySpec) {}
+
+    // The agent propagates this span into the RestTemplate call, so the Python service's spans join the trace
+    @WithSpan("UtilAgentService.callIntelligenceService")
     private UtilAgentResponse callIntelligenceService(String question) {
         String url = intelligenceUrl + "/query";
         
@@ -99,11 +310,24 @@ public class UtilAgentService {
         
         // Response format matching Python Pydantic model
         // { "answer": "...", "sources": [], "visualization": {} }
-        Map<String, Object> pythonResponse = restTemplate.postForObject(url, request, Map.class);
+        Map<String, Object> pythonResponse;
+        try {
+            pythonResponse = restTemplate.postForObject(url, request, Map.class);
+        } catch (RuntimeException e) {
+            // A cancelled hedge interrupts the call; that and 4xx input errors say nothing about the service
+            if (IntelligenceCircuitBreaker.isServiceFailure(e) && !Thread.currentThread().isInterrupted()) {
+                intelligenceCircuitBreaker.recordFailure();
+            } else {
+                intelligenceCircuitBreaker.recordIgnored();
+            }
+            throw e;
+        }
         
         if (pythonResponse == null) {
+            intelligenceCircuitBreaker.recordFailure();
             throw new RuntimeException("Empty response from intelligence service");
         }
+        intelligenceCircuitBreaker.recordSuccess();
 
         UtilAgentResponse response = new UtilAgentResponse();
         response.setSummary((String) pythonResponse.get("answer"));
@@ -118,21 +342,22 @@ public class UtilAgentService {
            // Basic string list mapping for now, can be expanded
         }
         
-        // Capture query for history
-        enrichAndLogResponse(response, question, null);
-        
         return response;
     }
 
     public void submitFeedback(Long queryId, String feedback) {
+        if (userQueryLogWriter.setFeedbackIfPending(queryId, feedback)) {
+            return;
+        }
         userQueryRepository.findById(queryId).ifPresent(userQuery -> {
             userQuery.setFeedback(feedback);
             userQueryRepository.save(userQuery);
         });
     }
 
-    private void enrichAndLogResponse(UtilAgentResponse response, String question, QuerySpec querySpec) {
-        response.setResponseTimestamp(java.time.Instant.now().toString());
+    private void enrichAndLogResponse(UtilAgentResponse response, String question, QuerySpec querySpec,
+                                      boolean live, long cacheGeneration) {
+        response.setResponseTimestamp(Instant.now().toString());
         if (response.getResponseOrigin() == null) {
             response.setResponseOrigin("deterministic");
         }
@@ -143,56 +368,87 @@ public class UtilAgentService {
             response.setDisclaimer("Generated from structured database facts.");
         }
 
-        try {
-            UserQuery userQuery = new UserQuery(question, false);
-            if (querySpec != null && querySpec.getMetrics() != null && !querySpec.getMetrics().isEmpty()) {
-                MetricSpec first = querySpec.getMetrics().get(0);
-                if (first != null) {
-                    userQuery.setMetricId(first.getMetricId());
-                    userQuery.setSourceId(first.getSourceId());
-                }
-            }
-            userQueryRepository.save(userQuery);
-            if (userQuery.getId() != null) {
-                response.setQueryId(userQuery.getId());
+        if (!live) {
+            return;
+        }
+        if ("OK".equals(response.getStatus())) {
+            answerCache.put(normalizeQuestion(question), response, citedMetricIds(querySpec), cacheGeneration);
+        }
+        logUserQuery(response, question, querySpec);
+    }
+
+    private void logUserQuery(UtilAgentResponse response, String question, QuerySpec querySpec) {
+        String metricId = null;
+        String sourceId = null;
+        if (querySpec != null && querySpec.getMetrics() != null && !querySpec.getMetrics().isEmpty()) {
+            MetricSpec first = querySpec.getMetrics().get(0);
+            if (first != null) {
+                metricId = first.getMetricId();
+                sourceId = first.getSourceId();
             }
+        }
+        try {
+            // Write-behind: the id is preallocated, the row lands with the next batch
+            response.setQueryId(userQueryLogWriter.log(question, metricId, sourceId, false));
         } catch (Exception e) {
             // Non-blocking logging failure
-            System.err.println("Failed to log user query: " + e.getMessage());
+            logger.warn("Failed to log user query: {}", e.getMessage());
         }
     }
-    
-    private QuerySpec parseQuestion(String question) {
-        String normalized = question.toLowerCase()
-            .replaceAll("[^a-z0-9\\s]", " ")
-            .replaceAll("\\s+", " ")
-            .trim();
-        List<String> metrics = METRIC_KEYWORDS.entrySet().stream()
-            .filter(entry -> entry.getValue().stream().anyMatch(normalized::contains))
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toList());
 
-        if (metrics.isEmpty()) {
-            if (normalized.contains("cent") && normalized.contains("kwh")) {
-                metrics.add(ELECTRICITY_PRICE);
-            } else {
-                return null; // No supported metric keywords found
-            }
+    // Intelligence-service answers carry no querySpec, so they depend on every metric
+    private static Set<String> citedMetricIds(QuerySpec querySpec) {
+        if (querySpec == null || querySpec.getMetrics() == null) {
+            return Set.of();
         }
-
-        List<MetricSpec> metricSpecs = metrics.stream()
-            .map(this::createMetricSpecForId)
+        return querySpec.getMetrics().stream()
             .filter(Objects::nonNull)
-            .collect(Collectors.toList());
+            .map(MetricSpec::getMetricId)
+            .collect(Collectors.toSet());
+    }
+
+    static String normalizeQuestion(String question) {
+        return KeywordMatcher.normalize(question);
+    }
+    
+    private QuerySpec parseQuestion(String question) {
+        List<MetricKeywordIndex.MetricMatch> matches = metricKeywordIndex.match(question);
+        List<MetricSpec> metricSpecs;
+        if (!matches.isEmpty() && matches.get(0).score() >= MIN_METRIC_SCORE) {
+            double threshold = Math.max(MIN_METRIC_SCORE, matches.get(0).score() * RELATIVE_METRIC_SCORE);
+            metricSpecs = matches.stream()
+                .filter(match -> match.score() >= threshold)
+                .limit(MAX_QUERY_METRICS)
+                .map(match -> createMetricSpec(match.metricId(), match.sourceId()))
+                .collect(Collectors.toList());
+        } else {
+            // No confident keyword hit: route to the semantically closest metric instead
+            metricSpecs = metricEmbeddingIndex.match(question).stream()
+                .limit(1)
+                .map(match -> createMetricSpec(match.metricId(), match.sourceId()))
+                .collect(Collectors.toList());
+        }
 
         if (metricSpecs.isEmpty()) {
             return null;
         }
 
+        // "least cent/kWh", "highest cost": rank by the best-matching metric
+        for (String word : normalizeQuestion(question).split(" ")) {
+            if (ASCENDING_WORDS.contains(word)) {
+                metricSpecs.get(0).setDirection("ASC");
+                break;
+            }
+            if (DESCENDING_WORDS.contains(word)) {
+                metricSpecs.get(0).setDirection("DESC");
+                break;
+            }
+        }
+
         QuerySpec spec = new QuerySpec();
         spec.setQueryType("INTERSECTION");
         spec.setGeoLevel("STATE");
-        spec.setLimit(20);
+        spec.setLimit(DEFAULT_QUERY_LIMIT);
         
         TimeSpec time = new TimeSpec();
         time.setMode("LATEST_COMMON");
@@ -202,9 +458,7 @@ public class UtilAgentService {
         return spec;
     }
 
-    private MetricSpec createMetricSpecForId(String metricId) {
-        String sourceId = METRIC_SOURCES.get(metricId);
-        if (sourceId == null) return null;
+    private MetricSpec createMetricSpec(String metricId, String sourceId) {
         MetricSpec spec = new MetricSpec();
         spec.setMetricId(metricId);
         spec.setSourceId(sourceId);
@@ -223,105 +477,76 @@ public class UtilAgentService {
             return createInsufficientDataResponse("No metrics requested");
         }
 
-        Map<String, MetricSpec> specByMetric = querySpec.getMetrics().stream()
-            .filter(Objects::nonNull)
-            .collect(Collectors.toMap(MetricSpec::getMetricId, Function.identity(), (first, second) -> first, LinkedHashMap::new));
-
-        Map<String, Map<String, FactValue>> metricValues = new LinkedHashMap<>();
-        Map<String, FactValue> sampleFactByMetric = new LinkedHashMap<>();
-        Map<String, LocalDate> latestPeriods = new LinkedHashMap<>();
-        Map<String, Source> citations = new LinkedHashMap<>();
-
-        for (Map.Entry<String, MetricSpec> entry : specByMetric.entrySet()) {
-            String metricId = entry.getKey();
-            MetricSpec spec = entry.getValue();
-            String sourceId = spec.getSourceId();
-
-            LocalDate latestStart = factValueRepository.findLatestPeriodForMetricAndSource(metricId, sourceId);
-            if (latestStart == null) {
-                continue;
-            }
-
-            List<FactValue> facts = factValueRepository.findByMetricSourceGeoLevelAndPeriod(
-                metricId, sourceId, querySpec.getGeoLevel(), latestStart);
-            if (facts.isEmpty()) {
-                continue;
-            }
+        QuerySpecCompiler.CompiledQuery compiled;
+        try {
+            compiled = QuerySpecCompiler.compile(querySpec, DEFAULT_QUERY_LIMIT);
+        } catch (IllegalArgumentException e) {
+            return createInsufficientDataResponse(e.getMessage());
+        }
+        List<MetricSpec> metrics = compiled.metrics();
 
-            Map<String, FactValue> factByGeo = facts.stream()
-                .collect(Collectors.toMap(FactValue::getGeoId, Function.identity()));
-            metricValues.put(metricId, factByGeo);
-            sampleFactByMetric.put(metricId, facts.get(0));
-            latestPeriods.put(metricId, latestStart);
+        // One round trip: latest period per metric, pivot, filters, ordering and limit
+        SharedQueryScope sharedQueries = SharedQueryScope.current();
+        List<IntersectionRow> resultRows = sharedQueries == null
+            ? queryIntersection(compiled)
+            : sharedQueries.query(compiled.sql(), compiled.params(), () -> queryIntersection(compiled));
 
-            sourceRepository.findById(sourceId).ifPresent(source -> {
-                citations.putIfAbsent(sourceId, source);
-            });
+        if (resultRows.isEmpty()) {
+            return createInsufficientDataResponse("No data available for requested metrics");
         }
 
-        if (metricValues.isEmpty()) {
-            return createInsufficientDataResponse("No data available for requested metrics");
+        // Window aggregates are identical on every row; read them from the first
+        IntersectionRow summaryRow = resultRows.get(0);
+        List<Integer> present = new ArrayList<>();
+        for (int i = 0; i < metrics.size(); i++) {
+            if (summaryRow.periodStarts[i] != null) {
+                present.add(i);
+            }
         }
 
         List<String> columns = new ArrayList<>();
         columns.add("State");
-        metricValues.keySet().forEach(metricId -> {
+        for (int i : present) {
+            String metricId = metrics.get(i).getMetricId();
             Metric metric = metricCache.get(metricId);
-            String label = metric != null
+            columns.add(metric != null
                 ? String.format("%s (%s)", metric.getName(), metric.getUnit())
-                : metricId;
-            columns.add(label);
-        });
-
-        Set<String> geoIds = metricValues.values().stream()
-            .flatMap(map -> map.keySet().stream())
-            .collect(Collectors.toCollection(TreeSet::new));
+                : metricId);
+        }
 
         List<List<Object>> rows = new ArrayList<>();
         List<HighlightRegion> highlights = new ArrayList<>();
-        int limit = querySpec.getLimit() != null ? querySpec.getLimit() : 20;
-
-        for (String geoId : geoIds) {
-            if (rows.size() >= limit) break;
-            Optional<Region> regionOpt = regionRepository.findByGeoLevelAndGeoId(querySpec.getGeoLevel(), geoId);
-            String label = regionOpt.map(Region::getName).orElse(geoId);
-
+        for (IntersectionRow resultRow : resultRows) {
             List<Object> row = new ArrayList<>();
-            row.add(label);
-            for (String metricId : metricValues.keySet()) {
-                FactValue fact = metricValues.get(metricId).get(geoId);
-                row.add(fact != null ? fact.getValueNumeric().doubleValue() : "N/A");
+            row.add(resultRow.regionName != null ? resultRow.regionName : resultRow.geoId);
+            for (int i : present) {
+                row.add(resultRow.values[i] != null ? resultRow.values[i] : "N/A");
             }
             rows.add(row);
-            highlights.add(new HighlightRegion(querySpec.getGeoLevel(), geoId));
+            highlights.add(new HighlightRegion(querySpec.getGeoLevel(), resultRow.geoId));
         }
 
         UtilAgentResponse response = new UtilAgentResponse();
         response.setStatus("OK");
 
-        List<String> metricNames = metricValues.keySet().stream()
+        List<String> metricNames = present.stream()
+            .map(i -> metrics.get(i).getMetricId())
             .map(id -> Optional.ofNullable(metricCache.get(id)).map(Metric::getName).orElse(id))
             .collect(Collectors.toList());
         response.setSummary(buildSummary(metricNames));
 
-        LocalDate overallStart = latestPeriods.values().stream()
-            .max(LocalDate::compareTo)
-            .orElse(null);
-        String overallEnd = null;
-        if (overallStart != null) {
-            for (String metricId : latestPeriods.keySet()) {
-                if (overallStart.equals(latestPeriods.get(metricId))) {
-                    FactValue sample = sampleFactByMetric.get(metricId);
-                    if (sample != null && sample.getPeriodEnd() != null) {
-                        overallEnd = sample.getPeriodEnd().toString();
-                        break;
-                    }
-                }
+        LocalDate overallStart = null;
+        LocalDate overallEnd = null;
+        for (int i : present) {
+            LocalDate start = summaryRow.periodStarts[i];
+            if (overallStart == null || start.isAfter(overallStart)) {
+                overallStart = start;
+                overallEnd = summaryRow.periodEnds[i];
             }
         }
         if (overallStart != null) {
             response.setPeriod(new PeriodInfo(overallStart.toString(),
-                overallEnd != null ? overallEnd : overallStart.toString()));
+                overallEnd != null ? overallEnd.toString() : overallStart.toString()));
         }
 
         response.setTable(new TableResult(columns, rows));
@@ -329,36 +554,56 @@ public class UtilAgentService {
 
         List<CitationInfo> citationList = new ArrayList<>();
         Set<String> seenSources = new HashSet<>();
-        for (String metricId : metricValues.keySet()) {
-            MetricSpec spec = specByMetric.get(metricId);
-            if (spec == null) continue;
-            String sourceId = spec.getSourceId();
-            if (seenSources.contains(sourceId)) continue;
-            Source source = citations.get(sourceId);
-            FactValue sample = sampleFactByMetric.get(metricId);
-            if (source != null && sample != null) {
-                citationList.add(new CitationInfo(sourceId, sample.getRetrievedAt().toString(), source.getTermsUrl()));
-                seenSources.add(sourceId);
-            }
+        for (int i : present) {
+            String sourceId = metrics.get(i).getSourceId();
+            if (!seenSources.add(sourceId) || summaryRow.retrievedAt[i] == null) continue;
+            sourceRepository.findById(sourceId).ifPresent(source ->
+                citationList.add(new CitationInfo(sourceId, summaryRow.retrievedAt[i].toString(), source.getTermsUrl())));
         }
         response.setCitations(citationList);
 
         List<String> notes = new ArrayList<>();
-        latestPeriods.forEach((metricId, startDate) -> {
-            FactValue sample = sampleFactByMetric.get(metricId);
+        for (int i : present) {
+            String metricId = metrics.get(i).getMetricId();
             Metric metric = metricCache.get(metricId);
             String metricLabel = metric != null ? metric.getName() : metricId;
-            String endDate = sample != null && sample.getPeriodEnd() != null
-                ? sample.getPeriodEnd().toString()
-                : startDate.toString();
+            LocalDate startDate = summaryRow.periodStarts[i];
+            LocalDate endDate = summaryRow.periodEnds[i] != null ? summaryRow.periodEnds[i] : startDate;
             notes.add(String.format("Latest %s data covers %s to %s.", metricLabel, startDate, endDate));
-        });
+        }
         notes.add("Values are provided for the available regions; missing data is shown as N/A.");
         response.setNotes(notes);
 
         return response;
     }
 
+    private List<IntersectionRow> queryIntersection(QuerySpecCompiler.CompiledQuery compiled) {
+        List<MetricSpec> metrics = compiled.metrics();
+        return jdbcTemplate.query(compiled.sql(), (rs, rowNum) -> {
+            int n = metrics.size();
+            Double[] values = new Double[n];
+            LocalDate[] starts = new LocalDate[n];
+            LocalDate[] ends = new LocalDate[n];
+            Instant[] retrieved = new Instant[n];
+            for (int i = 0; i < n; i++) {
+                BigDecimal value = rs.getBigDecimal("v" + i);
+                values[i] = value != null ? value.doubleValue() : null;
+                Date start = rs.getDate("s" + i);
+                starts[i] = start != null ? start.toLocalDate() : null;
+                Date end = rs.getDate("e" + i);
+                ends[i] = end != null ? end.toLocalDate() : null;
+                Timestamp retrievedAt = rs.getTimestamp("r" + i);
+                retrieved[i] = retrievedAt != null ? retrievedAt.toInstant() : null;
+            }
+            return new IntersectionRow(rs.getString("geo_id"), rs.getString("region_name"),
+                values, starts, ends, retrieved);
+        }, compiled.params().toArray());
+    }
+
+    private record IntersectionRow(String geoId, String regionName, Double[] values,
+                                   LocalDate[] periodStarts, LocalDate[] periodEnds,
+                                   Instant[] retrievedAt) {}
+
     private String buildSummary(List<String> metricNames) {
         if (metricNames.isEmpty()) {
             return "Latest data for requested metrics";
@@ -371,16 +616,6 @@ public class UtilAgentService {
             joined, metricNames.get(metricNames.size() - 1));
     }
 
-    private static Map<String, List<String>> createMetricKeywordMap() {
-        Map<String, List<String>> map = new LinkedHashMap<>();
-        map.put(ELECTRICITY_PRICE, Arrays.asList(
-            "electricity price", "retail price", "cents per kwh", "cent kwh", "cent per kwh",
-            "electricity retail", "electricity"));
-        map.put(ACS_ELECTRICITY_COST, Arrays.asList(
-            "monthly electricity cost", "electricity cost", "acs", "census", "monthly cost", "electricity"));
-        return map;
-    }
-
     private UtilAgentResponse createInsufficientDataResponse(String message) {
         UtilAgentResponse response = new UtilAgentResponse();
         response.setStatus("INSUFFICIENT_DATA");
@@ -390,6 +625,9 @@ public class UtilAgentService {
     }
 
     public void captureFeedback(Long queryId, String feedback) {
+        if (userQueryLogWriter.setFeedbackIfPending(queryId, feedback)) {
+            return;
+        }
         userQueryRepository.findById(queryId).ifPresent(userQuery -> {
             userQuery.setFeedback(feedback);
             userQueryRepository.save(userQuery);
@@ -0,0 +1,56 @@
+package com.utilityexplorer.workload;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * The kind of work a thread is doing, used to pick its connection pool.
+ *
+ * Unmarked threads (servlet requests, startup, the shared scheduler) count as {@link #INTERACTIVE}.
+ * Pool threads for agent queries and ingestion are pinned to their workload through
+ * {@link #threadFactory}; other code marks a block with {@link #run} or {@link #call}.
+ */
+public enum Workload {
+    INTERACTIVE,
+    AGENT,
+    INGESTION;
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload == null ? INTERACTIVE : workload;
+    }
+
+    /** Lower-case name used for pool names and metric tags. */
+    public String id() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public <T> T call(Supplier<T> task) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /** Wraps a thread factory so every thread it creates runs as this workload. */
+    public ThreadFactory threadFactory(ThreadFactory delegate) {
+        return runnable -> delegate.newThread(() -> run(runnable));
+    }
+}
@@ -0,0 +1,93 @@
+package com.utilityexplorer.workload;
+
+import com.utilityexplorer.replica.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One Hikari pool per {@link Workload}, sized and timed out independently, behind a single routing
+ * DataSource that JPA, JdbcTemplate and Flyway all use. Each pool reports {@code hikaricp.*}
+ * metrics tagged {@code pool=interactive|agent|ingestion}.
+ *
+ * {@code DB_REPLICA_URLS} adds a pool per read replica ({@code pool=replica-0}, ...), using the
+ * primary's credentials. The routing DataSource sits behind a lazy proxy so the target is chosen at
+ * the first statement, after the transaction has been marked read-only.
+ */
+@Configuration
+public class WorkloadDataSourceConfig {
+
+    @Bean
+    public ReplicaSet replicaSet(
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${DB_REPLICA_URLS:}") String replicaUrls,
+            @Value("${DB_REPLICA_POOL_SIZE:10}") int replicaSize,
+            @Value("${DB_REPLICA_MAX_STALENESS_MS:5000}") long maxStalenessMs,
+            @Value("${DB_REPLICA_READ_YOUR_WRITES:true}") boolean readYourWrites) {
+        List<String> urls = Arrays.stream(replicaUrls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = pool(properties, meterRegistry, "replica-" + i, replicaSize, 5000);
+            pool.setJdbcUrl(urls.get(i));
+            pool.setReadOnly(true);
+            replicas.put(pool.getPoolName(), pool);
+        }
+        return new ReplicaSet(replicas, Duration.ofMillis(maxStalenessMs), readYourWrites, meterRegistry, Clock.systemUTC());
+    }
+
+    @Bean
+    public WorkloadRoutingDataSource workloadRoutingDataSource(
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            ReplicaSet replicaSet,
+            @Value("${DB_POOL_INTERACTIVE_SIZE:10}") int interactiveSize,
+            @Value("${DB_POOL_INTERACTIVE_TIMEOUT_MS:5000}") long interactiveTimeoutMs,
+            @Value("${DB_POOL_AGENT_SIZE:4}") int agentSize,
+            @Value("${DB_POOL_AGENT_TIMEOUT_MS:5000}") long agentTimeoutMs,
+            @Value("${DB_POOL_INGESTION_SIZE:3}") int ingestionSize,
+            @Value("${DB_POOL_INGESTION_TIMEOUT_MS:30000}") long ingestionTimeoutMs) {
+        Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+        pools.put(Workload.INTERACTIVE, pool(properties, meterRegistry, Workload.INTERACTIVE.id(), interactiveSize, interactiveTimeoutMs));
+        pools.put(Workload.AGENT, pool(properties, meterRegistry, Workload.AGENT.id(), agentSize, agentTimeoutMs));
+        pools.put(Workload.INGESTION, pool(properties, meterRegistry, Workload.INGESTION.id(), ingestionSize, ingestionTimeoutMs));
+        return new WorkloadRoutingDataSource(pools, replicaSet);
+    }
+
+    // Defaults are fixed up front so the proxy never borrows a connection just to read them
+    @Bean
+    @Primary
+    public DataSource dataSource(WorkloadRoutingDataSource workloadRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(workloadRoutingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, MeterRegistry meterRegistry,
+                                         String name, int size, long connectionTimeoutMs) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(Math.max(1, size));
+        pool.setMinimumIdle(Math.min(2, pool.getMaximumPoolSize()));
+        pool.setConnectionTimeout(connectionTimeoutMs);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,61 @@
+package com.utilityexplorer.workload;
+
+import com.utilityexplorer.replica.ReplicaReadAspect;
+import com.utilityexplorer.replica.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the calling thread's {@link Workload}, so a long
+ * ingestion backfill or a burst of agent queries cannot exhaust the connections /map and
+ * /timeseries read from. The choice is made when a connection is borrowed: a transaction keeps
+ * the pool it started with. Open-in-view is off, so a request's transactions each choose again.
+ *
+ * A read-only transaction inside a {@link com.utilityexplorer.replica.ReplicaRead} service goes
+ * to a replica instead when {@link ReplicaSet} has one fresh enough.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final Map<Workload, HikariDataSource> pools;
+    private final ReplicaSet replicas;
+
+    public WorkloadRoutingDataSource(Map<Workload, HikariDataSource> pools) {
+        this(pools, ReplicaSet.none());
+    }
+
+    public WorkloadRoutingDataSource(Map<Workload, HikariDataSource> pools, ReplicaSet replicas) {
+        this.pools = new EnumMap<>(pools);
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>(this.pools);
+        targets.putAll(replicas.dataSources());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(this.pools.get(Workload.INTERACTIVE));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReplicaReadAspect.isActive() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            String replica = replicas.select();
+            if (replica != null) {
+                return replica;
+            }
+        }
+        return Workload.current();
+    }
+
+    public HikariDataSource pool(Workload workload) {
+        return pools.get(workload);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
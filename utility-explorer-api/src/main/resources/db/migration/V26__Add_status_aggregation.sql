@@ -0,0 +1,65 @@
+-- V26__Add_status_aggregation.sql
+-- Backs /status/sources and /status/metrics with set-based reads instead of per-source lookups.
+
+-- 1) Latest run + latest successful run per source, resolved in a single window-function pass.
+CREATE VIEW source_run_latest AS
+SELECT run_id,
+       source_id,
+       started_at,
+       ended_at,
+       status,
+       rows_upserted,
+       error_summary,
+       last_success_at
+FROM (
+  SELECT sr.*,
+         ROW_NUMBER() OVER (PARTITION BY sr.source_id ORDER BY sr.started_at DESC) AS run_rank,
+         MAX(sr.started_at) FILTER (WHERE sr.status = 'SUCCESS')
+           OVER (PARTITION BY sr.source_id) AS last_success_at
+  FROM source_run sr
+) ranked
+WHERE run_rank = 1;
+
+-- 2) Metric -> source mapping, maintained on write so readers never DISTINCT over fact_value.
+CREATE TABLE metric_source (
+  metric_id           TEXT NOT NULL,
+  source_id           TEXT NOT NULL,
+  PRIMARY KEY (metric_id, source_id)
+);
+
+INSERT INTO metric_source (metric_id, source_id)
+SELECT DISTINCT metric_id, source_id FROM fact_value
+ON CONFLICT DO NOTHING;
+
+CREATE FUNCTION metric_source_on_insert() RETURNS trigger AS $$
+BEGIN
+  INSERT INTO metric_source (metric_id, source_id)
+  SELECT DISTINCT metric_id, source_id FROM new_rows
+  ON CONFLICT DO NOTHING;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION metric_source_on_delete() RETURNS trigger AS $$
+BEGIN
+  DELETE FROM metric_source ms
+  USING (SELECT DISTINCT metric_id, source_id FROM old_rows) removed
+  WHERE ms.metric_id = removed.metric_id
+    AND ms.source_id = removed.source_id
+    AND NOT EXISTS (
+      SELECT 1 FROM fact_value f
+      WHERE f.metric_id = ms.metric_id AND f.source_id = ms.source_id
+    );
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_metric_source_insert
+  AFTER INSERT ON fact_value
+  REFERENCING NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION metric_source_on_insert();
+
+CREATE TRIGGER trg_metric_source_delete
+  AFTER DELETE ON fact_value
+  REFERENCING OLD TABLE AS old_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION metric_source_on_delete();
@@ -0,0 +1,54 @@
+-- V27__Track_metric_changes.sql
+-- Records when facts for a metric/source last changed so API-side caches can invalidate
+-- precisely without scanning fact_value.
+
+ALTER TABLE metric_source
+  ADD COLUMN last_changed_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+CREATE OR REPLACE FUNCTION metric_source_on_insert() RETURNS trigger AS $$
+BEGIN
+  INSERT INTO metric_source (metric_id, source_id, last_changed_at)
+  SELECT DISTINCT metric_id, source_id, now() FROM new_rows
+  ON CONFLICT (metric_id, source_id) DO UPDATE
+    SET last_changed_at = EXCLUDED.last_changed_at
+    WHERE metric_source.last_changed_at < EXCLUDED.last_changed_at;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION metric_source_on_delete() RETURNS trigger AS $$
+BEGIN
+  DELETE FROM metric_source ms
+  USING (SELECT DISTINCT metric_id, source_id FROM old_rows) removed
+  WHERE ms.metric_id = removed.metric_id
+    AND ms.source_id = removed.source_id
+    AND NOT EXISTS (
+      SELECT 1 FROM fact_value f
+      WHERE f.metric_id = ms.metric_id AND f.source_id = ms.source_id
+    );
+  UPDATE metric_source ms
+  SET last_changed_at = now()
+  FROM (SELECT DISTINCT metric_id, source_id FROM old_rows) removed
+  WHERE ms.metric_id = removed.metric_id
+    AND ms.source_id = removed.source_id
+    AND ms.last_changed_at < now();
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION metric_source_on_update() RETURNS trigger AS $$
+BEGIN
+  UPDATE metric_source ms
+  SET last_changed_at = now()
+  FROM (SELECT DISTINCT metric_id, source_id FROM new_rows) changed
+  WHERE ms.metric_id = changed.metric_id
+    AND ms.source_id = changed.source_id
+    AND ms.last_changed_at < now();
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_metric_source_update
+  AFTER UPDATE ON fact_value
+  REFERENCING NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION metric_source_on_update();
@@ -0,0 +1,5 @@
+-- V28__Preallocate_user_query_ids.sql
+-- UserQueryLogWriter reserves ids in blocks so queryId can be returned before the row is written.
+-- Each nextval() hands out the start of a 50-id block; the default insert path still works unchanged.
+
+ALTER SEQUENCE user_query_id_seq INCREMENT BY 50;
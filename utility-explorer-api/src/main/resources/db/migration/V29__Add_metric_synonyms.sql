@@ -0,0 +1,19 @@
+-- V29__Add_metric_synonyms.sql
+-- Keyword phrases for the Util Agent's deterministic parser, previously hard-coded in UtilAgentService.
+
+ALTER TABLE metric ADD COLUMN synonyms TEXT;
+
+UPDATE metric SET synonyms = 'electricity price,retail price,cents per kwh,cent per kwh,cent kwh,electricity retail,electricity,kwh'
+WHERE metric_id = 'ELECTRICITY_RETAIL_PRICE_CENTS_PER_KWH';
+
+UPDATE metric SET synonyms = 'monthly electricity cost,electricity cost,electricity bill,acs,census,monthly cost,electricity'
+WHERE metric_id = 'ELECTRICITY_MONTHLY_COST_USD_ACS';
+
+UPDATE metric SET synonyms = 'weather stress,extreme weather,storm risk'
+WHERE metric_id = 'WEATHER_STRESS_INDEX';
+
+UPDATE metric SET synonyms = 'temperature,temp,hottest,coldest,warmest'
+WHERE metric_id = 'TEMP_CURRENT_F';
+
+UPDATE metric SET synonyms = 'temperature anomaly,anomaly,warmer than usual,colder than usual'
+WHERE metric_id = 'TEMP_ANOMALY_F';
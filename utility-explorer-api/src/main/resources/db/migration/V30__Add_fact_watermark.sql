@@ -0,0 +1,91 @@
+-- V30__Add_fact_watermark.sql
+-- Latest period, row count and last write per (metric, source, geo level), maintained on write so
+-- "latest" lookups are primary-key reads instead of MAX(period_start) scans over fact_value.
+--
+-- Write cost: with V27's metric_source triggers, every fact_value INSERT/UPDATE statement runs two
+-- extra upserts and holds the touched watermark rows until commit, so concurrent writers to one
+-- metric serialize there. The triggers are per statement, so writers go through FactValueWriter,
+-- which upserts a whole batch in one statement; row-by-row saves would pay this per fact.
+
+CREATE TABLE fact_watermark (
+  metric_id            TEXT NOT NULL,
+  source_id            TEXT NOT NULL,
+  geo_level            TEXT NOT NULL,
+  latest_period_start  DATE NOT NULL,
+  latest_period_end    DATE NOT NULL,
+  row_count            BIGINT NOT NULL,
+  last_written_at      TIMESTAMPTZ NOT NULL,
+  PRIMARY KEY (metric_id, source_id, geo_level)
+);
+
+INSERT INTO fact_watermark (metric_id, source_id, geo_level, latest_period_start, latest_period_end, row_count, last_written_at)
+SELECT f.metric_id, f.source_id, f.geo_level,
+       MAX(f.period_start),
+       (ARRAY_AGG(f.period_end ORDER BY f.period_start DESC, f.period_end DESC))[1],
+       COUNT(*),
+       MAX(f.retrieved_at)
+FROM fact_value f
+GROUP BY f.metric_id, f.source_id, f.geo_level;
+
+-- Inserts and updates only move the watermark forward
+CREATE FUNCTION fact_watermark_on_write() RETURNS trigger AS $$
+BEGIN
+  INSERT INTO fact_watermark AS w (metric_id, source_id, geo_level, latest_period_start, latest_period_end, row_count, last_written_at)
+  SELECT n.metric_id, n.source_id, n.geo_level,
+         MAX(n.period_start),
+         (ARRAY_AGG(n.period_end ORDER BY n.period_start DESC, n.period_end DESC))[1],
+         CASE WHEN TG_OP = 'INSERT' THEN COUNT(*) ELSE 0 END,
+         now()
+  FROM new_rows n
+  GROUP BY n.metric_id, n.source_id, n.geo_level
+  ON CONFLICT (metric_id, source_id, geo_level) DO UPDATE SET
+    latest_period_end = CASE
+      WHEN EXCLUDED.latest_period_start > w.latest_period_start THEN EXCLUDED.latest_period_end
+      WHEN EXCLUDED.latest_period_start = w.latest_period_start THEN GREATEST(w.latest_period_end, EXCLUDED.latest_period_end)
+      ELSE w.latest_period_end END,
+    latest_period_start = GREATEST(w.latest_period_start, EXCLUDED.latest_period_start),
+    row_count = w.row_count + EXCLUDED.row_count,
+    last_written_at = EXCLUDED.last_written_at;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Deletes may remove the latest period, so affected keys are recomputed
+CREATE FUNCTION fact_watermark_on_delete() RETURNS trigger AS $$
+BEGIN
+  DELETE FROM fact_watermark w
+  USING (SELECT DISTINCT metric_id, source_id, geo_level FROM old_rows) removed
+  WHERE w.metric_id = removed.metric_id
+    AND w.source_id = removed.source_id
+    AND w.geo_level = removed.geo_level;
+
+  INSERT INTO fact_watermark (metric_id, source_id, geo_level, latest_period_start, latest_period_end, row_count, last_written_at)
+  SELECT f.metric_id, f.source_id, f.geo_level,
+         MAX(f.period_start),
+         (ARRAY_AGG(f.period_end ORDER BY f.period_start DESC, f.period_end DESC))[1],
+         COUNT(*),
+         now()
+  FROM fact_value f
+  JOIN (SELECT DISTINCT metric_id, source_id, geo_level FROM old_rows) removed
+    ON f.metric_id = removed.metric_id
+   AND f.source_id = removed.source_id
+   AND f.geo_level = removed.geo_level
+  GROUP BY f.metric_id, f.source_id, f.geo_level;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_fact_watermark_insert
+  AFTER INSERT ON fact_value
+  REFERENCING NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION fact_watermark_on_write();
+
+CREATE TRIGGER trg_fact_watermark_update
+  AFTER UPDATE ON fact_value
+  REFERENCING NEW TABLE AS new_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION fact_watermark_on_write();
+
+CREATE TRIGGER trg_fact_watermark_delete
+  AFTER DELETE ON fact_value
+  REFERENCING OLD TABLE AS old_rows
+  FOR EACH STATEMENT EXECUTE FUNCTION fact_watermark_on_delete();
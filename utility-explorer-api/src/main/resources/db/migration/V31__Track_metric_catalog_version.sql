@@ -0,0 +1,24 @@
+-- V31__Track_metric_catalog_version.sql
+-- Change markers for the Util Agent keyword index, so its periodic check reads one row of
+-- counts and timestamps instead of loading the metric and metric_source tables.
+--
+-- A metric edit moves updated_at; an added metric or metric/source pair moves the max timestamp;
+-- a removed one lowers the count.
+
+ALTER TABLE metric
+  ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+CREATE FUNCTION metric_touch_updated_at() RETURNS trigger AS $$
+BEGIN
+  NEW.updated_at = now();
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_metric_updated_at
+  BEFORE UPDATE ON metric
+  FOR EACH ROW EXECUTE FUNCTION metric_touch_updated_at();
+
+-- last_changed_at moves on every fact write; created_at only when the pair first appears
+ALTER TABLE metric_source
+  ADD COLUMN created_at TIMESTAMPTZ NOT NULL DEFAULT now();
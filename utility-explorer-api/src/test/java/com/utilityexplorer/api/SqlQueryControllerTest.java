@@ -0,0 +1,37 @@
+package com.utilityexplorer.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlQueryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void query_withoutApiKey_returns401() throws Exception {
+        mockMvc.perform(post("/api/v1/sql/query")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sql\": \"SELECT * FROM metric\"}"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void query_writingStatement_returns400() throws Exception {
+        mockMvc.perform(post("/api/v1/sql/query")
+                .header("X-API-Key", "dev_key_change_me")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"sql\": \"DELETE FROM fact_value\"}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("SQL_REJECTED"));
+    }
+}
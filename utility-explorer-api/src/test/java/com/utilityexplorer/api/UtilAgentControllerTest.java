@@ -10,11 +10,15 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.web.client.RestTemplate;
 
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.containsString;
@@ -39,6 +43,13 @@ class UtilAgentControllerTest {
         mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
     }
     
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+    
     @Test
     void queryUtilAgent_viaIntelligenceService_returnsResponse() throws Exception {
         // Mock successful Python response
@@ -47,7 +58,7 @@ class UtilAgentControllerTest {
         mockServer.expect(requestTo(containsString("/query")))
             .andRespond(withSuccess(jsonResponse, MediaType.APPLICATION_JSON));
 
-        mockMvc.perform(post("/api/v1/util-agent/query")
+        performAsync(post("/api/v1/util-agent/query")
                 .header("X-API-Key", "dev_key_change_me")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"question\": \"why is sky blue?\"}"))
@@ -61,19 +72,27 @@ class UtilAgentControllerTest {
     
     @Test
     void queryUtilAgent_withoutApiKey_returns401() throws Exception {
-        mockMvc.perform(post("/api/v1/util-agent/query")
+        performAsync(post("/api/v1/util-agent/query")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"question\": \"test question\"}"))
             .andExpect(status().isUnauthorized());
     }
     
+    @Test
+    void batchUtilAgent_withoutApiKey_returns401() throws Exception {
+        performAsync(post("/api/v1/util-agent/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"questions\": [\"test question\"]}"))
+            .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void queryUtilAgent_withValidKey_returnsResponse() throws Exception {
         // Force fallback by simulating error from Python service
         mockServer.expect(requestTo(containsString("/query")))
             .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
 
-        mockMvc.perform(post("/api/v1/util-agent/query")
+        performAsync(post("/api/v1/util-agent/query")
                 .header("X-API-Key", "dev_key_change_me")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"question\": \"high electricity and low broadband\"}"))
@@ -90,7 +109,7 @@ class UtilAgentControllerTest {
         mockServer.expect(requestTo(containsString("/query")))
             .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
 
-        mockMvc.perform(post("/api/v1/util-agent/query")
+        performAsync(post("/api/v1/util-agent/query")
                 .header("X-API-Key", "dev_key_change_me")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"question\": \"unsupported query type\"}"))
@@ -106,7 +125,7 @@ class UtilAgentControllerTest {
         mockServer.expect(requestTo(containsString("/query")))
             .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
 
-        mockMvc.perform(post("/api/v1/util-agent/query")
+        performAsync(post("/api/v1/util-agent/query")
                 .header("X-API-Key", "dev_key_change_me")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"question\": \"state with least cent/kWh\"}"))
@@ -0,0 +1,102 @@
+package com.utilityexplorer.geo;
+
+import com.utilityexplorer.persistence.RegionRepository;
+import com.utilityexplorer.shared.persistence.Region;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegionHierarchyCacheTest {
+
+    @Mock
+    private RegionRepository regionRepository;
+
+    @InjectMocks
+    private RegionHierarchyCache cache;
+
+    private final Region kansas = new Region(UUID.randomUUID(), "STATE", "20", "Kansas", null, null, null);
+    private final Region wyandotte = new Region(UUID.randomUUID(), "COUNTY", "20209", "Wyandotte County", kansas.getRegionPk(), null, null);
+    private final Region allen = new Region(UUID.randomUUID(), "COUNTY", "20001", "Allen County", kansas.getRegionPk(), null, null);
+
+    @Test
+    void getChildren_returnsNamedOrderPagesWithoutFurtherQueries() {
+        when(regionRepository.findAll()).thenReturn(List.of(wyandotte, kansas, allen));
+
+        assertEquals(2, cache.countChildren(kansas.getRegionPk()));
+        assertEquals(List.of(allen), cache.getChildren(kansas.getRegionPk(), 0, 1));
+        assertEquals(List.of(wyandotte), cache.getChildren(kansas.getRegionPk(), 1, 1));
+        assertEquals(kansas, cache.getParent(allen).orElseThrow());
+
+        verify(regionRepository, times(1)).findAll();
+        verifyNoMoreInteractions(regionRepository);
+    }
+
+    @Test
+    void register_addsRegionToAdjacencyAncestorsAndSearch() {
+        when(regionRepository.findAll()).thenReturn(List.of(kansas));
+        cache.find("STATE", "20");
+
+        Region place = new Region(UUID.randomUUID(), "PLACE", "2036000", "Kansas City", kansas.getRegionPk(), null, null);
+        cache.register(place);
+
+        assertEquals(List.of(kansas), cache.getAncestors(place));
+        assertEquals(List.of(place), cache.getChildren(kansas.getRegionPk(), 0, 10));
+        assertEquals(2, cache.getSearchIndex().search("kansas", null, 0, 10).total());
+    }
+
+    @Test
+    void find_normalizesGeoLevel() {
+        when(regionRepository.findAll()).thenReturn(List.of(kansas));
+
+        assertEquals(kansas, cache.find(" state ", "20").orElseThrow());
+        assertEquals("STATE", RegionHierarchyCache.normalizeGeoLevel(" state "));
+    }
+
+    @Test
+    void getChildren_pagesPastTheEndAndKeepsOrderAfterRegister() {
+        when(regionRepository.findAll()).thenReturn(List.of(wyandotte, kansas, allen));
+        cache.find("STATE", "20");
+        Region butler = new Region(UUID.randomUUID(), "COUNTY", "20015", "Butler County", kansas.getRegionPk(), null, null);
+
+        cache.register(butler);
+
+        assertEquals(List.of(allen, butler, wyandotte), cache.getChildren(kansas.getRegionPk(), 0, 10));
+        assertEquals(List.of(butler, wyandotte), cache.getChildren(kansas.getRegionPk(), 1, 5));
+        assertEquals(List.of(), cache.getChildren(kansas.getRegionPk(), 3, 5));
+    }
+
+    @Test
+    void register_waitsForCommitAndDropsRolledBackRegions() {
+        when(regionRepository.findAll()).thenReturn(List.of(kansas));
+        cache.find("STATE", "20");
+        Region committed = new Region(UUID.randomUUID(), "COUNTY", "20209", "Wyandotte County", kansas.getRegionPk(), null, null);
+        Region rolledBack = new Region(UUID.randomUUID(), "COUNTY", "20001", "Allen County", kansas.getRegionPk(), null, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.register(committed);
+            cache.register(rolledBack);
+            assertTrue(cache.find("COUNTY", "20209").isEmpty());
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.get(0).afterCommit();
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(committed, cache.find("COUNTY", "20209").orElseThrow());
+        assertTrue(cache.find("COUNTY", "20001").isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package com.utilityexplorer.geo;
+
+import com.utilityexplorer.shared.persistence.Region;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionSearchIndexTest {
+
+    private final RegionSearchIndex index = RegionSearchIndex.build(List.of(
+        region("PLACE", "2036000", "Kansas City"),
+        region("COUNTY", "17089", "Kane County"),
+        region("STATE", "20", "Kansas"),
+        region("STATE", "05", "Arkansas"),
+        region("PLACE", "3651000", "New York City"),
+        region("STATE", "36", "New York")
+    ));
+
+    @Test
+    void search_ranksPrefixBeforeSubstringAndStateBeforePlace() {
+        List<String> names = names(index.search("kans", null, 0, 10));
+
+        assertEquals(List.of("Kansas", "Kansas City", "Arkansas"), names);
+    }
+
+    @Test
+    void search_matchesWordPrefixAfterFullNamePrefix() {
+        List<String> names = names(index.search("york", null, 0, 10));
+
+        assertEquals(List.of("New York", "New York City"), names);
+    }
+
+    @Test
+    void search_matchesExactCodeFirst() {
+        RegionSearchIndex.SearchResult result = index.search("36", null, 0, 10);
+
+        assertEquals("New York", result.regions().get(0).getName());
+    }
+
+    @Test
+    void search_appliesGeoLevelFilterAndPagination() {
+        RegionSearchIndex.SearchResult filtered = index.search("kan", List.of("county"), 0, 10);
+        assertEquals(List.of("Kane County"), names(filtered));
+
+        RegionSearchIndex.SearchResult page = index.search("kan", null, 1, 1);
+        assertEquals(4, page.total());
+        assertEquals(List.of("Kane County"), names(page));
+    }
+
+    @Test
+    void search_treatsBlankGeoLevelAsNoFilter() {
+        assertEquals(4, index.search("kan", List.of(""), 0, 10).total());
+        assertEquals(4, index.search("kan", List.of(" ", ""), 0, 10).total());
+    }
+
+    @Test
+    void search_skipsRegionsWithoutGeoLevelWhenFiltering() {
+        RegionSearchIndex withUnleveled = RegionSearchIndex.build(List.of(
+            region("STATE", "20", "Kansas"),
+            region(null, "X1", "Kansas Territory")
+        ));
+
+        assertEquals(List.of("Kansas"), names(withUnleveled.search("kansas", List.of("state"), 0, 10)));
+        assertEquals(2, withUnleveled.search("kansas", null, 0, 10).total());
+    }
+
+    @Test
+    void search_blankQueryReturnsNothing() {
+        assertEquals(0, index.search("  ", null, 0, 10).total());
+    }
+
+    private static List<String> names(RegionSearchIndex.SearchResult result) {
+        return result.regions().stream().map(Region::getName).toList();
+    }
+
+    private static Region region(String geoLevel, String geoId, String name) {
+        return new Region(UUID.randomUUID(), geoLevel, geoId, name, null, null, null);
+    }
+}
@@ -0,0 +1,80 @@
+package com.utilityexplorer.replica;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReplicaSetTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    @Test
+    void readsUseAReplicaWithinTheStalenessBound() {
+        ReplicaSet replicas = replicas(false, "replica-0");
+        replicas.update("replica-0", 2000.0, NOW);
+        assertEquals("replica-0", replicas.select());
+
+        replicas.update("replica-0", 6000.0, NOW);
+        assertNull(replicas.select());
+        assertEquals(1.0, meterRegistry.counter("db.replica.reads", "target", "primary").count());
+        assertEquals(6.0, meterRegistry.get("db.replica.staleness").tag("replica", "replica-0").gauge().value());
+    }
+
+    @Test
+    void replicasThatAreNotStreamingAreSkipped() {
+        ReplicaSet replicas = replicas(false, "replica-0", "replica-1");
+        replicas.update("replica-0", null, NOW);
+        replicas.update("replica-1", 0.0, NOW);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-1", replicas.select());
+        }
+    }
+
+    @Test
+    void freshReplicasShareReads() {
+        ReplicaSet replicas = replicas(false, "replica-0", "replica-1");
+        replicas.update("replica-0", 0.0, NOW);
+        replicas.update("replica-1", 0.0, NOW);
+
+        assertNotEquals(replicas.select(), replicas.select());
+    }
+
+    @Test
+    void readYourWritesWaitsForTheReplicaToReplayTheWrite() {
+        ReplicaSet replicas = replicas(true, "replica-0");
+        replicas.update("replica-0", 0.0, NOW.minusSeconds(1));
+        replicas.recordWrite();
+        assertNull(replicas.select());
+
+        replicas.update("replica-0", 0.0, NOW);
+        assertEquals("replica-0", replicas.select());
+    }
+
+    @Test
+    void withoutReplicasEveryReadGoesToThePrimary() {
+        assertTrue(ReplicaSet.none().isEmpty());
+        assertNull(ReplicaSet.none().select());
+    }
+
+    private ReplicaSet replicas(boolean readYourWrites, String... keys) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (String key : keys) {
+            dataSources.put(key, mock(DataSource.class));
+        }
+        return new ReplicaSet(dataSources, Duration.ofSeconds(5), readYourWrites, meterRegistry, clock);
+    }
+}
@@ -0,0 +1,179 @@
+package com.utilityexplorer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FactExportServiceTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final FactExportService service = new FactExportService();
+    private final List<FactExportService.Cursor> table = new ArrayList<>();
+    private final AtomicInteger queries = new AtomicInteger();
+    private int failOnQuery = -1;
+
+    FactExportServiceTest() throws Exception {
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "pageSize", PAGE_SIZE);
+        doAnswer(invocation -> {
+            if (queries.incrementAndGet() == failOnQuery) {
+                throw new DataAccessResourceFailureException("connection reset");
+            }
+            Object[] args = invocation.getArguments();
+            RowCallbackHandler handler = invocation.getArgument(1);
+            FactExportService.Cursor after = args.length > 5
+                ? new FactExportService.Cursor((String) args[4], (String) args[5],
+                    ((Date) args[6]).toLocalDate(), ((Date) args[7]).toLocalDate())
+                : null;
+            int limit = (Integer) args[args.length - 1];
+            List<FactExportService.Cursor> page = table.stream()
+                .filter(key -> after == null || KEY_ORDER.compare(key, after) > 0)
+                .limit(limit)
+                .toList();
+            for (FactExportService.Cursor key : page) {
+                handler.processRow(resultSet(key));
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void cursorRoundTripsThroughOpaqueToken() {
+        FactExportService.Cursor cursor = new FactExportService.Cursor(
+            "COUNTY", "06|037", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("COUNTY"));
+        assertEquals(cursor, FactExportService.decodeCursor(token));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> FactExportService.decodeCursor("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> FactExportService.decodeCursor("!!!"));
+    }
+
+    @Test
+    void ndjsonStreamsEveryRowOnceAcrossPages() throws Exception {
+        seed(7);
+
+        List<JsonNode> rows = ndjson(export(null, null, FactExportService.Format.NDJSON));
+
+        assertEquals(table, rows.stream().map(FactExportServiceTest::key).toList());
+        assertEquals(3, queries.get());
+        assertEquals("COUNTY", rows.get(0).get("geoLevel").asText());
+        assertEquals(12.5, rows.get(0).get("value").doubleValue());
+    }
+
+    @Test
+    void csvStreamsExactPageMultipleAndResumesFromCursor() throws Exception {
+        seed(6);
+
+        List<String> lines = export(null, null, FactExportService.Format.CSV).lines().toList();
+        assertEquals(7, lines.size());
+        assertTrue(lines.get(0).startsWith("metricId,"));
+        // A full last page needs one more (empty) page to detect the end
+        assertEquals(3, queries.get());
+
+        String cursor = lines.get(4).substring(lines.get(4).lastIndexOf(',') + 1);
+        List<String> resumed = export(cursor, 10L, FactExportService.Format.CSV).lines().toList();
+        assertEquals(lines.subList(5, 7), resumed.subList(1, resumed.size()));
+    }
+
+    @Test
+    void maxRowsStopsOnARowBoundary() throws Exception {
+        seed(7);
+
+        List<JsonNode> rows = ndjson(export(null, 4L, FactExportService.Format.NDJSON));
+
+        assertEquals(table.subList(0, 4), rows.stream().map(FactExportServiceTest::key).toList());
+    }
+
+    @Test
+    void failureMidStreamEndsWithErrorRecordCarryingResumeCursor() throws Exception {
+        seed(7);
+        failOnQuery = 3;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(DataAccessResourceFailureException.class, () ->
+            service.export("M", "S", null, null, FactExportService.Format.NDJSON, out));
+
+        List<JsonNode> lines = ndjson(out.toString(StandardCharsets.UTF_8));
+        assertEquals(7, lines.size());
+        JsonNode error = lines.get(6);
+        assertEquals("connection reset", error.get("error").asText());
+        assertEquals(lines.get(5).get("cursor").asText(), error.get("cursor").asText());
+    }
+
+    private void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            LocalDate start = LocalDate.of(2024, 1 + i % 2, 1);
+            table.add(new FactExportService.Cursor(i < 2 ? "STATE" : "COUNTY", String.format("%02d", i / 2),
+                start, start.plusMonths(1).minusDays(1)));
+        }
+        table.sort(KEY_ORDER);
+    }
+
+    private String export(String cursor, Long maxRows, FactExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export("M", "S", cursor, maxRows, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private List<JsonNode> ndjson(String body) throws Exception {
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        return rows;
+    }
+
+    private static FactExportService.Cursor key(JsonNode row) {
+        return new FactExportService.Cursor(row.get("geoLevel").asText(), row.get("geoId").asText(),
+            LocalDate.parse(row.get("periodStart").asText()), LocalDate.parse(row.get("periodEnd").asText()));
+    }
+
+    private static ResultSet resultSet(FactExportService.Cursor key) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("geo_level")).thenReturn(key.geoLevel());
+        when(rs.getString("geo_id")).thenReturn(key.geoId());
+        when(rs.getDate("period_start")).thenReturn(Date.valueOf(key.periodStart()));
+        when(rs.getDate("period_end")).thenReturn(Date.valueOf(key.periodEnd()));
+        when(rs.getBigDecimal("value_numeric")).thenReturn(new BigDecimal("12.50"));
+        when(rs.getTimestamp("retrieved_at")).thenReturn(Timestamp.from(Instant.parse("2024-02-01T00:00:00Z")));
+        return rs;
+    }
+
+    private static final Comparator<FactExportService.Cursor> KEY_ORDER = Comparator
+        .comparing(FactExportService.Cursor::geoLevel)
+        .thenComparing(FactExportService.Cursor::geoId)
+        .thenComparing(FactExportService.Cursor::periodStart)
+        .thenComparing(FactExportService.Cursor::periodEnd);
+}
@@ -0,0 +1,150 @@
+package com.utilityexplorer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class GuardedSqlServiceTest {
+
+    private static final String SQL = "SELECT geo_id, value_numeric FROM fact_value WHERE metric_id = 'TEMP_CURRENT_F'";
+
+    @Test
+    void runsReadOnlyWithTimeoutAndRowCapThenServesRepeatsFromCache() throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement setup = mock(Statement.class);
+        PreparedStatement timeout = mock(PreparedStatement.class);
+        PreparedStatement query = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(setup);
+        when(connection.prepareStatement(startsWith("SELECT set_config"))).thenReturn(timeout);
+        when(connection.prepareStatement(startsWith("SELECT * FROM ("))).thenReturn(query);
+        when(query.executeQuery()).thenReturn(rs);
+        when(rs.getMetaData()).thenReturn(meta);
+        when(meta.getColumnCount()).thenReturn(2);
+        when(meta.getColumnLabel(1)).thenReturn("geo_id");
+        when(meta.getColumnLabel(2)).thenReturn("value_numeric");
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getObject(1)).thenReturn("06");
+        when(rs.getObject(2)).thenReturn(new BigDecimal("71.5"));
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+            .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        GuardedSqlService service = new GuardedSqlService(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry(),
+            Clock.systemUTC(), "fact_value,metric,region,source", 100, 2500, 1, Duration.ofMinutes(1), 10, 100);
+
+        GuardedSqlService.Execution first = service.prepare(SQL + ";", 500);
+        assertFalse(first.isCached());
+        assertEquals(100, first.getRowLimit());
+        assertEquals("{\"geo_id\":\"06\",\"value_numeric\":71.5}\n", write(first));
+
+        verify(setup).execute("SET TRANSACTION READ ONLY");
+        verify(timeout).setString(1, "2500");
+        verify(query).setInt(1, 100);
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+
+        GuardedSqlService.Execution repeat = service.prepare("  " + SQL + "  ", 100);
+        assertTrue(repeat.isCached());
+        assertEquals("{\"geo_id\":\"06\",\"value_numeric\":71.5}\n", write(repeat));
+        verify(query, times(1)).executeQuery();
+    }
+
+    @Test
+    void rejectsDisallowedSqlAndQueriesBeyondTheConcurrencyLimit() throws Exception {
+        GuardedSqlService service = new GuardedSqlService(mock(JdbcTemplate.class), new ObjectMapper(),
+            new SimpleMeterRegistry(), Clock.systemUTC(), "fact_value", 100, 1000, 1, Duration.ofMinutes(1), 10, 100);
+
+        assertThrows(IllegalArgumentException.class, () -> service.prepare("SELECT * FROM metric", null));
+        service.prepare(SQL, null); // holds the only permit until written
+        assertThrows(RejectedExecutionException.class, () -> service.prepare(SQL + " LIMIT 5", null));
+    }
+
+    @Test
+    void releasingAnUnwrittenExecutionReturnsItsPermit() throws Exception {
+        GuardedSqlService service = new GuardedSqlService(mock(JdbcTemplate.class), new ObjectMapper(),
+            new SimpleMeterRegistry(), Clock.systemUTC(), "fact_value", 100, 1000, 1, Duration.ofMinutes(1), 10, 100);
+
+        // Prepared for a response whose streaming task never ran
+        GuardedSqlService.Execution abandoned = service.prepare(SQL, null);
+        abandoned.release();
+        abandoned.release();
+
+        GuardedSqlService.Execution next = service.prepare(SQL, null);
+        assertThrows(RejectedExecutionException.class, () -> service.prepare(SQL, null));
+        assertThrows(IllegalStateException.class, () -> write(abandoned));
+        next.release();
+        service.prepare(SQL, null);
+    }
+
+    @Test
+    void cachesResultsUpToTheRowLimitAndStreamsEveryRow() throws Exception {
+        JdbcTemplate jdbcTemplate = jdbcTemplateReturningRows(2, 3);
+        GuardedSqlService service = new GuardedSqlService(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry(),
+            Clock.systemUTC(), "fact_value", 100, 1000, 2, Duration.ofMinutes(1), 10, 2);
+        String threeRows = SQL + " AND geo_level = 'STATE'";
+
+        assertEquals("{\"geo_id\":\"0\"}\n{\"geo_id\":\"1\"}\n", write(service.prepare(SQL, null)));
+        assertEquals("{\"geo_id\":\"0\"}\n{\"geo_id\":\"1\"}\n{\"geo_id\":\"2\"}\n",
+            write(service.prepare(threeRows, null)));
+
+        assertTrue(service.prepare(SQL, null).isCached());
+        GuardedSqlService.Execution overLimit = service.prepare(threeRows, null);
+        assertFalse(overLimit.isCached());
+        overLimit.release();
+    }
+
+    // Each execution streams the next count of rows, with geo_id "0", "1", ...
+    private static JdbcTemplate jdbcTemplateReturningRows(int... rowCounts) throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement query = mock(PreparedStatement.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.prepareStatement(startsWith("SELECT set_config"))).thenReturn(mock(PreparedStatement.class));
+        when(connection.prepareStatement(startsWith("SELECT * FROM ("))).thenReturn(query);
+        int[] execution = {0};
+        when(query.executeQuery()).thenAnswer(invocation -> {
+            int rows = rowCounts[execution[0]++];
+            ResultSet rs = mock(ResultSet.class);
+            ResultSetMetaData meta = mock(ResultSetMetaData.class);
+            when(rs.getMetaData()).thenReturn(meta);
+            when(meta.getColumnCount()).thenReturn(1);
+            when(meta.getColumnLabel(1)).thenReturn("geo_id");
+            int[] cursor = {-1};
+            when(rs.next()).thenAnswer(next -> ++cursor[0] < rows);
+            when(rs.getObject(1)).thenAnswer(value -> Integer.toString(cursor[0]));
+            return rs;
+        });
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+            .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        return jdbcTemplate;
+    }
+
+    private static String write(GuardedSqlService.Execution execution) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        execution.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,39 @@
+package com.utilityexplorer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LttbDownsamplerTest {
+
+    @Test
+    void select_keepsEndpointsAndPeaks() {
+        double[] x = new double[100];
+        double[] y = new double[100];
+        for (int i = 0; i < 100; i++) {
+            x[i] = i;
+            y[i] = i == 42 ? 50.0 : (i == 77 ? -50.0 : 0.0);
+        }
+
+        int[] kept = LttbDownsampler.select(x, y, 10);
+
+        assertEquals(10, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(99, kept[9]);
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 42));
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 77));
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1]);
+        }
+    }
+
+    @Test
+    void select_returnsEveryPointWhenBelowThreshold() {
+        double[] x = {0, 1, 2};
+        double[] y = {5, 6, 7};
+
+        assertArrayEquals(new int[] {0, 1, 2}, LttbDownsampler.select(x, y, 10));
+    }
+}
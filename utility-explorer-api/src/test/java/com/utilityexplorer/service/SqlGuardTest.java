@@ -0,0 +1,55 @@
+package com.utilityexplorer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlGuardTest {
+
+    private static final Set<String> TABLES = Set.of("fact_value", "metric", "region", "source");
+
+    @Test
+    void acceptsAllowlistedReadOnlyQueriesAndCanonicalizesThem() {
+        SqlGuard.ValidatedSql validated = SqlGuard.validate(
+            "-- top states\nSELECT r.name,  ROUND(AVG(f.value_numeric), 2) AS avg_value\n"
+                + "FROM public.fact_value f JOIN region r ON r.geo_id = f.geo_id\n"
+                + "WHERE f.metric_id = 'TEMP_CURRENT_F' GROUP BY r.name ORDER BY avg_value DESC NULLS LAST LIMIT 5;",
+            TABLES);
+
+        assertEquals(Set.of("fact_value", "region"), validated.tables());
+        assertFalse(validated.canonicalSql().contains("--"));
+        assertEquals(validated.canonicalSql(), SqlGuard.validate(
+            "SELECT r.name, ROUND(AVG(f.value_numeric), 2) AS avg_value FROM public.fact_value f "
+                + "JOIN region r ON r.geo_id = f.geo_id WHERE f.metric_id = 'TEMP_CURRENT_F' "
+                + "GROUP BY r.name ORDER BY avg_value DESC NULLS LAST LIMIT 5", TABLES).canonicalSql());
+
+        assertEquals(Set.of("fact_value"), SqlGuard.validate(
+            "WITH latest AS (SELECT MAX(period_start) AS p FROM fact_value) "
+                + "SELECT geo_id, RANK() OVER (ORDER BY value_numeric DESC) FROM fact_value, latest "
+                + "WHERE period_start = latest.p", TABLES).tables());
+    }
+
+    @Test
+    void rejectsWritesCatalogsAndUnsafeFunctions() {
+        assertRejected("DELETE FROM fact_value");
+        assertRejected("SELECT 1; DROP TABLE metric");
+        assertRejected("SELECT * FROM user_query");
+        assertRejected("SELECT * FROM pg_catalog.pg_user");
+        assertRejected("SELECT * FROM information_schema.tables");
+        assertRejected("SELECT pg_sleep(60)");
+        assertRejected("SELECT * FROM metric WHERE metric_id = (SELECT current_setting('is_superuser'))");
+        assertRejected("SELECT * FROM pg_read_file('/etc/passwd')");
+        assertRejected("SELECT * FROM generate_series(1, 1000000000)");
+        assertRejected("SELECT pg_catalog.count(*) FROM metric");
+        assertRejected("SELECT * INTO copy_of_metric FROM metric");
+        assertRejected("SELECT * FROM metric FOR UPDATE");
+        assertRejected("WITH d AS (DELETE FROM metric RETURNING *) SELECT * FROM d");
+        assertRejected("not sql at all");
+    }
+
+    private static void assertRejected(String sql) {
+        assertThrows(IllegalArgumentException.class, () -> SqlGuard.validate(sql, TABLES), sql);
+    }
+}
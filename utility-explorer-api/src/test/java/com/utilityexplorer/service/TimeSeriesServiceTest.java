@@ -0,0 +1,95 @@
+package com.utilityexplorer.service;
+
+import com.utilityexplorer.dto.ApiDtos.MultiTimeSeriesResponse;
+import com.utilityexplorer.dto.ApiDtos.SeriesColumns;
+import com.utilityexplorer.geo.RegionHierarchyCache;
+import com.utilityexplorer.persistence.RegionRepository;
+import com.utilityexplorer.persistence.SourceRepository;
+import com.utilityexplorer.shared.persistence.FactValue;
+import com.utilityexplorer.shared.persistence.FactValueRepository;
+import com.utilityexplorer.shared.persistence.Metric;
+import com.utilityexplorer.shared.persistence.MetricRepository;
+import com.utilityexplorer.shared.persistence.Region;
+import com.utilityexplorer.shared.persistence.Source;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimeSeriesServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    @Mock
+    private FactValueRepository factValueRepository;
+
+    @Mock
+    private MetricRepository metricRepository;
+
+    @Mock
+    private SourceRepository sourceRepository;
+
+    private final RegionRepository regionRepository = mock(RegionRepository.class);
+
+    @Spy
+    private RegionHierarchyCache regionHierarchyCache = new RegionHierarchyCache(regionRepository);
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private TimeSeriesService timeSeriesService;
+
+    @Test
+    void getMultiTimeSeries_normalizesLowerCaseGeoLevelForRegionsAndFacts() {
+        Region kansas = new Region(UUID.randomUUID(), "STATE", "20", "Kansas", null, null, null);
+        when(regionRepository.findAll()).thenReturn(List.of(kansas));
+        when(metricRepository.findById("ELECTRICITY_RETAIL_PRICE"))
+            .thenReturn(Optional.of(new Metric("ELECTRICITY_RETAIL_PRICE", "Retail price", "cents/kWh", null, "MONTHLY", "STATE")));
+        when(sourceRepository.findById("EIA"))
+            .thenReturn(Optional.of(new Source("EIA", "EIA", "API", null, null, null)));
+        when(factValueRepository.findTimeSeriesForGeos(eq("ELECTRICITY_RETAIL_PRICE"), eq("EIA"), eq("STATE"),
+                anyCollection(), eq(FROM), eq(TO)))
+            .thenReturn(List.of(fact("20", LocalDate.of(2024, 1, 1), "12.5")));
+
+        Optional<MultiTimeSeriesResponse> response = timeSeriesService.getMultiTimeSeries(
+            "ELECTRICITY_RETAIL_PRICE", "EIA", "state", List.of("20"), null, null, FROM, TO, null);
+
+        SeriesColumns series = response.orElseThrow().getSeries().get(0);
+        assertEquals("STATE", response.get().getGeoLevel());
+        assertEquals("20", series.getGeoId());
+        assertEquals(List.of(12.5), series.getValues());
+        verify(factValueRepository).findTimeSeriesForGeos(eq("ELECTRICITY_RETAIL_PRICE"), eq("EIA"), eq("STATE"),
+            argThat((Collection<String> geoIds) -> geoIds.contains("20")), eq(FROM), eq(TO));
+    }
+
+    private static FactValue fact(String geoId, LocalDate periodStart, String value) {
+        FactValue fact = new FactValue();
+        fact.setMetricId("ELECTRICITY_RETAIL_PRICE");
+        fact.setSourceId("EIA");
+        fact.setGeoLevel("STATE");
+        fact.setGeoId(geoId);
+        fact.setPeriodStart(periodStart);
+        fact.setPeriodEnd(periodStart.plusMonths(1).minusDays(1));
+        fact.setValueNumeric(new BigDecimal(value));
+        fact.setRetrievedAt(Instant.parse("2024-02-01T00:00:00Z"));
+        return fact;
+    }
+}
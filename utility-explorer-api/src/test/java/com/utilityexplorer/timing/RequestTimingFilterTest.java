@@ -0,0 +1,92 @@
+package com.utilityexplorer.timing;
+
+import com.utilityexplorer.dto.ApiDtos.MapResponse;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingFilterTest {
+
+    private final RequestTimingAdvice advice = new RequestTimingAdvice();
+
+    @Test
+    void optedInRequestGetsServerTimingAndDebugField() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/map");
+        request.addHeader(RequestTimingFilter.OPT_IN_HEADER, "true");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<MapResponse> body = new AtomicReference<>();
+
+        new RequestTimingFilter(true).doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                try (RequestTiming.Stage stage = RequestTiming.stage("facts")) {
+                    RequestTiming.count("rows", 3);
+                }
+                try (RequestTiming.Stage stage = RequestTiming.stage("facts")) {
+                    RequestTiming.count("rows", 2);
+                }
+                MapResponse map = new MapResponse();
+                body.set(map);
+                advice.beforeBodyWrite(map, null, null, null,
+                    new ServletServerHttpRequest(req), new ServletServerHttpResponse(res));
+                res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+            }
+        }));
+
+        String header = response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER);
+        assertNotNull(header);
+        assertTrue(header.matches("facts;dur=[0-9.]+, serialize;dur=[0-9.]+, rows;desc=\"5\", total;dur=[0-9.]+"), header);
+        assertEquals("{}", response.getContentAsString());
+        assertNotNull(body.get().getDebug());
+        assertEquals(5L, body.get().getDebug().getCounts().get("rows"));
+        assertTrue(body.get().getDebug().getStagesMs().containsKey("facts"));
+        assertFalse(RequestTiming.isActive());
+    }
+
+    @Test
+    void requestsWithoutOptInAreNotTimed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/map");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Boolean> active = new AtomicReference<>();
+
+        new RequestTimingFilter(true).doFilter(request, response, (req, res) -> active.set(RequestTiming.isActive()));
+
+        assertFalse(active.get());
+        assertNull(response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER));
+    }
+
+    @Test
+    void optInIsIgnoredWhenTimingIsDisabled() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/map");
+        request.setParameter("debug", "timing");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Boolean> active = new AtomicReference<>();
+
+        new RequestTimingFilter(false).doFilter(request, response, (req, res) -> active.set(RequestTiming.isActive()));
+
+        assertFalse(active.get());
+        assertNull(response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER));
+    }
+
+    @Test
+    void stagesAreNoOpsOutsideATimedRequest() {
+        RequestTiming.Stage first = RequestTiming.stage("facts");
+        RequestTiming.Stage second = RequestTiming.stage("regions");
+        assertSame(first, second);
+        RequestTiming.count("rows", 1);
+        first.close();
+        assertNull(RequestTiming.current());
+    }
+}
@@ -0,0 +1,69 @@
+package com.utilityexplorer.utilagent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+    @Test
+    void findsExactNearestNeighborsWithHighRecall() {
+        int dimension = 32;
+        Random random = new Random(7);
+        float[][] vectors = new float[2000][];
+        HnswIndex index = new HnswIndex(dimension, 16, 100, 42L);
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = HashingEmbedder.normalize(randomVector(random, dimension));
+            index.add("v" + i, vectors[i]);
+        }
+
+        int hits = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = HashingEmbedder.normalize(randomVector(random, dimension));
+            int exact = IntStream.range(0, vectors.length).boxed()
+                .max(Comparator.comparingDouble(i -> dot(query, vectors[i]))).orElseThrow();
+            List<HnswIndex.Neighbor> found = index.search(query, 1, 64);
+            if (found.get(0).key().equals("v" + exact)) {
+                hits++;
+            }
+        }
+
+        assertEquals(2000, index.size());
+        assertTrue(hits >= 95, "recall@1 was " + hits + "/" + queries);
+    }
+
+    @Test
+    void returnsNeighborsMostSimilarFirst() {
+        HnswIndex index = new HnswIndex(2, 4, 10, 1L);
+        index.add("east", new float[] {1, 0});
+        index.add("north", new float[] {0, 1});
+        index.add("northeast", new float[] {1, 1});
+
+        List<HnswIndex.Neighbor> neighbors = index.search(new float[] {1, 0.2f}, 3, 10);
+
+        assertEquals(List.of("east", "northeast", "north"), neighbors.stream().map(HnswIndex.Neighbor::key).toList());
+        assertTrue(new HnswIndex(2, 4, 10, 1L).search(new float[] {1, 0}, 3, 10).isEmpty());
+    }
+
+    private static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+}
@@ -0,0 +1,85 @@
+package com.utilityexplorer.utilagent;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntelligenceCircuitBreakerTest {
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @Test
+    void opensAfterThresholdAndProbesAfterCooldown() {
+        MutableClock clock = new MutableClock();
+        IntelligenceCircuitBreaker breaker = new IntelligenceCircuitBreaker(2, Duration.ofSeconds(30), clock);
+
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(IntelligenceCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.recordFailure();
+        assertEquals(IntelligenceCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest(), "only one probe while half-open");
+
+        breaker.recordSuccess();
+        assertEquals(IntelligenceCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void failedProbeReopensCircuit() {
+        MutableClock clock = new MutableClock();
+        IntelligenceCircuitBreaker breaker = new IntelligenceCircuitBreaker(1, Duration.ofSeconds(10), clock);
+
+        breaker.recordFailure();
+        clock.advance(Duration.ofSeconds(10));
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(IntelligenceCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void countsOnlyServerErrorsTimeoutsAndConnectionErrors() {
+        assertTrue(IntelligenceCircuitBreaker.isServiceFailure(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+        assertTrue(IntelligenceCircuitBreaker.isServiceFailure(new ResourceAccessException("Read timed out")));
+        assertFalse(IntelligenceCircuitBreaker.isServiceFailure(new HttpClientErrorException(HttpStatus.BAD_REQUEST)));
+        assertFalse(IntelligenceCircuitBreaker.isServiceFailure(new IllegalArgumentException("bad input")));
+    }
+
+    @Test
+    void ignoredOutcomeFreesTheProbeWithoutClosing() {
+        MutableClock clock = new MutableClock();
+        IntelligenceCircuitBreaker breaker = new IntelligenceCircuitBreaker(1, Duration.ofSeconds(10), clock);
+
+        breaker.recordFailure();
+        clock.advance(Duration.ofSeconds(10));
+        assertTrue(breaker.allowRequest());
+        breaker.recordIgnored();
+
+        assertEquals(IntelligenceCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest(), "next caller may probe");
+    }
+}
@@ -0,0 +1,49 @@
+package com.utilityexplorer.utilagent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordMatcherTest {
+
+    private final KeywordMatcher matcher = KeywordMatcher.build(List.of(
+        new KeywordMatcher.Keyword("electricity price", "PRICE", 3.0),
+        new KeywordMatcher.Keyword("cent kwh", "PRICE", 3.0),
+        new KeywordMatcher.Keyword("electricity", "PRICE", 3.0),
+        new KeywordMatcher.Keyword("electricity", "COST", 3.0),
+        new KeywordMatcher.Keyword("monthly electricity cost", "COST", 3.0),
+        new KeywordMatcher.Keyword("electricity cost", "COST", 3.0),
+        new KeywordMatcher.Keyword("cost", "COST", 1.0),
+        new KeywordMatcher.Keyword("temp", "TEMP", 3.0)
+    ));
+
+    @Test
+    void scoresOverlappingPhrasesInOnePass() {
+        Map<String, Double> scores = matcher.match("Which state has the highest Monthly-Electricity COST?");
+
+        assertEquals(List.of("COST", "PRICE"), List.copyOf(scores.keySet()));
+        assertEquals(10.0, scores.get("COST"));
+        assertEquals(3.0, scores.get("PRICE"));
+    }
+
+    @Test
+    void matchesWholeWordsOnly() {
+        assertTrue(matcher.match("temperature trends").isEmpty());
+        assertEquals(Map.of("TEMP", 3.0), matcher.match("temp by state"));
+        assertEquals(Map.of("PRICE", 3.0), matcher.match("state with least cent/kWh"));
+    }
+
+    @Test
+    void normalizeMatchesLegacyRegexNormalization() {
+        String question = "  What's the\tcent/kWh price?! ";
+        String legacy = question.toLowerCase()
+            .replaceAll("[^a-z0-9\\s]", " ")
+            .replaceAll("\\s+", " ")
+            .trim();
+
+        assertEquals(legacy, KeywordMatcher.normalize(question));
+    }
+}
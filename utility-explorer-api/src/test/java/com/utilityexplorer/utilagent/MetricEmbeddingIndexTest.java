@@ -0,0 +1,47 @@
+package com.utilityexplorer.utilagent;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetricEmbeddingIndexTest {
+
+    @Test
+    void routesParaphrasesWithoutKeywordsUsingBundledEmbeddings() {
+        MetricKeywordIndex keywordIndex = mock(MetricKeywordIndex.class);
+        when(keywordIndex.sourceFor(anyString())).thenReturn("SRC");
+        MetricEmbeddingIndex index = new MetricEmbeddingIndex(new DefaultResourceLoader(), keywordIndex,
+            true, "classpath:utilagent/metric-embeddings.tsv", 0.25, 32);
+        index.load();
+
+        assertEquals("ELECTRICITY_MONTHLY_COST_USD_ACS", top(index, "Where do households pay the most for their power bills?"));
+        assertEquals("TEMP_ANOMALY_F", top(index, "Which places are unusually warm compared with normal?"));
+        assertEquals("ELECTRICITY_RETAIL_PRICE_CENTS_PER_KWH", top(index, "cheapest kilowatt hour rates"));
+        assertTrue(index.match("zebra migration patterns").isEmpty());
+    }
+
+    @Test
+    void rejectsFilesFromAnotherEmbedder() throws Exception {
+        StringWriter written = new StringWriter();
+        MetricEmbeddingFile.write(written, List.of(new MetricEmbeddingFile.Entry("M", "text", HashingEmbedder.embed("text"))));
+        MetricEmbeddingFile.Contents contents = MetricEmbeddingFile.read(new StringReader(written.toString()));
+        assertEquals(1, MetricEmbeddingIndex.build(contents).size());
+
+        MetricEmbeddingFile.Contents other = new MetricEmbeddingFile.Contents("all-MiniLM-L6-v2", 384, List.of());
+        assertThrows(IllegalArgumentException.class, () -> MetricEmbeddingIndex.build(other));
+    }
+
+    private static String top(MetricEmbeddingIndex index, String question) {
+        List<MetricKeywordIndex.MetricMatch> matches = index.match(question);
+        assertFalse(matches.isEmpty(), "no match for: " + question);
+        return matches.get(0).metricId();
+    }
+}
@@ -0,0 +1,81 @@
+package com.utilityexplorer.utilagent;
+
+import com.utilityexplorer.persistence.MetricSource;
+import com.utilityexplorer.persistence.MetricSourceRepository;
+import com.utilityexplorer.shared.persistence.Metric;
+import com.utilityexplorer.shared.persistence.MetricRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetricKeywordIndexTest {
+
+    private static final String PRICE = "ELECTRICITY_RETAIL_PRICE_CENTS_PER_KWH";
+
+    @Mock
+    private MetricRepository metricRepository;
+
+    @Mock
+    private MetricSourceRepository metricSourceRepository;
+
+    @InjectMocks
+    private MetricKeywordIndex index;
+
+    @Test
+    void refreshIfChanged_readsOnlyTheVersionWhileTheCatalogIsUnchanged() {
+        Metric price = new Metric(PRICE, "Electricity Retail Price", "cents/kWh", null, "MONTH", "STATE");
+        when(metricRepository.findAll()).thenReturn(List.of(price));
+        when(metricSourceRepository.findAll()).thenReturn(List.of(metricSource("EIA")));
+        when(metricSourceRepository.findCatalogVersion()).thenReturn(version(1L, "2024-01-01T00:00:00Z"));
+
+        assertEquals("EIA", index.sourceFor(PRICE));
+        index.refreshIfChanged();
+        index.refreshIfChanged();
+
+        verify(metricRepository, times(1)).findAll();
+        verify(metricSourceRepository, times(1)).findAll();
+        verify(metricSourceRepository, times(3)).findCatalogVersion();
+    }
+
+    @Test
+    void refreshIfChanged_rebuildsWhenTheVersionMoves() {
+        Metric price = new Metric(PRICE, "Electricity Retail Price", "cents/kWh", null, "MONTH", "STATE");
+        when(metricRepository.findAll()).thenReturn(List.of(price));
+        when(metricSourceRepository.findAll())
+            .thenReturn(List.of(metricSource("EIA")))
+            .thenReturn(List.of(metricSource("ACS")));
+        when(metricSourceRepository.findCatalogVersion())
+            .thenReturn(version(1L, "2024-01-01T00:00:00Z"))
+            .thenReturn(version(1L, "2024-02-01T00:00:00Z"));
+
+        assertEquals("EIA", index.sourceFor(PRICE));
+        index.refreshIfChanged();
+
+        assertEquals("ACS", index.sourceFor(PRICE));
+        verify(metricRepository, times(2)).findAll();
+    }
+
+    private static MetricSource metricSource(String sourceId) {
+        MetricSource metricSource = new MetricSource();
+        ReflectionTestUtils.setField(metricSource, "metricId", PRICE);
+        ReflectionTestUtils.setField(metricSource, "sourceId", sourceId);
+        return metricSource;
+    }
+
+    private static List<Object[]> version(long metrics, String updatedAt) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {metrics, Instant.parse(updatedAt), 1L, Instant.parse(updatedAt)});
+        return rows;
+    }
+}
@@ -0,0 +1,108 @@
+package com.utilityexplorer.utilagent;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs compiled intersection statements against the migrated schema (Postgres, like
+ * {@code IntegrationTest}). Facts are inserted in far-future periods so they are the latest, and
+ * each test rolls back.
+ */
+@SpringBootTest
+@Transactional
+class QuerySpecCompilerIntegrationTest {
+
+    private static final String PRICE = "ELECTRICITY_RETAIL_PRICE_CENTS_PER_KWH";
+    private static final String COST = "ELECTRICITY_MONTHLY_COST_USD_ACS";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void intersectionQuery_pivotsFiltersOrdersAndLimitsLatestFacts() {
+        LocalDate period = LocalDate.of(2099, 1, 1);
+        insertFact(PRICE, "EIA", "STATE", "20", period, "11.0");
+        insertFact(PRICE, "EIA", "STATE", "06", period, "25.0");
+        insertFact(PRICE, "EIA", "STATE", "48", period, "14.0");
+        insertFact(COST, "CENSUS_ACS", "STATE", "20", period, "120");
+        insertFact(COST, "CENSUS_ACS", "STATE", "06", period, "150");
+        insertFact(COST, "CENSUS_ACS", "STATE", "48", period, "90");
+
+        QuerySpec spec = spec("STATE", 1, metric(PRICE, "EIA", "DESC"), metric(COST, "CENSUS_ACS", null));
+        spec.setFilters(List.of(filter(COST, ">=", 100.0)));
+
+        List<Map<String, Object>> rows = run(spec);
+
+        assertEquals(1, rows.size());
+        Map<String, Object> top = rows.get(0);
+        assertEquals("06", top.get("geo_id"));
+        assertEquals("California", top.get("region_name"));
+        assertEquals(0, new BigDecimal("25.0").compareTo((BigDecimal) top.get("v0")));
+        assertEquals(0, new BigDecimal("150").compareTo((BigDecimal) top.get("v1")));
+        assertEquals(Date.valueOf(period), top.get("s0"));
+    }
+
+    @Test
+    void intersectionQuery_usesTheLatestPeriodAtTheRequestedGeoLevel() {
+        LocalDate statePeriod = LocalDate.of(2098, 1, 1);
+        insertFact(PRICE, "EIA", "STATE", "20", statePeriod, "11.0");
+        insertFact(PRICE, "EIA", "COUNTY", "20001", LocalDate.of(2099, 1, 1), "9.0");
+
+        List<Map<String, Object>> rows = run(spec("STATE", 50, metric(PRICE, "EIA", null)));
+
+        Map<String, Object> kansas = rows.stream()
+            .filter(row -> "20".equals(row.get("geo_id")))
+            .findFirst()
+            .orElseThrow();
+        assertEquals(0, new BigDecimal("11.0").compareTo((BigDecimal) kansas.get("v0")));
+        assertEquals(Date.valueOf(statePeriod), kansas.get("s0"));
+    }
+
+    private List<Map<String, Object>> run(QuerySpec spec) {
+        QuerySpecCompiler.CompiledQuery compiled = QuerySpecCompiler.compile(spec, 20);
+        return jdbcTemplate.queryForList(compiled.sql(), compiled.params().toArray());
+    }
+
+    private void insertFact(String metricId, String sourceId, String geoLevel, String geoId, LocalDate periodStart,
+            String value) {
+        jdbcTemplate.update("INSERT INTO fact_value (metric_id, source_id, geo_level, geo_id, period_start, period_end, "
+                + "value_numeric, retrieved_at) VALUES (?, ?, ?, ?, ?, ?, ?, now())",
+            metricId, sourceId, geoLevel, geoId, Date.valueOf(periodStart),
+            Date.valueOf(periodStart.plusMonths(1).minusDays(1)), new BigDecimal(value));
+    }
+
+    private static QuerySpec spec(String geoLevel, int limit, MetricSpec... metrics) {
+        QuerySpec spec = new QuerySpec();
+        spec.setGeoLevel(geoLevel);
+        spec.setLimit(limit);
+        spec.setMetrics(List.of(metrics));
+        return spec;
+    }
+
+    private static MetricSpec metric(String metricId, String sourceId, String direction) {
+        MetricSpec spec = new MetricSpec();
+        spec.setMetricId(metricId);
+        spec.setSourceId(sourceId);
+        spec.setDirection(direction);
+        return spec;
+    }
+
+    private static FilterSpec filter(String metricId, String op, double value) {
+        FilterSpec filter = new FilterSpec();
+        filter.setMetricId(metricId);
+        filter.setOp(op);
+        filter.setValue(value);
+        return filter;
+    }
+}
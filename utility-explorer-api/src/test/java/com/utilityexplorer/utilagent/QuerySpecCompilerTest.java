@@ -0,0 +1,58 @@
+package com.utilityexplorer.utilagent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuerySpecCompilerTest {
+
+    private static MetricSpec metric(String metricId, String sourceId, String direction) {
+        MetricSpec spec = new MetricSpec();
+        spec.setMetricId(metricId);
+        spec.setSourceId(sourceId);
+        spec.setDirection(direction);
+        return spec;
+    }
+
+    private static FilterSpec filter(String metricId, String op, double value) {
+        FilterSpec filter = new FilterSpec();
+        filter.setMetricId(metricId);
+        filter.setOp(op);
+        filter.setValue(value);
+        return filter;
+    }
+
+    @Test
+    void compilesPivotFiltersOrderingAndLimitIntoOneStatement() {
+        QuerySpec spec = new QuerySpec();
+        spec.setGeoLevel("STATE");
+        spec.setLimit(5);
+        spec.setMetrics(List.of(metric("PRICE", "EIA", "DESC"), metric("COST", "CENSUS_ACS", null)));
+        spec.setFilters(List.of(filter("COST", "gte", 100.0)));
+
+        QuerySpecCompiler.CompiledQuery compiled = QuerySpecCompiler.compile(spec, 20);
+
+        String sql = compiled.sql();
+        assertTrue(sql.contains("FILTER (WHERE l.ord = 1) AS v1"));
+        assertTrue(sql.contains("WHERE p.v1 >= ?"));
+        assertTrue(sql.contains("ORDER BY p.v0 DESC NULLS LAST, p.geo_id"));
+        assertTrue(sql.endsWith("LIMIT ?"));
+        assertEquals(List.of("PRICE", "EIA", "COST", "CENSUS_ACS", "STATE", "STATE", "STATE", 100.0, 5),
+            compiled.params());
+    }
+
+    @Test
+    void rejectsUnsupportedOperatorsAndUnknownFilterMetrics() {
+        QuerySpec spec = new QuerySpec();
+        spec.setGeoLevel("STATE");
+        spec.setMetrics(List.of(metric("PRICE", "EIA", null)));
+
+        spec.setFilters(List.of(filter("PRICE", "; DROP TABLE fact_value", 1.0)));
+        assertThrows(IllegalArgumentException.class, () -> QuerySpecCompiler.compile(spec, 20));
+
+        spec.setFilters(List.of(filter("COST", ">", 1.0)));
+        assertThrows(IllegalArgumentException.class, () -> QuerySpecCompiler.compile(spec, 20));
+    }
+}
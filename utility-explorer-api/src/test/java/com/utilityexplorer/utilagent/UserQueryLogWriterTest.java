@@ -0,0 +1,102 @@
+package com.utilityexplorer.utilagent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserQueryLogWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void assignsIdsFromPreallocatedBlockAndFlushesInBatches() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(101L);
+        UserQueryLogWriter writer = new UserQueryLogWriter(jdbcTemplate, new SimpleMeterRegistry(), 10, 2,
+            UserQueryLogWriter.OverflowPolicy.DROP);
+
+        assertEquals(101L, writer.log("q1", null, null, false));
+        assertEquals(102L, writer.log("q2", null, null, false));
+        assertEquals(103L, writer.log("q3", null, null, false));
+        assertTrue(writer.setFeedbackIfPending(102L, "liked"));
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class));
+
+        writer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList(), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(0, writer.getPendingCount());
+        assertFalse(writer.setFeedbackIfPending(102L, "liked"));
+    }
+
+    @Test
+    void dropsWhenQueueIsFull() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UserQueryLogWriter writer = new UserQueryLogWriter(jdbcTemplate, registry, 1, 10,
+            UserQueryLogWriter.OverflowPolicy.DROP);
+
+        assertNotNull(writer.log("kept", null, null, false));
+        assertNull(writer.log("dropped", null, null, false));
+        assertEquals(1.0, registry.get("utilagent.query_log.dropped").counter().count());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void retriesFailedBatchesThenCountsWhatIsGivenUp() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UserQueryLogWriter writer = new UserQueryLogWriter(jdbcTemplate, registry, 10, 10,
+            UserQueryLogWriter.OverflowPolicy.DROP);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+            .thenThrow(new DataAccessResourceFailureException("down"))
+            .thenReturn(new int[][] {{1}});
+
+        writer.log("q1", null, null, false);
+        writer.flush();
+        assertTrue(writer.setFeedbackIfPending(1L, "liked"), "failed entries stay pending for retry");
+        writer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList(), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+        assertFalse(writer.setFeedbackIfPending(1L, "liked"));
+        assertEquals(1.0, registry.get("utilagent.query_log.written").counter().count());
+
+        reset(jdbcTemplate);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+            .thenThrow(new DataAccessResourceFailureException("down"));
+        writer.log("q2", null, null, false);
+        for (int i = 0; i < UserQueryLogWriter.MAX_FLUSH_ATTEMPTS + 1; i++) {
+            writer.flush();
+        }
+
+        verify(jdbcTemplate, times(UserQueryLogWriter.MAX_FLUSH_ATTEMPTS)).batchUpdate(anyString(), anyList(), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1.0, registry.get("utilagent.query_log.failed").counter().count());
+        assertFalse(writer.setFeedbackIfPending(2L, "liked"));
+    }
+
+    @Test
+    void feedbackForUnknownOrNullIdIsNotPending() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1000L);
+        UserQueryLogWriter writer = new UserQueryLogWriter(jdbcTemplate, new SimpleMeterRegistry(), 10, 10,
+            UserQueryLogWriter.OverflowPolicy.DROP);
+        Long id = writer.log("q", null, null, false);
+
+        assertFalse(writer.setFeedbackIfPending(null, "liked"));
+        assertTrue(writer.setFeedbackIfPending(Long.valueOf(id), "liked"));
+    }
+}
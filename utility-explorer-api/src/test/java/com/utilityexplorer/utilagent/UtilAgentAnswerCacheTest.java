@@ -0,0 +1,75 @@
+package com.utilityexplorer.utilagent;
+
+import com.utilityexplorer.dto.ApiDtos.UtilAgentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilAgentAnswerCacheTest {
+
+    private static UtilAgentResponse answer(String summary) {
+        UtilAgentResponse response = new UtilAgentResponse();
+        response.setStatus("OK");
+        response.setSummary(summary);
+        response.setQueryId(42L);
+        return response;
+    }
+
+    @Test
+    void invalidatesOnlyEntriesCitingChangedMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UtilAgentAnswerCache cache = new UtilAgentAnswerCache(null, registry, true, Duration.ofMinutes(10), 10, Clock.systemUTC());
+        cache.put("price", answer("price"), Set.of("PRICE"), cache.generation());
+        cache.put("cost", answer("cost"), Set.of("COST"), cache.generation());
+        cache.put("genai", answer("genai"), Set.of(), cache.generation());
+
+        cache.invalidate(Set.of("PRICE"));
+
+        assertNull(cache.get("price"));
+        assertNull(cache.get("genai"));
+        UtilAgentResponse cost = cache.get("cost");
+        assertEquals("cost", cost.getSummary());
+        assertNull(cost.getQueryId());
+        assertEquals(1.0, registry.get("utilagent.answer.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(2.0, registry.get("utilagent.answer.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        Clock[] clock = { Clock.fixed(start, ZoneOffset.UTC) };
+        Clock delegating = new Clock() {
+            @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(ZoneId zone) { return this; }
+            @Override public Instant instant() { return clock[0].instant(); }
+        };
+        UtilAgentAnswerCache cache = new UtilAgentAnswerCache(null, new SimpleMeterRegistry(), true, Duration.ofSeconds(60), 10, delegating);
+        cache.put("q", answer("a"), Set.of("PRICE"), cache.generation());
+
+        assertNotNull(cache.get("q"));
+        clock[0] = Clock.fixed(start.plusSeconds(61), ZoneOffset.UTC);
+        assertNull(cache.get("q"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void rejectsAnswersComputedBeforeAnInvalidation() {
+        UtilAgentAnswerCache cache = new UtilAgentAnswerCache(null, new SimpleMeterRegistry(), true, Duration.ofMinutes(10), 10, Clock.systemUTC());
+        long before = cache.generation();
+
+        cache.invalidate(Set.of("PRICE"));
+        cache.put("price", answer("stale"), Set.of("PRICE"), before);
+        assertNull(cache.get("price"));
+
+        cache.put("price", answer("fresh"), Set.of("PRICE"), cache.generation());
+        assertEquals("fresh", cache.get("price").getSummary());
+    }
+}
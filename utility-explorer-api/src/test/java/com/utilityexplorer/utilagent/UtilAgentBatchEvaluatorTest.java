@@ -0,0 +1,115 @@
+package com.utilityexplorer.utilagent;
+
+import com.utilityexplorer.dto.ApiDtos.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UtilAgentBatchEvaluatorTest {
+
+    @Test
+    void evaluatesUniqueQuestionsWithBoundedParallelism() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        UtilAgentService service = mock(UtilAgentService.class);
+        when(service.evaluateQuery(anyString())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            UtilAgentResponse response = new UtilAgentResponse();
+            response.setStatus("OK");
+            response.setResponseOrigin("deterministic");
+            response.setSummary(invocation.getArgument(0));
+            return response;
+        });
+        UtilAgentBatchEvaluator evaluator = new UtilAgentBatchEvaluator(service, new UtilAgentExecutor(new SimpleMeterRegistry(), 4, 4), 4);
+
+        UtilAgentBatchResponse batch = evaluator.evaluate(
+            List.of("q1", "q2", "Q1?", "q3", "q4", "q5", "q6"), 2).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, peak.get());
+        verify(service, times(6)).evaluateQuery(anyString());
+        verify(service, never()).processQuery(anyString());
+        assertEquals(7, batch.getResults().size());
+        UtilAgentBatchResult duplicate = batch.getResults().get(2);
+        assertEquals(0, duplicate.getDuplicateOf());
+        assertEquals("q1", duplicate.getResponse().getSummary());
+        assertEquals(6, batch.getSummary().getEvaluated());
+        assertEquals(Map.of("deterministic", 6), batch.getSummary().getByOrigin());
+        assertEquals(Map.of("OK", 7), batch.getSummary().getByStatus());
+        assertTrue(batch.getSummary().getLatencyP95Ms() >= 20);
+    }
+
+    @Test
+    void leavesABulkheadWorkerForLiveQueries() throws Exception {
+        UtilAgentService service = mock(UtilAgentService.class);
+        UtilAgentResponse response = new UtilAgentResponse();
+        response.setStatus("OK");
+        when(service.evaluateQuery(anyString())).thenReturn(response);
+        UtilAgentBatchEvaluator evaluator = new UtilAgentBatchEvaluator(service, new UtilAgentExecutor(new SimpleMeterRegistry(), 3, 4), 8);
+
+        UtilAgentBatchResponse batch = evaluator.evaluate(List.of("q1", "q2", "q3"), 8).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, batch.getSummary().getParallelism());
+    }
+
+    @Test
+    void rejectedQuestionsAreRecordedWithoutRecursing() throws Exception {
+        UtilAgentExecutor executor = mock(UtilAgentExecutor.class);
+        when(executor.getMaxConcurrency()).thenReturn(8);
+        when(executor.submit(any())).thenThrow(new RejectedExecutionException("full"));
+        UtilAgentBatchEvaluator evaluator = new UtilAgentBatchEvaluator(mock(UtilAgentService.class), executor, 4);
+        List<String> questions = IntStream.range(0, 20_000).mapToObj(i -> "q" + i).toList();
+
+        UtilAgentBatchResponse batch = evaluator.evaluate(questions, 1).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Map.of("BUSY", 20_000), batch.getSummary().getByStatus());
+    }
+
+    @Test
+    void sharesConcurrentIdenticalLookups() throws Exception {
+        SharedQueryScope scope = new SharedQueryScope();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch firstLoading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread first = new Thread(() -> scope.query("SELECT 1", List.of("A"), () -> {
+            loads.incrementAndGet();
+            firstLoading.countDown();
+            awaitQuietly(release);
+            return List.of("row");
+        }));
+        first.start();
+        firstLoading.await();
+        Thread second = new Thread(() -> assertEquals(List.of("row"),
+            scope.query("SELECT 1", List.of("A"), () -> List.of("other"))));
+        second.start();
+        release.countDown();
+        first.join();
+        second.join();
+
+        assertEquals(1, loads.get());
+        assertEquals(1, scope.getSharedLookups());
+        assertEquals(List.of("fresh"), scope.query("SELECT 1", List.of("B"), () -> List.of("fresh")));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
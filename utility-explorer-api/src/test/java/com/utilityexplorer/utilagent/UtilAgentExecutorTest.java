@@ -0,0 +1,91 @@
+package com.utilityexplorer.utilagent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilAgentExecutorTest {
+
+    @Test
+    void rejectsWorkBeyondConcurrencyAndQueueLimit() throws Exception {
+        UtilAgentExecutor executor = new UtilAgentExecutor(new SimpleMeterRegistry(), 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = executor.submit(() -> {
+                awaitQuietly(release);
+                return "first";
+            });
+            CompletableFuture<String> queued = executor.submit(() -> "second");
+
+            assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> "third"));
+
+            release.countDown();
+            assertEquals("first", running.get(5, TimeUnit.SECONDS));
+            assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void cancelledQueuedTasksNeverRunAndFreeTheirSlot() throws Exception {
+        UtilAgentExecutor executor = new UtilAgentExecutor(new SimpleMeterRegistry(), 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        try {
+            CompletableFuture<String> running = executor.submit(() -> {
+                awaitQuietly(release);
+                return "first";
+            });
+            CompletableFuture<String> abandoned = executor.submit(() -> {
+                ran.set(true);
+                return "second";
+            });
+
+            abandoned.cancel(false);
+            assertEquals(0, executor.getQueuedCount());
+            CompletableFuture<String> next = executor.submit(() -> "third");
+
+            release.countDown();
+            assertEquals("first", running.get(5, TimeUnit.SECONDS));
+            assertEquals("third", next.get(5, TimeUnit.SECONDS));
+            assertFalse(ran.get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failuresSurfaceWrappedLikeSupplyAsync() {
+        UtilAgentExecutor executor = new UtilAgentExecutor(new SimpleMeterRegistry(), 1, 1);
+        try {
+            CompletableFuture<String> failed = executor.submit(() -> {
+                throw new IllegalStateException("boom");
+            });
+            ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+            assertInstanceOf(CompletionException.class, failed.handle((value, e) -> e).join());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,12 +4,30 @@ import com.utilityexplorer.dto.ApiDtos.UtilAgentResponse;
 import com.utilityexplorer.persistence.UserQueryRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -24,6 +42,27 @@ public class UtilAgentServiceTest {
     @Mock
     private UserQueryRepository userQueryRepository;
     
+    @Spy
+    private IntelligenceCircuitBreaker intelligenceCircuitBreaker = new IntelligenceCircuitBreaker(5, 30);
+
+    @Mock
+    private UserQueryLogWriter userQueryLogWriter;
+
+    @Mock
+    private MetricKeywordIndex metricKeywordIndex;
+
+    @Mock
+    private MetricEmbeddingIndex metricEmbeddingIndex;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private UtilAgentAnswerCache answerCache = new UtilAgentAnswerCache(null, new SimpleMeterRegistry(), true, 600, 100);
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     // Mock other repos if needed: FactValueRepository, etc. but they are Autowired. 
     // In unit test @InjectMocks tries to fill them.
     // If they are null, execution might fail in 'fallback' path.
@@ -36,13 +75,13 @@ public class UtilAgentServiceTest {
     void processQuery_ShouldCallPythonService_WhenUrlConfigured() {
         // Given
         // Set intelligence URL via reflection
-        org.springframework.test.util.ReflectionTestUtils.setField(
+        ReflectionTestUtils.setField(
             utilAgentService, "intelligenceUrl", "http://mock-python:8000");
 
         // Mock RestTemplate response
         Map<String, Object> mockResponse = Map.of(
             "answer", "The price is $0.15",
-            "sources", java.util.List.of()
+            "sources", List.of()
         );
         when(restTemplate.postForObject(anyString(), any(), eq(Map.class)))
             .thenReturn(mockResponse);
@@ -54,5 +93,127 @@ public class UtilAgentServiceTest {
         assertNotNull(response);
         assertEquals("The price is $0.15", response.getSummary());
         verify(restTemplate).postForObject(eq("http://mock-python:8000/query"), any(), eq(Map.class));
+        assertEquals(1, meterRegistry.get("utilagent.queries")
+            .tag("origin", "intelligence-service-v1").tag("status", "OK").timer().count());
+    }
+
+    @Test
+    void processQuery_ShouldServeRepeatedQuestionFromCache() {
+        ReflectionTestUtils.setField(
+            utilAgentService, "intelligenceUrl", "http://mock-python:8000");
+        when(restTemplate.postForObject(anyString(), any(), eq(Map.class)))
+            .thenReturn(Map.of("answer", "The price is $0.15", "sources", List.of()));
+
+        UtilAgentResponse first = utilAgentService.processQuery("What is the price?");
+        UtilAgentResponse second = utilAgentService.processQuery("  what is the PRICE ");
+
+        assertEquals(first.getSummary(), second.getSummary());
+        assertNotSame(first, second);
+        verify(restTemplate, times(1)).postForObject(anyString(), any(), eq(Map.class));
+        verify(userQueryLogWriter, times(2)).log(anyString(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void evaluateQuery_ShouldBypassCacheAndQueryLog() {
+        ReflectionTestUtils.setField(
+            utilAgentService, "intelligenceUrl", "http://mock-python:8000");
+        when(restTemplate.postForObject(anyString(), any(), eq(Map.class)))
+            .thenReturn(Map.of("answer", "The price is $0.15", "sources", List.of()));
+
+        utilAgentService.processQuery("What is the price?");
+        UtilAgentResponse evaluated = utilAgentService.evaluateQuery("What is the price?");
+
+        assertEquals("The price is $0.15", evaluated.getSummary());
+        assertNull(evaluated.getQueryId());
+        verify(restTemplate, times(2)).postForObject(anyString(), any(), eq(Map.class));
+        verify(userQueryLogWriter, times(1)).log(anyString(), any(), any(), anyBoolean());
+        assertEquals(1, meterRegistry.get("utilagent.queries").timer().count());
+    }
+
+    @Test
+    void processQuery_ShouldNotCountClientErrorsAgainstTheCircuit() {
+        ReflectionTestUtils.setField(utilAgentService, "intelligenceUrl", "http://mock-python:8000");
+        when(restTemplate.postForObject(anyString(), any(), eq(Map.class)))
+            .thenThrow(new HttpClientErrorException(HttpStatus.UNPROCESSABLE_ENTITY));
+
+        for (int i = 0; i < 10; i++) {
+            utilAgentService.processQuery("question " + i);
+        }
+
+        verify(intelligenceCircuitBreaker, never()).recordFailure();
+        verify(intelligenceCircuitBreaker, times(10)).recordIgnored();
+        assertEquals(IntelligenceCircuitBreaker.State.CLOSED, intelligenceCircuitBreaker.getState());
+    }
+
+    @Test
+    void processQuery_ShouldCancelTheLosingIntelligenceCallWhenHedged() throws Exception {
+        ExecutorService hedgeExecutor = Executors.newFixedThreadPool(2);
+        try {
+            enableHedging(hedgeExecutor);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            when(restTemplate.postForObject(anyString(), any(), eq(Map.class))).thenAnswer(invocation -> {
+                try {
+                    Thread.sleep(10_000);
+                    return Map.of("answer", "late");
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    Thread.currentThread().interrupt();
+                    throw new ResourceAccessException("I/O interrupted");
+                }
+            });
+            stubDeterministicAnswer();
+
+            UtilAgentResponse response = utilAgentService.processQuery("cheapest electricity");
+
+            assertEquals("deterministic", response.getResponseOrigin());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS), "losing GenAI call was not cancelled");
+            verify(intelligenceCircuitBreaker, never()).recordFailure();
+        } finally {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void evaluateQuery_ShouldShareBatchLookupsWhenHedged() {
+        ExecutorService hedgeExecutor = Executors.newFixedThreadPool(2);
+        try {
+            enableHedging(hedgeExecutor);
+            when(restTemplate.postForObject(anyString(), any(), eq(Map.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+            stubDeterministicAnswer();
+            SharedQueryScope scope = new SharedQueryScope();
+
+            UtilAgentResponse first = scope.run(() -> utilAgentService.evaluateQuery("cheapest electricity"));
+            UtilAgentResponse second = scope.run(() -> utilAgentService.evaluateQuery("lowest electricity price"));
+
+            assertEquals("deterministic", first.getResponseOrigin());
+            assertEquals("deterministic", second.getResponseOrigin());
+            verify(jdbcTemplate, times(1)).query(anyString(), ArgumentMatchers.<RowMapper<Object>>any(), any(Object[].class));
+            assertEquals(1, scope.getSharedLookups());
+        } finally {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    private void enableHedging(ExecutorService hedgeExecutor) {
+        ReflectionTestUtils.setField(utilAgentService, "intelligenceUrl", "http://mock-python:8000");
+        ReflectionTestUtils.setField(utilAgentService, "hedgeEnabled", true);
+        ReflectionTestUtils.setField(utilAgentService, "hedgeBudgetMs", 50L);
+        ReflectionTestUtils.setField(utilAgentService, "hedgeExecutor", hedgeExecutor);
+    }
+
+    private void stubDeterministicAnswer() {
+        when(metricKeywordIndex.match(anyString()))
+            .thenReturn(List.of(new MetricKeywordIndex.MetricMatch("ELECTRICITY_RETAIL_PRICE", "EIA", 2.0)));
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Object>>any(), any(Object[].class)))
+            .thenAnswer(invocation -> {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("geo_id")).thenReturn("20");
+                when(rs.getString("region_name")).thenReturn("Kansas");
+                when(rs.getBigDecimal("v0")).thenReturn(new BigDecimal("12.5"));
+                when(rs.getDate("s0")).thenReturn(Date.valueOf(LocalDate.of(2024, 1, 1)));
+                RowMapper<Object> mapper = invocation.getArgument(1);
+                return List.of(mapper.mapRow(rs, 0));
+            });
     }
 }
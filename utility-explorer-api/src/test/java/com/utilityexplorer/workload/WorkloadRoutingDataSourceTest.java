@@ -0,0 +1,223 @@
+package com.utilityexplorer.workload;
+
+import com.utilityexplorer.replica.ReplicaRead;
+import com.utilityexplorer.replica.ReplicaReadAspect;
+import com.utilityexplorer.replica.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WorkloadRoutingDataSourceTest {
+
+    private final WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource(pools());
+
+    @AfterEach
+    void close() {
+        dataSource.close();
+    }
+
+    @Test
+    void routesEachWorkloadToItsOwnPool() {
+        assertSame(dataSource.pool(Workload.INTERACTIVE), target());
+        assertSame(dataSource.pool(Workload.AGENT), Workload.AGENT.call(this::target));
+        assertSame(dataSource.pool(Workload.INGESTION), Workload.INGESTION.call(this::target));
+    }
+
+    @Test
+    void markedBlocksRestoreTheOuterWorkload() {
+        Workload.INGESTION.run(() -> {
+            Workload.AGENT.run(() -> assertEquals(Workload.AGENT, Workload.current()));
+            assertEquals(Workload.INGESTION, Workload.current());
+        });
+        assertEquals(Workload.INTERACTIVE, Workload.current());
+    }
+
+    @Test
+    void threadFactoryPinsPoolThreadsToTheWorkload() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+            Workload.INGESTION.threadFactory(Executors.defaultThreadFactory()));
+        try {
+            assertEquals(Workload.INGESTION, executor.submit(Workload::current).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void onlyReadOnlyReplicaReadTransactionsAskForAReplica() {
+        ReplicaSet replicas = mock(ReplicaSet.class);
+        when(replicas.dataSources()).thenReturn(Map.of("replica-0", new HikariDataSource()));
+        when(replicas.select()).thenReturn("replica-0", (String) null);
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(pools(), replicas);
+        Supplier<Object> key = replicaRead(routing::determineCurrentLookupKey);
+        try {
+            assertEquals(Workload.INTERACTIVE, key.get());
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            assertEquals(Workload.INTERACTIVE, routing.determineCurrentLookupKey());
+            verify(replicas, never()).select();
+
+            assertEquals("replica-0", key.get());
+            // No replica fresh enough
+            assertEquals(Workload.INTERACTIVE, key.get());
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            routing.close();
+        }
+    }
+
+    @Test
+    void replicaReadThenWriteInOneRequestReleasesTheReplicaBeforeWriting() throws SQLException {
+        HikariDataSource replicaPool = pool("replica-0");
+        Connection replicaConnection = connection(replicaPool);
+        HikariDataSource primaryPool = pool(Workload.INTERACTIVE.id());
+        Connection primaryConnection = connection(primaryPool);
+        Map<Workload, HikariDataSource> pools = pools();
+        pools.put(Workload.INTERACTIVE, primaryPool);
+        ReplicaSet replicas = mock(ReplicaSet.class);
+        when(replicas.dataSources()).thenReturn(Map.of("replica-0", replicaPool));
+        when(replicas.select()).thenReturn("replica-0");
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(pools, replicas);
+
+        // Wired as in WorkloadDataSourceConfig; open-in-view is off, so no session spans the request
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionInterceptor transactions = new TransactionInterceptor(
+            new DataSourceTransactionManager(dataSource), new AnnotationTransactionAttributeSource());
+        Reads reads = proxy(new ReplicaReads(jdbcTemplate), transactions);
+        Writes writes = proxy(new PrimaryWrites(jdbcTemplate), transactions);
+
+        try {
+            reads.read();
+            writes.write();
+        } finally {
+            routing.close();
+        }
+
+        InOrder order = inOrder(replicaPool, replicaConnection, primaryPool, primaryConnection);
+        order.verify(replicaPool).getConnection();
+        order.verify(replicaConnection).close();
+        order.verify(primaryPool).getConnection();
+        order.verify(primaryConnection).commit();
+        order.verify(primaryConnection).close();
+        verify(replicaConnection, times(1)).createStatement();
+        verify(primaryConnection, times(1)).createStatement();
+        verify(replicas, times(1)).select();
+    }
+
+    interface Reads {
+        void read();
+    }
+
+    interface Writes {
+        void write();
+    }
+
+    @ReplicaRead
+    static class ReplicaReads implements Reads {
+        private final JdbcTemplate jdbcTemplate;
+
+        ReplicaReads(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        @Transactional(readOnly = true)
+        public void read() {
+            jdbcTemplate.execute("SELECT 1");
+        }
+    }
+
+    static class PrimaryWrites implements Writes {
+        private final JdbcTemplate jdbcTemplate;
+
+        PrimaryWrites(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        @Transactional
+        public void write() {
+            jdbcTemplate.execute("UPDATE source SET name = name");
+        }
+    }
+
+    private static <T> T proxy(Object target, TransactionInterceptor transactions) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new ReplicaReadAspect());
+        factory.addAdvice(transactions);
+        return factory.getProxy();
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.toString()).thenReturn(name);
+        return pool;
+    }
+
+    private static Connection connection(HikariDataSource pool) throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(pool.getConnection()).thenReturn(connection);
+        return connection;
+    }
+
+    private static Supplier<Object> replicaRead(Supplier<Object> delegate) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new ReplicaReader(delegate));
+        factory.addAspect(new ReplicaReadAspect());
+        return factory.getProxy();
+    }
+
+    @ReplicaRead
+    static class ReplicaReader implements Supplier<Object> {
+        private final Supplier<Object> delegate;
+
+        ReplicaReader(Supplier<Object> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object get() {
+            return delegate.get();
+        }
+    }
+
+    private DataSource target() {
+        return dataSource.getResolvedDataSources().get(dataSource.determineCurrentLookupKey());
+    }
+
+    // Hikari pools connect lazily, so these never touch a database
+    private static Map<Workload, HikariDataSource> pools() {
+        Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(workload.id());
+            pools.put(workload, pool);
+        }
+        return pools;
+    }
+}
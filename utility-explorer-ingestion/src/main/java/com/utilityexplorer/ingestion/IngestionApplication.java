@@ -1,20 +1,27 @@
 package com.utilityexplorer.ingestion;
 
+import com.utilityexplorer.ingestion.batch.BatchIngestionRunner;
+import com.utilityexplorer.ingestion.batch.IngestionRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableScheduling
 @ComponentScan(basePackages = "com.utilityexplorer")
 @EntityScan(basePackages = "com.utilityexplorer.shared.persistence")
 @EnableJpaRepositories(basePackages = "com.utilityexplorer.shared.persistence")
+@ImportRuntimeHints(IngestionRuntimeHints.class)
 public class IngestionApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(IngestionApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(IngestionApplication.class, args);
+        // A batch run is finished once the context has started; exit with its status
+        if (context.getBeanProvider(BatchIngestionRunner.class).getIfAvailable() != null) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 }
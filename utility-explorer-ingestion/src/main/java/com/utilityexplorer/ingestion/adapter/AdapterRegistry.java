@@ -3,10 +3,12 @@ package com.utilityexplorer.ingestion.adapter;
 import com.utilityexplorer.shared.adapter.IngestionAdapter;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class AdapterRegistry {
@@ -24,4 +26,8 @@ public class AdapterRegistry {
     public Optional<IngestionAdapter> getAdapter(String adapterId) {
         return Optional.ofNullable(adapterMap.get(adapterId));
     }
+
+    public Set<String> getAdapterIds() {
+        return Collections.unmodifiableSet(adapterMap.keySet());
+    }
 }
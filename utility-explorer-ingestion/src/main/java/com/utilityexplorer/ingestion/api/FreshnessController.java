@@ -0,0 +1,29 @@
+package com.utilityexplorer.ingestion.api;
+
+import com.utilityexplorer.ingestion.freshness.PipelineFreshnessMonitor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/ingestion")
+@Tag(name = "Ingestion", description = "Pipeline health")
+public class FreshnessController {
+
+    private final PipelineFreshnessMonitor freshnessMonitor;
+
+    public FreshnessController(PipelineFreshnessMonitor freshnessMonitor) {
+        this.freshnessMonitor = freshnessMonitor;
+    }
+
+    @GetMapping("/freshness")
+    @Operation(
+        summary = "Data freshness and pipeline lag",
+        description = "Per metric: last fact write (from fact_watermark), seconds since then, and fetch-to-write / publish-to-write lag percentiles since this instance started. Also the ingestion consumer group's lag behind the topic. Refreshed every INGESTION_FRESHNESS_REFRESH_MS."
+    )
+    public PipelineFreshnessMonitor.FreshnessReport freshness() {
+        return freshnessMonitor.report();
+    }
+}
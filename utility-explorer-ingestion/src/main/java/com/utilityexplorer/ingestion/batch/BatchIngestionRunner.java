@@ -0,0 +1,106 @@
+package com.utilityexplorer.ingestion.batch;
+
+import com.utilityexplorer.ingestion.adapter.AdapterRegistry;
+import com.utilityexplorer.ingestion.scheduler.IngestionScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Run-once ingestion ({@code INGESTION_MODE=batch}): collects the selected adapters' metrics,
+ * flushes the Kafka producer and reports an exit code, after which the application exits.
+ *
+ * Adapters come from {@code --adapters=EIA_API,ACS_API} or {@code INGESTION_BATCH_ADAPTERS}; when
+ * neither is set every registered adapter runs. Exit codes: 0 when every run and send succeeded,
+ * 1 when a run threw (adapters throw on upstream HTTP and parse errors) or a record failed to
+ * send, 2 when an unknown adapter was requested.
+ */
+@Component
+@ConditionalOnProperty(name = "INGESTION_MODE", havingValue = "batch")
+public class BatchIngestionRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchIngestionRunner.class);
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private final IngestionScheduler scheduler;
+    private final AdapterRegistry adapterRegistry;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final BatchSendListener sendListener;
+    private final String configuredAdapters;
+
+    private int exitCode = EXIT_OK;
+
+    public BatchIngestionRunner(IngestionScheduler scheduler,
+                                AdapterRegistry adapterRegistry,
+                                KafkaTemplate<String, Object> kafkaTemplate,
+                                BatchSendListener sendListener,
+                                @Value("${INGESTION_BATCH_ADAPTERS:}") String configuredAdapters) {
+        this.scheduler = scheduler;
+        this.adapterRegistry = adapterRegistry;
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendListener = sendListener;
+        this.configuredAdapters = configuredAdapters;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Set<String> selected = selectAdapters(args);
+        Set<String> unknown = new LinkedHashSet<>(selected);
+        unknown.removeAll(adapterRegistry.getAdapterIds());
+        if (!unknown.isEmpty()) {
+            log.error("Unknown adapters {}; registered adapters are {}", unknown, adapterRegistry.getAdapterIds());
+            exitCode = EXIT_USAGE;
+            return;
+        }
+
+        long start = System.nanoTime();
+        log.info("Batch ingestion starting for adapters {}", selected);
+        int failedRuns;
+        try {
+            failedRuns = scheduler.runCycle(selected::contains);
+        } catch (RuntimeException e) {
+            log.error("Batch ingestion aborted", e);
+            failedRuns = 1;
+        } finally {
+            // Adapters send asynchronously; wait for every record to be acknowledged or failed
+            kafkaTemplate.flush();
+        }
+        int failedSends = sendListener.getFailures();
+
+        exitCode = failedRuns > 0 || failedSends > 0 ? EXIT_FAILED : EXIT_OK;
+        log.info("Batch ingestion finished in {} ms: {} failed runs, {} failed sends, exit code {}",
+            (System.nanoTime() - start) / 1_000_000, failedRuns, failedSends, exitCode);
+    }
+
+    private Set<String> selectAdapters(ApplicationArguments args) {
+        List<String> requested = args.containsOption("adapters")
+            ? args.getOptionValues("adapters")
+            : List.of(configuredAdapters);
+        Set<String> selected = new LinkedHashSet<>();
+        requested.stream()
+            .flatMap(value -> Arrays.stream(value.split(",")))
+            .map(String::trim)
+            .filter(id -> !id.isEmpty())
+            .forEach(selected::add);
+        return selected.isEmpty() ? new LinkedHashSet<>(adapterRegistry.getAdapterIds()) : selected;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
@@ -0,0 +1,39 @@
+package com.utilityexplorer.ingestion.batch;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Strips the service-only parts of the context when {@code INGESTION_MODE=batch}: no embedded web
+ * server and no Kafka consumer, so a job only produces and the running service does the writes.
+ * Added last, so explicit settings still win.
+ *
+ * Any other value than "service" or "batch" fails startup: neither the schedulers nor the batch
+ * runner would match it, and the process would sit idle instead of ingesting.
+ */
+public class BatchModeEnvironment implements EnvironmentPostProcessor {
+
+    static final String MODE_PROPERTY = "INGESTION_MODE";
+
+    /**
+     * @throws IllegalStateException if {@code INGESTION_MODE} is set to an unknown mode
+     */
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String mode = environment.getProperty(MODE_PROPERTY);
+        if (mode == null || "service".equalsIgnoreCase(mode)) {
+            return;
+        }
+        if (!"batch".equalsIgnoreCase(mode)) {
+            throw new IllegalStateException("Unknown " + MODE_PROPERTY + " '" + mode + "'; expected 'service' or 'batch'");
+        }
+        environment.getPropertySources().addLast(new MapPropertySource("ingestionBatchMode", Map.of(
+            "spring.main.web-application-type", "none",
+            "spring.kafka.listener.auto-startup", "false"
+        )));
+    }
+}
@@ -0,0 +1,31 @@
+package com.utilityexplorer.ingestion.batch;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.LoggingProducerListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts failed sends in a batch run. Adapters publish without waiting on the send result, so the
+ * producer callbacks are the only place a job learns that records never reached the topic. Replaces
+ * Boot's default listener on the KafkaTemplate and keeps its error logging.
+ */
+@Component
+@ConditionalOnProperty(name = "INGESTION_MODE", havingValue = "batch")
+public class BatchSendListener extends LoggingProducerListener<Object, Object> {
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Override
+    public void onError(ProducerRecord<Object, Object> record, RecordMetadata recordMetadata, Exception exception) {
+        failures.incrementAndGet();
+        super.onError(record, recordMetadata, exception);
+    }
+
+    public int getFailures() {
+        return failures.get();
+    }
+}
@@ -0,0 +1,33 @@
+package com.utilityexplorer.ingestion.batch;
+
+import com.utilityexplorer.shared.dto.IngestionEvent;
+import com.utilityexplorer.shared.dto.MetricDefinition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Native-image hints for what Spring's AOT processing cannot see: the DTOs Jackson serializes onto
+ * the topics, the Kafka (de)serializers named as strings in application.yml, and the metric catalog
+ * read from the classpath. Adapters only parse upstream JSON as trees and need no hints.
+ */
+public class IngestionRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+            IngestionEvent.class, MetricDefinition.class);
+
+        for (Class<?> serde : new Class<?>[] {
+                StringSerializer.class, StringDeserializer.class, JsonSerializer.class, JsonDeserializer.class}) {
+            hints.reflection().registerType(serde, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        hints.resources().registerPattern("config/metrics.yaml");
+    }
+}
@@ -0,0 +1,15 @@
+package com.utilityexplorer.ingestion.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on the collection cycle and freshness refresh for the long-running service. A run-once
+ * batch ({@code INGESTION_MODE=batch}) drives collection itself and must not start the schedulers.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "INGESTION_MODE", havingValue = "service", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,253 @@
+package com.utilityexplorer.ingestion.freshness;
+
+import com.utilityexplorer.shared.dto.IngestionEvent;
+import com.utilityexplorer.shared.persistence.FactWatermark;
+import com.utilityexplorer.shared.persistence.FactWatermarkRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks how long upstream data takes to become queryable, and whether it is still arriving.
+ *
+ * <ul>
+ *   <li>{@code ingestion.pipeline.lag{metric, stage}}: per fact at write time, from the adapter's
+ *       fetch ({@code fetch_to_write}) and from its Kafka send ({@code publish_to_write}).</li>
+ *   <li>{@code ingestion.freshness{metric}}: seconds since the metric last had a fact written,
+ *       read from fact_watermark so it survives restarts and covers writes from any service.</li>
+ *   <li>{@code ingestion.consumer.lag{topic, group}}: committed offsets behind the log end,
+ *       measured through the admin client so it keeps reporting when the consumer is stalled.</li>
+ * </ul>
+ */
+@Component
+public class PipelineFreshnessMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineFreshnessMonitor.class);
+
+    static final String STAGE_FETCH = "fetch_to_write";
+    static final String STAGE_PUBLISH = "publish_to_write";
+
+    private static final Duration ADMIN_TIMEOUT = Duration.ofSeconds(5);
+
+    public record LagStats(long count, Double p50Ms, Double p95Ms, Double p99Ms, double maxMs) {}
+
+    public record MetricFreshness(String metricId, Instant lastWrittenAt, Long freshnessSeconds,
+                                  LocalDate latestPeriodStart, LagStats fetchToWrite, LagStats publishToWrite) {}
+
+    public record ConsumerLag(String topic, String groupId, Long totalLag, Map<Integer, Long> partitions,
+                              Instant measuredAt, String error) {}
+
+    public record FreshnessReport(Instant generatedAt, ConsumerLag consumerLag, List<MetricFreshness> metrics) {}
+
+    private record MetricWatermark(Instant lastWrittenAt, LocalDate latestPeriodStart) {}
+
+    private final MeterRegistry meterRegistry;
+    private final FactWatermarkRepository factWatermarkRepository;
+    private final KafkaAdmin kafkaAdmin;
+    private final String topic;
+    private final String groupId;
+    private final Clock clock;
+
+    private final Map<String, Timer> lagTimers = new ConcurrentHashMap<>();
+    private final MultiGauge freshness;
+    private volatile Map<String, MetricWatermark> watermarks = Map.of();
+    private volatile ConsumerLag consumerLag;
+    private AdminClient adminClient;
+
+    public PipelineFreshnessMonitor(MeterRegistry meterRegistry,
+                                    FactWatermarkRepository factWatermarkRepository,
+                                    KafkaAdmin kafkaAdmin,
+                                    @Value("${ingestion.kafka.topic:raw-utility-data}") String topic,
+                                    @Value("${spring.kafka.consumer.group-id:ingestion-group}") String groupId) {
+        this(meterRegistry, factWatermarkRepository, kafkaAdmin, topic, groupId, Clock.systemUTC());
+    }
+
+    PipelineFreshnessMonitor(MeterRegistry meterRegistry, FactWatermarkRepository factWatermarkRepository,
+                             KafkaAdmin kafkaAdmin, String topic, String groupId, Clock clock) {
+        this.meterRegistry = meterRegistry;
+        this.factWatermarkRepository = factWatermarkRepository;
+        this.kafkaAdmin = kafkaAdmin;
+        this.topic = topic;
+        this.groupId = groupId;
+        this.clock = clock;
+        this.consumerLag = new ConsumerLag(topic, groupId, null, Map.of(), null, "not measured yet");
+        this.freshness = MultiGauge.builder("ingestion.freshness")
+            .description("Seconds since a fact was last written for the metric")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("ingestion.consumer.lag", this, monitor -> {
+                Long total = monitor.consumerLag.totalLag();
+                return total == null ? Double.NaN : total;
+            })
+            .description("Records the ingestion consumer group has yet to commit")
+            .tags("topic", topic, "group", groupId)
+            .register(meterRegistry);
+    }
+
+    /** Records pipeline lag for one fact that has just been written. */
+    public void recordWrite(IngestionEvent event, Instant writtenAt) {
+        if (event.getFetchedAt() != null) {
+            lagTimer(event.getMetricId(), STAGE_FETCH).record(Duration.between(event.getFetchedAt(), writtenAt));
+        }
+        if (event.getPublishedAt() != null) {
+            lagTimer(event.getMetricId(), STAGE_PUBLISH).record(Duration.between(event.getPublishedAt(), writtenAt));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${INGESTION_FRESHNESS_REFRESH_MS:30000}", initialDelay = 5000)
+    public void refresh() {
+        refreshWatermarks();
+        refreshConsumerLag();
+    }
+
+    public FreshnessReport report() {
+        Instant now = clock.instant();
+        List<MetricFreshness> metrics = new ArrayList<>();
+        for (Map.Entry<String, MetricWatermark> entry : new TreeMap<>(watermarks).entrySet()) {
+            MetricWatermark watermark = entry.getValue();
+            metrics.add(new MetricFreshness(entry.getKey(), watermark.lastWrittenAt(),
+                Duration.between(watermark.lastWrittenAt(), now).toSeconds(), watermark.latestPeriodStart(),
+                lagStats(entry.getKey(), STAGE_FETCH), lagStats(entry.getKey(), STAGE_PUBLISH)));
+        }
+        return new FreshnessReport(now, consumerLag, metrics);
+    }
+
+    void refreshWatermarks() {
+        try {
+            // One entry per metric: its most recent write across sources and geo levels
+            Map<String, MetricWatermark> latest = factWatermarkRepository.findAll().stream()
+                .collect(Collectors.toMap(FactWatermark::getMetricId,
+                    w -> new MetricWatermark(w.getLastWrittenAt(), w.getLatestPeriodStart()),
+                    (a, b) -> new MetricWatermark(
+                        a.lastWrittenAt().isAfter(b.lastWrittenAt()) ? a.lastWrittenAt() : b.lastWrittenAt(),
+                        a.latestPeriodStart().isAfter(b.latestPeriodStart()) ? a.latestPeriodStart() : b.latestPeriodStart())));
+            watermarks = latest;
+            freshness.register(latest.keySet().stream()
+                .map(metricId -> MultiGauge.Row.of(Tags.of("metric", metricId), this,
+                    monitor -> monitor.freshnessSeconds(metricId)))
+                .collect(Collectors.toList()), true);
+        } catch (Exception e) {
+            logger.warn("Failed to refresh fact watermarks: {}", e.getMessage());
+        }
+    }
+
+    void refreshConsumerLag() {
+        Instant now = clock.instant();
+        try {
+            AdminClient admin = adminClient();
+            TopicDescription description = admin.describeTopics(List.of(topic)).allTopicNames()
+                .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).get(topic);
+            List<TopicPartition> partitions = description.partitions().stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .toList();
+            Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end = listOffsets(admin, partitions, OffsetSpec.latest());
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> start = listOffsets(admin, partitions, OffsetSpec.earliest());
+
+            Map<Integer, Long> lagByPartition = new TreeMap<>();
+            long total = 0;
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata commit = committed.get(partition);
+                // Without a commit the group starts from the earliest retained offset
+                long position = commit != null ? commit.offset() : start.get(partition).offset();
+                long lag = Math.max(0, end.get(partition).offset() - position);
+                lagByPartition.put(partition.partition(), lag);
+                total += lag;
+            }
+            consumerLag = new ConsumerLag(topic, groupId, total, lagByPartition, now, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            consumerLag = new ConsumerLag(topic, groupId, null, Map.of(), now, e.getMessage());
+        }
+    }
+
+    private Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> listOffsets(
+            AdminClient admin, List<TopicPartition> partitions, OffsetSpec spec) throws Exception {
+        return admin.listOffsets(partitions.stream().collect(Collectors.toMap(Function.identity(), p -> spec)))
+            .all().get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized AdminClient adminClient() {
+        if (adminClient == null) {
+            adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        }
+        return adminClient;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (adminClient != null) {
+            adminClient.close(ADMIN_TIMEOUT);
+        }
+    }
+
+    private double freshnessSeconds(String metricId) {
+        MetricWatermark watermark = watermarks.get(metricId);
+        return watermark == null ? Double.NaN : Duration.between(watermark.lastWrittenAt(), clock.instant()).toSeconds();
+    }
+
+    private Timer lagTimer(String metricId, String stage) {
+        return lagTimers.computeIfAbsent(metricId + "|" + stage, key -> Timer.builder("ingestion.pipeline.lag")
+            .description("Time from upstream fetch or Kafka publish until the fact is written")
+            .tags("metric", metricId, "stage", stage)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(10))
+            .maximumExpectedValue(Duration.ofHours(1))
+            .register(meterRegistry));
+    }
+
+    private LagStats lagStats(String metricId, String stage) {
+        Timer timer = lagTimers.get(metricId + "|" + stage);
+        if (timer == null) {
+            return null;
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Double p50 = null;
+        Double p95 = null;
+        Double p99 = null;
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            double ms = value.value(TimeUnit.MILLISECONDS);
+            if (value.percentile() == 0.5) {
+                p50 = ms;
+            } else if (value.percentile() == 0.95) {
+                p95 = ms;
+            } else if (value.percentile() == 0.99) {
+                p99 = ms;
+            }
+        }
+        return new LagStats(snapshot.count(), p50, p95, p99, snapshot.max(TimeUnit.MILLISECONDS));
+    }
+}
@@ -1,47 +1,136 @@
 package com.utilityexplorer.ingestion.listener;
 
+import com.utilityexplorer.ingestion.freshness.PipelineFreshnessMonitor;
 import com.utilityexplorer.shared.dto.IngestionEvent;
+import com.utilityexplorer.shared.jfr.ListenerBatchEvent;
 import com.utilityexplorer.shared.persistence.FactValue;
-import com.utilityexplorer.shared.persistence.FactValueRepository;
+import com.utilityexplorer.shared.persistence.FactValueWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Writes ingestion events to fact_value, one poll's worth of records at a time.
+ *
+ * Each batch is upserted by {@link FactValueWriter} in a single statement; if that fails, its
+ * records are retried one by one so a single bad record does not drop the rest. Records/sec is the
+ * rate of {@code ingestion.listener.records}.
+ *
+ * Under the OpenTelemetry agent, each batch runs in a Kafka process span linked to the
+ * {@code ingestion.collect} spans that produced its records (trace context travels in the
+ * record headers), and the database write is its {@code fact_value.write} child.
+ *
+ * Facts take retrievedAt from the adapter's fetch time, and pipeline lag is recorded per written
+ * fact through {@link PipelineFreshnessMonitor}.
+ */
 @Component
 public class KafkaIngestionListener {
 
-    private final FactValueRepository factValueRepository;
+    private static final Logger logger = LoggerFactory.getLogger(KafkaIngestionListener.class);
 
-    public KafkaIngestionListener(FactValueRepository factValueRepository) {
-        this.factValueRepository = factValueRepository;
+    private final FactValueWriter factValueWriter;
+    private final PipelineFreshnessMonitor freshnessMonitor;
+    private final Counter saved;
+    private final Counter failed;
+    private final DistributionSummary batchSize;
+    private final Timer writeLatency;
+
+    public KafkaIngestionListener(FactValueWriter factValueWriter, PipelineFreshnessMonitor freshnessMonitor,
+                                  MeterRegistry meterRegistry) {
+        this.factValueWriter = factValueWriter;
+        this.freshnessMonitor = freshnessMonitor;
+        this.saved = Counter.builder("ingestion.listener.records").tag("outcome", "saved")
+            .description("Ingestion events consumed").register(meterRegistry);
+        this.failed = Counter.builder("ingestion.listener.records").tag("outcome", "failed")
+            .description("Ingestion events consumed").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("ingestion.listener.batch.size")
+            .description("Records per consumed batch").register(meterRegistry);
+        this.writeLatency = Timer.builder("ingestion.listener.write")
+            .description("Time to write one consumed batch").register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "${ingestion.kafka.topic:raw-utility-data}", groupId = "${spring.kafka.consumer.group-id:ingestion-group}", batch = "true")
+    public void listen(List<ConsumerRecord<String, IngestionEvent>> records) {
+        batchSize.record(records.size());
+        Instant consumedAt = Instant.now();
+        List<FactValue> facts = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, IngestionEvent> record : records) {
+            facts.add(toFact(record.value(), consumedAt));
+        }
+
+        writeLatency.record(() -> write(records, facts));
     }
 
-    @KafkaListener(topics = "${ingestion.kafka.topic:raw-utility-data}", groupId = "${spring.kafka.consumer.group-id:ingestion-group}")
-    public void listen(IngestionEvent event) {
+    @WithSpan("fact_value.write")
+    private void write(List<ConsumerRecord<String, IngestionEvent>> records, List<FactValue> facts) {
+        Span.current().setAttribute("ingestion.batch.size", facts.size());
+        ListenerBatchEvent batch = new ListenerBatchEvent();
+        batch.begin();
+        batch.records = facts.size();
         try {
-            System.out.println("Received event: " + event.getMetricId() + " - " + event.getValue());
-
-            FactValue fact = new FactValue();
-            fact.setMetricId(event.getMetricId());
-            fact.setSourceId(event.getSourceId());
-            fact.setGeoLevel(event.getGeoLevel());
-            fact.setGeoId(event.getGeoId());
-            fact.setPeriodStart(event.getPeriodStart());
-            fact.setPeriodEnd(event.getPeriodEnd());
-            fact.setValueNumeric(event.getValue());
-            fact.setIsAggregated(event.isAggregated());
-            fact.setAggregationMethod(event.getAggregationMethod());
-            
-            fact.setRetrievedAt(Instant.now());
-            // In a real scenario, source published date might come from the event payload
-            fact.setSourcePublishedAt(Instant.now()); 
-
-            factValueRepository.save(fact);
+            factValueWriter.write(facts);
+            saved.increment(facts.size());
+            batch.saved = facts.size();
+            Instant writtenAt = Instant.now();
+            records.forEach(record -> freshnessMonitor.recordWrite(record.value(), writtenAt));
+        } catch (Exception e) {
+            ConsumerRecord<String, IngestionEvent> first = records.get(0);
+            logger.warn("Batch write of {} ingestion events from {}-{} offset {} failed ({}). Retrying individually.",
+                facts.size(), first.topic(), first.partition(), first.offset(), e.getMessage());
+            batch.retried = true;
+            for (int i = 0; i < facts.size(); i++) {
+                if (saveOne(records.get(i), facts.get(i))) {
+                    batch.saved++;
+                } else {
+                    batch.failed++;
+                }
+            }
+        }
+        batch.commit();
+    }
 
+    private boolean saveOne(ConsumerRecord<String, IngestionEvent> record, FactValue fact) {
+        try {
+            factValueWriter.write(List.of(fact));
+            saved.increment();
+            freshnessMonitor.recordWrite(record.value(), Instant.now());
+            return true;
         } catch (Exception e) {
-            System.err.println("Error processing ingestion event: " + e.getMessage());
-            e.printStackTrace();
+            failed.increment();
+            logger.error("Dropped ingestion event key={} {}-{} offset {} ({}/{}): {}", record.key(), record.topic(),
+                record.partition(), record.offset(), fact.getMetricId(), fact.getGeoId(), e.getMessage());
+            return false;
         }
     }
+
+    private static FactValue toFact(IngestionEvent event, Instant consumedAt) {
+        FactValue fact = new FactValue();
+        fact.setMetricId(event.getMetricId());
+        fact.setSourceId(event.getSourceId());
+        fact.setGeoLevel(event.getGeoLevel());
+        fact.setGeoId(event.getGeoId());
+        fact.setPeriodStart(event.getPeriodStart());
+        fact.setPeriodEnd(event.getPeriodEnd());
+        fact.setValueNumeric(event.getValue());
+        fact.setIsAggregated(event.isAggregated());
+        fact.setAggregationMethod(event.getAggregationMethod());
+
+        // Events from producers that predate the pipeline timestamps fall back to consumption time
+        fact.setRetrievedAt(event.getFetchedAt() != null ? event.getFetchedAt() : consumedAt);
+        // Only set when the upstream source reports its own publication time
+        fact.setSourcePublishedAt(event.getSourcePublishedAt());
+        return fact;
+    }
 }
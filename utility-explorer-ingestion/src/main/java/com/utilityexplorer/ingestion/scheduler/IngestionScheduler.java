@@ -3,14 +3,20 @@ package com.utilityexplorer.ingestion.scheduler;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.utilityexplorer.ingestion.adapter.AdapterRegistry;
 import com.utilityexplorer.shared.adapter.IngestionAdapter;
+import com.utilityexplorer.shared.jfr.SourceRunEvent;
 import com.utilityexplorer.shared.persistence.Metric;
 import com.utilityexplorer.shared.persistence.MetricRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 @Service
 public class IngestionScheduler {
@@ -20,44 +26,84 @@ public class IngestionScheduler {
 
     @Autowired
     private AdapterRegistry adapterRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
     
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // Run every 60 seconds for demo purposes
     @Scheduled(fixedDelay = 60000)
     public void runIngestionCycle() {
+        runCycle(adapterId -> true);
+    }
+
+    /**
+     * Collects every metric whose adapter passes the filter and returns how many of those runs failed.
+     * Metrics without an ingestion config or with an unregistered adapter are skipped, not failed.
+     */
+    public int runCycle(Predicate<String> adapterFilter) {
         System.out.println("Starting Ingestion Cycle...");
         
         Iterable<Metric> metrics = metricRepository.findAll();
+        int failures = 0;
         
         for (Metric metric : metrics) {
-            triggerIngestionForMetric(metric);
+            if (!triggerIngestionForMetric(metric, adapterFilter)) {
+                failures++;
+            }
         }
         
         System.out.println("Ingestion Cycle Complete.");
+        return failures;
     }
 
-    private void triggerIngestionForMetric(Metric metric) {
+    private boolean triggerIngestionForMetric(Metric metric, Predicate<String> adapterFilter) {
         String configJson = metric.getIngestionConfigJson();
-        if (configJson == null) return;
+        if (configJson == null) return true;
 
         try {
             Map<String, Object> config = objectMapper.readValue(configJson, Map.class);
             String adapterId = (String) config.get("adapter");
 
-            if (adapterId != null) {
+            if (adapterId != null && adapterFilter.test(adapterId)) {
                 Optional<IngestionAdapter> adapterOpt = adapterRegistry.getAdapter(adapterId);
                 adapterOpt.ifPresentOrElse(
                     adapter -> {
                         System.out.println("Dispatching job for metric: " + metric.getMetricId() + " to adapter: " + adapterId);
-                        adapter.collect(metric);
+                        collect(adapter, metric);
                     },
                     () -> System.out.println("No adapter found for ID: " + adapterId)
                 );
             }
+            return true;
         } catch (Exception e) {
             System.err.println("Error processing metric: " + metric.getMetricId());
             e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Parent of the adapter's HTTP fetch and Kafka sends; the agent carries it to the listener in record headers
+    @WithSpan("ingestion.collect")
+    private void collect(IngestionAdapter adapter, Metric metric) {
+        Span.current().setAttribute("ingestion.adapter", adapter.getAdapterId());
+        Span.current().setAttribute("ingestion.metric", metric.getMetricId());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        SourceRunEvent event = new SourceRunEvent();
+        event.begin();
+        String status = "FAILED";
+        try {
+            adapter.collect(metric);
+            status = "SUCCESS";
+        } finally {
+            sample.stop(meterRegistry.timer("ingestion.run", "source", adapter.getAdapterId(), "status", status));
+            if (event.shouldCommit()) {
+                event.sourceId = adapter.getAdapterId();
+                event.metricId = metric.getMetricId();
+                event.status = status;
+                event.commit();
+            }
         }
     }
 }
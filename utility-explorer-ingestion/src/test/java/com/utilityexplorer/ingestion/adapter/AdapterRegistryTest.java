@@ -2,6 +2,7 @@ package com.utilityexplorer.ingestion.adapter;
 
 import com.utilityexplorer.adapter.eia.EiaApiAdapter;
 import com.utilityexplorer.shared.adapter.IngestionAdapter;
+import com.utilityexplorer.shared.adapter.IngestionMetrics;
 import com.utilityexplorer.shared.dto.IngestionEvent;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +25,10 @@ class AdapterRegistryTest {
     private KafkaTemplate<String, IngestionEvent> kafkaTemplate;
 
     @MockBean
-    private com.utilityexplorer.shared.persistence.FactValueRepository factValueRepository;
+    private com.utilityexplorer.shared.persistence.FactWatermarkRepository factWatermarkRepository;
+
+    @MockBean
+    private IngestionMetrics ingestionMetrics;
 
     @Test
     void registry_shouldDiscoverEiaAdapter() {
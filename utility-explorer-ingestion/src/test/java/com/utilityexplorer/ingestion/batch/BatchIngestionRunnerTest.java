@@ -0,0 +1,90 @@
+package com.utilityexplorer.ingestion.batch;
+
+import com.utilityexplorer.ingestion.adapter.AdapterRegistry;
+import com.utilityexplorer.ingestion.scheduler.IngestionScheduler;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BatchIngestionRunnerTest {
+
+    private final IngestionScheduler scheduler = mock(IngestionScheduler.class);
+    private final AdapterRegistry adapterRegistry = mock(AdapterRegistry.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final BatchSendListener sendListener = new BatchSendListener();
+
+    @BeforeEach
+    void setUp() {
+        when(adapterRegistry.getAdapterIds()).thenReturn(Set.of("EIA_API", "ACS_API", "WEATHER_INSIGHTS"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void runsOnlyTheRequestedAdaptersAndFlushes() {
+        BatchIngestionRunner runner = runner("");
+
+        runner.run(new DefaultApplicationArguments("--adapters=EIA_API, ACS_API"));
+
+        ArgumentCaptor<Predicate<String>> filter = ArgumentCaptor.forClass(Predicate.class);
+        verify(scheduler).runCycle(filter.capture());
+        assertTrue(filter.getValue().test("EIA_API"));
+        assertTrue(filter.getValue().test("ACS_API"));
+        assertFalse(filter.getValue().test("WEATHER_INSIGHTS"));
+        verify(kafkaTemplate).flush();
+        assertEquals(BatchIngestionRunner.EXIT_OK, runner.getExitCode());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void runsEveryAdapterWhenNoneAreSelected() {
+        BatchIngestionRunner runner = runner("");
+
+        runner.run(new DefaultApplicationArguments());
+
+        ArgumentCaptor<Predicate<String>> filter = ArgumentCaptor.forClass(Predicate.class);
+        verify(scheduler).runCycle(filter.capture());
+        assertTrue(filter.getValue().test("WEATHER_INSIGHTS"));
+        assertEquals(BatchIngestionRunner.EXIT_OK, runner.getExitCode());
+    }
+
+    @Test
+    void unknownAdapterFailsWithoutRunning() {
+        BatchIngestionRunner runner = runner("EIA_API,FCC_API");
+
+        runner.run(new DefaultApplicationArguments());
+
+        verify(scheduler, never()).runCycle(any());
+        assertEquals(BatchIngestionRunner.EXIT_USAGE, runner.getExitCode());
+    }
+
+    @Test
+    void failedRunsAndSendsFailTheJob() {
+        when(scheduler.runCycle(any())).thenReturn(1);
+        BatchIngestionRunner failedRun = runner("EIA_API");
+        failedRun.run(new DefaultApplicationArguments());
+        assertEquals(BatchIngestionRunner.EXIT_FAILED, failedRun.getExitCode());
+
+        when(scheduler.runCycle(any())).thenReturn(0);
+        sendListener.onError(new ProducerRecord<>("raw-utility-data", "value"), null, new RuntimeException("timeout"));
+        BatchIngestionRunner failedSend = runner("EIA_API");
+        failedSend.run(new DefaultApplicationArguments());
+        assertEquals(BatchIngestionRunner.EXIT_FAILED, failedSend.getExitCode());
+    }
+
+    private BatchIngestionRunner runner(String configuredAdapters) {
+        return new BatchIngestionRunner(scheduler, adapterRegistry, kafkaTemplate, sendListener, configuredAdapters);
+    }
+}
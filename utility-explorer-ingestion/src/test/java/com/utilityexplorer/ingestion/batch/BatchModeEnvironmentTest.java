@@ -0,0 +1,43 @@
+package com.utilityexplorer.ingestion.batch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchModeEnvironmentTest {
+
+    private final BatchModeEnvironment postProcessor = new BatchModeEnvironment();
+
+    @Test
+    void batchModeDisablesTheWebServerAndConsumer() {
+        MockEnvironment environment = new MockEnvironment().withProperty("INGESTION_MODE", "Batch");
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertEquals("none", environment.getProperty("spring.main.web-application-type"));
+        assertEquals("false", environment.getProperty("spring.kafka.listener.auto-startup"));
+    }
+
+    @Test
+    void serviceModeAndUnsetLeaveTheEnvironmentAlone() {
+        MockEnvironment service = new MockEnvironment().withProperty("INGESTION_MODE", "service");
+        MockEnvironment unset = new MockEnvironment();
+
+        postProcessor.postProcessEnvironment(service, new SpringApplication());
+        postProcessor.postProcessEnvironment(unset, new SpringApplication());
+
+        assertNull(service.getProperty("spring.main.web-application-type"));
+        assertNull(unset.getProperty("spring.main.web-application-type"));
+    }
+
+    @Test
+    void unknownModeFailsStartup() {
+        MockEnvironment environment = new MockEnvironment().withProperty("INGESTION_MODE", "bacth");
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+            () -> postProcessor.postProcessEnvironment(environment, new SpringApplication()));
+        assertTrue(error.getMessage().contains("bacth"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.utilityexplorer.ingestion.freshness;
+
+import com.utilityexplorer.shared.dto.IngestionEvent;
+import com.utilityexplorer.shared.persistence.FactWatermark;
+import com.utilityexplorer.shared.persistence.FactWatermarkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PipelineFreshnessMonitorTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+
+    @Test
+    void reportsFreshnessFromNewestWatermarkAndLagAtWriteTime() {
+        List<FactWatermark> watermarks = List.of(
+            watermark("TEMP_CURRENT_F", NOW.minusSeconds(600), LocalDate.of(2024, 3, 1)),
+            watermark("TEMP_CURRENT_F", NOW.minusSeconds(90), LocalDate.of(2024, 2, 29)));
+        FactWatermarkRepository repository = mock(FactWatermarkRepository.class);
+        when(repository.findAll()).thenReturn(watermarks);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PipelineFreshnessMonitor monitor = new PipelineFreshnessMonitor(registry, repository, mock(KafkaAdmin.class),
+            "raw-utility-data", "ingestion-group", Clock.fixed(NOW, ZoneOffset.UTC));
+
+        IngestionEvent event = new IngestionEvent();
+        event.setMetricId("TEMP_CURRENT_F");
+        event.setFetchedAt(NOW.minusSeconds(3));
+        event.setPublishedAt(NOW.minusSeconds(1));
+        monitor.recordWrite(event, NOW);
+        monitor.refreshWatermarks();
+
+        PipelineFreshnessMonitor.MetricFreshness freshness = monitor.report().metrics().get(0);
+        assertEquals(90, freshness.freshnessSeconds());
+        assertEquals(LocalDate.of(2024, 3, 1), freshness.latestPeriodStart());
+        assertEquals(1, freshness.fetchToWrite().count());
+        assertEquals(3000, freshness.fetchToWrite().maxMs(), 1);
+        assertEquals(90, registry.get("ingestion.freshness").tag("metric", "TEMP_CURRENT_F").gauge().value());
+        assertEquals(1000, registry.get("ingestion.pipeline.lag").tag("stage", "publish_to_write").timer()
+            .totalTime(TimeUnit.MILLISECONDS), 1);
+        assertTrue(Double.isNaN(registry.get("ingestion.consumer.lag").gauge().value()));
+    }
+
+    private static FactWatermark watermark(String metricId, Instant lastWrittenAt, LocalDate latestPeriodStart) {
+        FactWatermark watermark = mock(FactWatermark.class);
+        when(watermark.getMetricId()).thenReturn(metricId);
+        when(watermark.getLastWrittenAt()).thenReturn(lastWrittenAt);
+        when(watermark.getLatestPeriodStart()).thenReturn(latestPeriodStart);
+        return watermark;
+    }
+}
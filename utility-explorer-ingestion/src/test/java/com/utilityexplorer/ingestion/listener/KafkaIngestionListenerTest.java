@@ -0,0 +1,58 @@
+package com.utilityexplorer.ingestion.listener;
+
+import com.utilityexplorer.ingestion.freshness.PipelineFreshnessMonitor;
+import com.utilityexplorer.shared.dto.IngestionEvent;
+import com.utilityexplorer.shared.persistence.FactValue;
+import com.utilityexplorer.shared.persistence.FactValueWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class KafkaIngestionListenerTest {
+
+    @Test
+    void retriesFailedBatchRecordByRecordAndCountsOutcomes() {
+        FactValueWriter writer = mock(FactValueWriter.class);
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            List<FactValue> facts = invocation.getArgument(0);
+            if (facts.size() > 1) {
+                throw new IllegalStateException("constraint violation");
+            }
+            if ("bad".equals(facts.get(0).getGeoId())) {
+                throw new IllegalStateException("bad row");
+            }
+            return 1;
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PipelineFreshnessMonitor freshnessMonitor = mock(PipelineFreshnessMonitor.class);
+        KafkaIngestionListener listener = new KafkaIngestionListener(writer, freshnessMonitor, registry);
+
+        listener.listen(List.of(record(0, event("06")), record(1, event("bad")), record(2, event("48"))));
+
+        verify(writer, times(4)).write(anyList());
+        verify(freshnessMonitor, times(2)).recordWrite(any(IngestionEvent.class), any(Instant.class));
+        assertEquals(2, registry.get("ingestion.listener.records").tag("outcome", "saved").counter().count());
+        assertEquals(1, registry.get("ingestion.listener.records").tag("outcome", "failed").counter().count());
+        assertEquals(3, registry.get("ingestion.listener.batch.size").summary().totalAmount());
+        assertEquals(1, registry.get("ingestion.listener.write").timer().count());
+    }
+
+    private static ConsumerRecord<String, IngestionEvent> record(long offset, IngestionEvent event) {
+        return new ConsumerRecord<>("raw-utility-data", 0, offset, event.getMetricId() + ":" + event.getGeoId(), event);
+    }
+
+    private static IngestionEvent event(String geoId) {
+        return new IngestionEvent("TEMP_CURRENT_F", "WEATHER_INSIGHTS_API", "STATE", geoId,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), BigDecimal.ONE);
+    }
+}
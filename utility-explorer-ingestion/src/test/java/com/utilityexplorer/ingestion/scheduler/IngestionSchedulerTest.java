@@ -0,0 +1,61 @@
+package com.utilityexplorer.ingestion.scheduler;
+
+import com.utilityexplorer.ingestion.adapter.AdapterRegistry;
+import com.utilityexplorer.shared.adapter.IngestionAdapter;
+import com.utilityexplorer.shared.persistence.Metric;
+import com.utilityexplorer.shared.persistence.MetricRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionSchedulerTest {
+
+    @Mock
+    private MetricRepository metricRepository;
+
+    @Mock
+    private AdapterRegistry adapterRegistry;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private IngestionScheduler scheduler;
+
+    @Test
+    void runCycle_countsAdapterUpstreamFailuresAndKeepsGoing() {
+        IngestionAdapter eia = mock(IngestionAdapter.class);
+        when(eia.getAdapterId()).thenReturn("EIA_API");
+        doThrow(new IllegalStateException("[EIA_API] PRICE fetch returned 503: unavailable"))
+            .doNothing()
+            .when(eia).collect(any(Metric.class));
+        when(adapterRegistry.getAdapter("EIA_API")).thenReturn(Optional.of(eia));
+        when(metricRepository.findAll()).thenReturn(List.of(metric("PRICE"), metric("SALES")));
+
+        int failures = scheduler.runCycle(adapterId -> true);
+
+        assertEquals(1, failures);
+        verify(eia, times(2)).collect(any(Metric.class));
+        assertEquals(1, meterRegistry.get("ingestion.run").tag("status", "FAILED").timer().count());
+        assertEquals(1, meterRegistry.get("ingestion.run").tag("status", "SUCCESS").timer().count());
+    }
+
+    private static Metric metric(String metricId) {
+        Metric metric = new Metric();
+        metric.setMetricId(metricId);
+        metric.setIngestionConfigJson("{\"adapter\": \"EIA_API\"}");
+        return metric;
+    }
+}
@@ -15,6 +15,8 @@ import numpy as np
 import datetime
 import spacy
 import asyncio
+import json
+import requests
 from metadata_consumer import consume_metadata
 from llm_client import LLMClient
 
@@ -43,6 +45,11 @@ US_STATES = {
 # Reverse mapping for display (FIPS -> State Name)
 FIPS_TO_NAME = {v: k.title() for k, v in US_STATES.items() if len(k) > 2}
 
+# Generated SQL is executed by the API's guarded endpoint
+GUARDED_SQL_URL = os.getenv("GUARDED_SQL_URL", "http://localhost:8090/api/v1/sql/query")
+GUARDED_SQL_MAX_ROWS = int(os.getenv("GUARDED_SQL_MAX_ROWS", "200"))
+UTIL_AGENT_API_KEY = os.getenv("UTIL_AGENT_API_KEY", "dev_key_change_me")
+
 # Global ML Model
 intent_model = None
 nlp = None
@@ -176,9 +183,9 @@ async def query_agent(request: QueryRequest, db: Session = Depends(get_db)):
             print(f"INFO: Generated SQL: {generated_sql}")
             
             if generated_sql and "SELECT" in generated_sql.upper():
-                # SAFETY: Execute Read-Only? In real PROD use a read-only DB user.
-                # using text() for raw sql
-                result_rows = db.execute(text(generated_sql)).fetchall()
+                # SAFETY: generated SQL runs through the API's guarded endpoint (allowlisted
+                # tables, read-only transaction, timeout, row cap), never on our own connection
+                result_rows = await asyncio.to_thread(run_guarded_sql, generated_sql)
                 
                 # Format response blindly
                 if result_rows:
@@ -215,6 +222,25 @@ async def query_agent(request: QueryRequest, db: Session = Depends(get_db)):
     )
 
 
+def run_guarded_sql(sql: str) -> List[Dict]:
+    """
+    Executes generated SQL via the API's /api/v1/sql/query endpoint, which streams NDJSON rows.
+    """
+    response = requests.post(
+        GUARDED_SQL_URL,
+        json={"sql": sql, "maxRows": GUARDED_SQL_MAX_ROWS},
+        headers={"X-API-Key": UTIL_AGENT_API_KEY},
+        timeout=30,
+    )
+    if response.status_code != 200:
+        try:
+            detail = response.json().get("message", response.text)
+        except ValueError:
+            detail = response.text
+        raise RuntimeError(f"Guarded SQL endpoint returned {response.status_code}: {detail}")
+    return [json.loads(line) for line in response.text.splitlines() if line.strip()]
+
+
 def handle_rule_based_query(request, db, intent):
     """
     Refactored legacy logic into a helper function to clean up the main handler.
@@ -114,3 +114,53 @@ def test_query_agent_utility_success(client, mocker):
     assert response.status_code == 200
     data = response.json()
     assert "Retrieving pricing" in data["answer"]
+
+def test_run_guarded_sql_parses_ndjson_rows(mocker):
+    """Generated SQL goes to the API's guarded endpoint and each NDJSON line becomes a row"""
+    import main
+
+    mock_response = mocker.Mock(status_code=200, text='{"geo_id": "06", "value": 71.5}\n\n{"geo_id": "20", "value": 12.1}\n')
+    post = mocker.patch('main.requests.post', return_value=mock_response)
+
+    rows = main.run_guarded_sql("SELECT geo_id, value_numeric AS value FROM fact_value")
+
+    assert rows == [{"geo_id": "06", "value": 71.5}, {"geo_id": "20", "value": 12.1}]
+    args, kwargs = post.call_args
+    assert args[0] == main.GUARDED_SQL_URL
+    assert kwargs["json"] == {"sql": "SELECT geo_id, value_numeric AS value FROM fact_value",
+                              "maxRows": main.GUARDED_SQL_MAX_ROWS}
+    assert kwargs["headers"] == {"X-API-Key": main.UTIL_AGENT_API_KEY}
+
+def test_run_guarded_sql_raises_with_the_rejection_message(mocker):
+    """A rejected statement surfaces the endpoint's message instead of an empty result"""
+    import main
+
+    mock_response = mocker.Mock(status_code=400, text="bad request")
+    mock_response.json.return_value = {"message": "Table not allowed: user_query"}
+    mocker.patch('main.requests.post', return_value=mock_response)
+
+    with pytest.raises(RuntimeError, match="400: Table not allowed: user_query"):
+        main.run_guarded_sql("SELECT * FROM user_query")
+
+def test_query_agent_genai_fallback_runs_guarded_sql(client, mocker):
+    """Low-confidence questions fall back to generated SQL executed through run_guarded_sql"""
+    from models import IntentResponse
+
+    mock_intent = IntentResponse(
+        intent_type="unknown",
+        confidence=0.2,
+        response_text="",
+        entities={}
+    )
+    mocker.patch('main.identify_intent', return_value=mock_intent)
+    mock_llm = mocker.Mock()
+    mock_llm.generate_sql = mocker.AsyncMock(return_value="SELECT geo_id FROM fact_value LIMIT 1")
+    mocker.patch('main.llm_client', mock_llm)
+    run_guarded_sql = mocker.patch('main.run_guarded_sql', return_value=[{"geo_id": "06"}])
+
+    response = client.post("/query", json={"question": "Which state has the oddest prices?"})
+    assert response.status_code == 200
+    data = response.json()
+    run_guarded_sql.assert_called_once_with("SELECT geo_id FROM fact_value LIMIT 1")
+    assert data["sources"] == ["GEN_AI_SQL"]
+    assert data["debug_meta"]["sql_result"] == ["{'geo_id': '06'}"]
@@ -13,6 +13,9 @@ public interface IngestionAdapter {
 
     /**
      * Triggers the collection logic for the given metric.
+     * Upstream failures (error status, I/O error, unreadable response) are thrown rather than
+     * logged, so the caller can count the run as failed; a metric the adapter is not configured
+     * to fetch is skipped without an exception.
      * @param metric The metadata defining what to fetch (series ID, variable name, etc.)
      */
     void collect(Metric metric);
@@ -0,0 +1,48 @@
+package com.utilityexplorer.shared.adapter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Volume meters shared by the API's source plugins and the ingestion service's adapters.
+ *
+ * Both applications scan com.utilityexplorer, so this is a bean on the application's
+ * MeterRegistry and plugins and adapters get it injected. Run durations are recorded by the
+ * dispatcher and scheduler that invoke the plugins and adapters.
+ */
+@Component
+public class IngestionMetrics {
+
+    public static final String FETCHED_BYTES = "ingestion.fetch.bytes";
+    public static final String ROWS = "ingestion.rows";
+
+    private final MeterRegistry meterRegistry;
+
+    public IngestionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Records the size of one upstream response body (its length, equal to bytes for ASCII JSON). */
+    public void recordFetch(String source, String body) {
+        if (body == null) {
+            return;
+        }
+        DistributionSummary.builder(FETCHED_BYTES)
+            .description("Upstream response body size per fetch")
+            .baseUnit("bytes")
+            .tag("source", source)
+            .register(meterRegistry)
+            .record(body.length());
+    }
+
+    /** Counts rows written (plugins) or published (adapters) for a source. */
+    public void recordRows(String source, int rows) {
+        Counter.builder(ROWS)
+            .description("Rows produced by ingestion")
+            .tag("source", source)
+            .register(meterRegistry)
+            .increment(rows);
+    }
+}
@@ -0,0 +1,111 @@
+package com.utilityexplorer.shared.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports virtual threads pinned to their carrier, typically by blocking inside a
+ * {@code synchronized} block, while virtual threads are enabled.
+ *
+ * Streams the JDK's {@code jdk.VirtualThreadPinned} events in-process into
+ * {@code jvm.threads.virtual.pinned} (tagged with the innermost application frame; its count is the
+ * number of pinning events) and logs the pinning frame, so a lock that needs to become a
+ * {@code ReentrantLock} shows up without a profiler. A hot lock can pin thousands of times a
+ * minute, so each frame is logged at most once per {@code VIRTUAL_THREADS_PINNED_LOG_INTERVAL_MS}
+ * with the number of events suppressed since. Does nothing on platform threads.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.utilityexplorer.";
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    // Per frame: when it may next be logged (nanoTime) and the events suppressed until then
+    private record LogWindow(AtomicLong nextLogAt, AtomicLong suppressed) {}
+
+    private final MeterRegistry meterRegistry;
+    private final long logIntervalNanos;
+    private final Map<String, LogWindow> logWindows = new ConcurrentHashMap<>();
+    private final RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${VIRTUAL_THREADS_PINNED_THRESHOLD_MS:20}") long thresholdMs,
+                                       @Value("${VIRTUAL_THREADS_PINNED_LOG_INTERVAL_MS:60000}") long logIntervalMs) {
+        this.meterRegistry = meterRegistry;
+        this.logIntervalNanos = Duration.ofMillis(logIntervalMs).toNanos();
+        if (!VirtualThreads.isEnabled()) {
+            this.stream = null;
+            return;
+        }
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+    }
+
+    private void record(RecordedEvent event) {
+        String frame = applicationFrame(event);
+        Timer.builder("jvm.threads.virtual.pinned")
+            .description("Time virtual threads spent pinned to their carrier thread")
+            .tag("frame", frame)
+            .register(meterRegistry)
+            .record(event.getDuration());
+        log(frame, event.getDuration());
+    }
+
+    private void log(String frame, Duration pinned) {
+        LogWindow window = logWindows.computeIfAbsent(frame,
+            f -> new LogWindow(new AtomicLong(System.nanoTime()), new AtomicLong()));
+        long now = System.nanoTime();
+        long due = window.nextLogAt().get();
+        if (now - due < 0 || !window.nextLogAt().compareAndSet(due, now + logIntervalNanos)) {
+            window.suppressed().incrementAndGet();
+            return;
+        }
+        long suppressed = window.suppressed().getAndSet(0);
+        if (suppressed > 0) {
+            logger.warn("Virtual thread pinned for {}ms at {} ({} more pinning events there since the last report)",
+                pinned.toMillis(), frame, suppressed);
+        } else {
+            logger.warn("Virtual thread pinned for {}ms at {}", pinned.toMillis(), frame);
+        }
+    }
+
+    private static String applicationFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APPLICATION_PACKAGE)) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return frames.isEmpty() ? "unknown"
+            : frames.get(0).getMethod().getType().getName() + "." + frames.get(0).getMethod().getName();
+    }
+
+    @PreDestroy
+    void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.utilityexplorer.shared.concurrent;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for the application's own executors and HTTP clients, virtual when
+ * {@code VIRTUAL_THREADS_ENABLED} is set and the JVM is Java 21 or newer.
+ *
+ * Spring Boot moves Tomcat, {@code @Scheduled} tasks and Kafka listeners onto virtual threads from
+ * the same variable (through {@code spring.threads.virtual.enabled}); this covers the pools and
+ * clients the code creates itself, including adapters in library modules that have no Spring
+ * configuration of their own. The code compiles for Java 17, so on an older JVM the flag is
+ * ignored with a warning.
+ */
+public final class VirtualThreads {
+
+    public static final String ENABLED_VARIABLE = "VIRTUAL_THREADS_ENABLED";
+
+    private static final boolean ENABLED = resolve();
+
+    private VirtualThreads() {}
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Names threads {@code <prefix><n>}. Pools built on this keep their concurrency limits and
+     * queues; only the threads behind them become virtual.
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        if (ENABLED) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** An HTTP client builder whose asynchronous work runs on virtual threads when enabled. */
+    public static HttpClient.Builder httpClientBuilder() {
+        HttpClient.Builder builder = HttpClient.newBuilder();
+        if (ENABLED) {
+            builder.executor(new VirtualThreadTaskExecutor("http-client-"));
+        }
+        return builder;
+    }
+
+    private static boolean resolve() {
+        String value = System.getProperty(ENABLED_VARIABLE, System.getenv(ENABLED_VARIABLE));
+        if (!Boolean.parseBoolean(value)) {
+            return false;
+        }
+        if (Runtime.version().feature() < 21) {
+            System.err.println("Warning: " + ENABLED_VARIABLE + " requires Java 21; using platform threads.");
+            return false;
+        }
+        return true;
+    }
+}
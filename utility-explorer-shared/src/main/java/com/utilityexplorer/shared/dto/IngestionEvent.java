@@ -2,6 +2,7 @@ package com.utilityexplorer.shared.dto;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 
 public class IngestionEvent implements Serializable {
@@ -14,6 +15,11 @@ public class IngestionEvent implements Serializable {
     private BigDecimal value;
     private String aggregationMethod;
     private boolean isAggregated;
+    // Pipeline timestamps: upstream response received, event sent to Kafka, and the source's own
+    // publication time when it reports one. Events from older producers leave them null.
+    private Instant fetchedAt;
+    private Instant publishedAt;
+    private Instant sourcePublishedAt;
 
     public IngestionEvent() {}
 
@@ -55,6 +61,15 @@ public class IngestionEvent implements Serializable {
     public boolean isAggregated() { return isAggregated; }
     public void setAggregated(boolean aggregated) { isAggregated = aggregated; }
 
+    public Instant getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(Instant fetchedAt) { this.fetchedAt = fetchedAt; }
+
+    public Instant getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(Instant publishedAt) { this.publishedAt = publishedAt; }
+
+    public Instant getSourcePublishedAt() { return sourcePublishedAt; }
+    public void setSourcePublishedAt(Instant sourcePublishedAt) { this.sourcePublishedAt = sourcePublishedAt; }
+
     @Override
     public String toString() {
         return "IngestionEvent{metric=" + metricId + ", source=" + sourceId + ", val=" + value + "}";
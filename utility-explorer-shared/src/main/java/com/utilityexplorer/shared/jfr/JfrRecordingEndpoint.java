@@ -0,0 +1,177 @@
+package com.utilityexplorer.shared.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.SecurityContext;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Actuator endpoint for an on-demand flight recording, including the application's own
+ * {@code com.utilityexplorer.*} events.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/jfr}: state of the current recording.</li>
+ *   <li>{@code POST /actuator/jfr/start}: starts one with {@code settings} ("default" or "profile"),
+ *       optional {@code maxAgeSeconds} and {@code durationSeconds}.</li>
+ *   <li>{@code POST /actuator/jfr/stop}: stops it, keeping the data for a dump.</li>
+ *   <li>{@code GET /actuator/jfr/dump}: downloads what has been recorded so far as a .jfr file.</li>
+ * </ul>
+ *
+ * Disabled unless {@code management.endpoint.jfr.enabled} is set, since dumps contain request
+ * parameters; only one recording exists at a time and starting a new one discards the previous.
+ *
+ * Every operation also requires an authenticated principal (Spring Security or container auth in
+ * front of the actuator) and returns 401 without one. Deployments that instead restrict the
+ * actuator at the network level, such as a separate management port or an authenticating proxy,
+ * opt out with {@code JFR_ENDPOINT_ALLOW_UNAUTHENTICATED=true}.
+ */
+@Component
+@Endpoint(id = "jfr", enableByDefault = false)
+public class JfrRecordingEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingEndpoint.class);
+
+    private static final String RECORDING_NAME = "utility-explorer";
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(30);
+    private static final long MAX_SIZE_BYTES = 256L * 1024 * 1024;
+    private static final int STATUS_UNAUTHORIZED = 401;
+
+    public record RecordingStatus(String name, String state, String settings, Instant startedAt,
+                                  Instant stoppedAt, Long maxAgeSeconds, Long durationSeconds, long sizeBytes) {}
+
+    private final boolean allowUnauthenticated;
+
+    private Recording recording;
+    private String settings;
+    private Path lastDump;
+
+    public JfrRecordingEndpoint(@Value("${JFR_ENDPOINT_ALLOW_UNAUTHENTICATED:false}") boolean allowUnauthenticated) {
+        this.allowUnauthenticated = allowUnauthenticated;
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<RecordingStatus> status(SecurityContext securityContext) {
+        if (!authorized(securityContext)) {
+            return new WebEndpointResponse<>(STATUS_UNAUTHORIZED);
+        }
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(describe());
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Object> control(SecurityContext securityContext,
+                                                            @Selector String action, @Nullable String settings,
+                                                            @Nullable Long maxAgeSeconds,
+                                                            @Nullable Long durationSeconds) {
+        if (!authorized(securityContext)) {
+            return new WebEndpointResponse<>(STATUS_UNAUTHORIZED);
+        }
+        switch (action) {
+            case "start":
+                return start(settings == null ? "profile" : settings, maxAgeSeconds, durationSeconds);
+            case "stop":
+                if (recording == null) {
+                    return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+                }
+                if (recording.getState() == RecordingState.RUNNING) {
+                    recording.stop();
+                }
+                return new WebEndpointResponse<>(describe());
+            default:
+                return new WebEndpointResponse<>("Unknown action: " + action, WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> dump(SecurityContext securityContext,
+                                                           @Selector String action) throws IOException {
+        if (!authorized(securityContext)) {
+            return new WebEndpointResponse<>(STATUS_UNAUTHORIZED);
+        }
+        if (!"dump".equals(action) || recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        deleteLastDump();
+        lastDump = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        recording.dump(lastDump);
+        return new WebEndpointResponse<>(new FileSystemResource(lastDump));
+    }
+
+    private boolean authorized(SecurityContext securityContext) {
+        return allowUnauthenticated || (securityContext != null && securityContext.getPrincipal() != null);
+    }
+
+    private WebEndpointResponse<Object> start(String settings, Long maxAgeSeconds, Long durationSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(describe(), 409);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (Exception e) {
+            return new WebEndpointResponse<>("Unknown settings: " + settings, WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        close();
+        Recording next = new Recording(configuration);
+        next.setName(RECORDING_NAME);
+        next.setToDisk(true);
+        next.setMaxAge(maxAgeSeconds != null ? Duration.ofSeconds(maxAgeSeconds) : DEFAULT_MAX_AGE);
+        next.setMaxSize(MAX_SIZE_BYTES);
+        if (durationSeconds != null) {
+            next.setDuration(Duration.ofSeconds(durationSeconds));
+        }
+        next.start();
+        this.recording = next;
+        this.settings = settings;
+        return new WebEndpointResponse<>(describe());
+    }
+
+    private RecordingStatus describe() {
+        return new RecordingStatus(recording.getName(), recording.getState().name(), settings,
+            recording.getStartTime(), recording.getStopTime(),
+            recording.getMaxAge() == null ? null : recording.getMaxAge().toSeconds(),
+            recording.getDuration() == null ? null : recording.getDuration().toSeconds(),
+            recording.getSize());
+    }
+
+    private void deleteLastDump() {
+        if (lastDump != null) {
+            try {
+                Files.deleteIfExists(lastDump);
+            } catch (IOException e) {
+                logger.warn("Failed to delete flight recording dump {}: {}", lastDump, e.getMessage());
+            }
+            lastDump = null;
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        deleteLastDump();
+    }
+}
@@ -0,0 +1,26 @@
+package com.utilityexplorer.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Writing one consumed Kafka batch to fact_value. */
+@Name("com.utilityexplorer.ListenerBatch")
+@Label("Ingestion Listener Batch")
+@Category({"Utility Explorer", "Ingestion"})
+@StackTrace(false)
+public class ListenerBatchEvent extends jdk.jfr.Event {
+
+    @Label("Records")
+    public int records;
+
+    @Label("Saved")
+    public int saved;
+
+    @Label("Failed")
+    public int failed;
+
+    @Label("Retried Individually")
+    public boolean retried;
+}
@@ -0,0 +1,37 @@
+package com.utilityexplorer.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Building one map snapshot from its facts, including region name lookups. */
+@Name("com.utilityexplorer.MapBuild")
+@Label("Map Build")
+@Category({"Utility Explorer", "API"})
+@StackTrace(false)
+public class MapBuildEvent extends jdk.jfr.Event {
+
+    @Label("Metric")
+    public String metricId;
+
+    @Label("Source")
+    public String sourceId;
+
+    @Label("Geo Level")
+    public String geoLevel;
+
+    @Label("Parent Geo Id")
+    public String parentGeoId;
+
+    @Label("Period Start")
+    public String periodStart;
+
+    @Label("Period End")
+    public String periodEnd;
+
+    @Label("Rows")
+    @Description("Facts in the snapshot, each needing a region lookup")
+    public int rows;
+}
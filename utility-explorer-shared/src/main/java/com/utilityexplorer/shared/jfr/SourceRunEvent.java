@@ -0,0 +1,29 @@
+package com.utilityexplorer.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One run of an API source plugin or one collect of an ingestion adapter. */
+@Name("com.utilityexplorer.SourceRun")
+@Label("Source Run")
+@Category({"Utility Explorer", "Ingestion"})
+@StackTrace(false)
+public class SourceRunEvent extends jdk.jfr.Event {
+
+    @Label("Source")
+    @Description("Source plugin id or ingestion adapter id")
+    public String sourceId;
+
+    @Label("Metric")
+    public String metricId;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Rows")
+    @Description("Rows upserted by a source plugin; adapters report published rows through ingestion.rows")
+    public int rows;
+}
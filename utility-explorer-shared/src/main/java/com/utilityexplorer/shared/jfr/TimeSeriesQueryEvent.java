@@ -0,0 +1,44 @@
+package com.utilityexplorer.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One time-series request: a single series, a multi-region series or a CSV export. */
+@Name("com.utilityexplorer.TimeSeriesQuery")
+@Label("Time Series Query")
+@Category({"Utility Explorer", "API"})
+@StackTrace(false)
+public class TimeSeriesQueryEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    @Description("series, multi or csv")
+    public String operation;
+
+    @Label("Metric")
+    public String metricId;
+
+    @Label("Source")
+    public String sourceId;
+
+    @Label("Geo Level")
+    public String geoLevel;
+
+    @Label("Geo Id")
+    @Description("The region, or the parent region for a multi-region request")
+    public String geoId;
+
+    @Label("Regions")
+    public int regions;
+
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Rows")
+    public int rows;
+}
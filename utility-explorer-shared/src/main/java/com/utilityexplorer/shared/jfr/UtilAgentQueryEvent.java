@@ -0,0 +1,28 @@
+package com.utilityexplorer.shared.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One Util Agent question, from the cache lookup to the final answer. */
+@Name("com.utilityexplorer.UtilAgentQuery")
+@Label("Util Agent Query")
+@Category({"Utility Explorer", "API"})
+@StackTrace(false)
+public class UtilAgentQueryEvent extends jdk.jfr.Event {
+
+    @Label("Question")
+    @Description("Truncated to 256 characters")
+    public String question;
+
+    @Label("Origin")
+    public String origin;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Table Rows")
+    public int rows;
+}
@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -59,13 +60,19 @@ public interface FactValueRepository extends JpaRepository<FactValue, FactValueI
                                   @Param("from") LocalDate from,
                                   @Param("to") LocalDate to);
 
+    @Query("SELECT f FROM FactValue f WHERE f.metricId = :metricId AND f.sourceId = :sourceId " +
+           "AND f.geoLevel = :geoLevel AND f.geoId IN :geoIds " +
+           "AND f.periodStart >= :from AND f.periodEnd <= :to ORDER BY f.geoId, f.periodStart")
+    List<FactValue> findTimeSeriesForGeos(@Param("metricId") String metricId,
+                                         @Param("sourceId") String sourceId,
+                                         @Param("geoLevel") String geoLevel,
+                                         @Param("geoIds") Collection<String> geoIds,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
+
     @Query("SELECT DISTINCT f.sourceId FROM FactValue f WHERE f.metricId = :metricId")
     List<String> findDistinctSourceIdsByMetric(@Param("metricId") String metricId);
 
-    @Query("SELECT MAX(f.periodStart) FROM FactValue f WHERE f.metricId = :metricId AND f.sourceId = :sourceId")
-    LocalDate findLatestPeriodForMetricAndSource(@Param("metricId") String metricId,
-                                                @Param("sourceId") String sourceId);
-
     @Query("SELECT f FROM FactValue f WHERE f.metricId = :metricId AND f.sourceId = :sourceId " +
            "AND f.geoLevel = :geoLevel AND f.periodStart = :periodStart")
     List<FactValue> findByMetricSourceGeoLevelAndPeriod(@Param("metricId") String metricId,
@@ -0,0 +1,94 @@
+package com.utilityexplorer.shared.persistence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Upserts facts into fact_value with one statement per batch, for the Kafka listener and the
+ * API's in-process source plugins alike.
+ *
+ * Rows are passed as parallel arrays and expanded with unnest, so a batch costs one round trip and
+ * one firing of each fact_value statement trigger (metric_source, fact_watermark) rather than a
+ * SELECT plus an INSERT or UPDATE per fact, which is what {@code saveAll} does for the entity's
+ * assigned composite key. A batch may not touch the same key twice, so repeats keep the last fact.
+ */
+@Component
+public class FactValueWriter {
+
+    static final String UPSERT_SQL =
+        "INSERT INTO fact_value (metric_id, source_id, geo_level, geo_id, period_start, period_end, " +
+        "value_numeric, retrieved_at, source_published_at, is_aggregated, aggregation_method) " +
+        "SELECT metric_id, source_id, geo_level, geo_id, period_start::date, period_end::date, " +
+        "value_numeric::numeric, retrieved_at::timestamptz, source_published_at::timestamptz, " +
+        "is_aggregated::boolean, aggregation_method " +
+        "FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], " +
+        "?::text[], ?::text[], ?::text[], ?::text[], ?::text[]) " +
+        "AS t(metric_id, source_id, geo_level, geo_id, period_start, period_end, " +
+        "value_numeric, retrieved_at, source_published_at, is_aggregated, aggregation_method) " +
+        "ON CONFLICT (metric_id, source_id, geo_level, geo_id, period_start, period_end) DO UPDATE SET " +
+        "value_numeric = EXCLUDED.value_numeric, " +
+        "retrieved_at = EXCLUDED.retrieved_at, " +
+        "source_published_at = EXCLUDED.source_published_at, " +
+        "is_aggregated = EXCLUDED.is_aggregated, " +
+        "aggregation_method = EXCLUDED.aggregation_method";
+
+    private record Key(String metricId, String sourceId, String geoLevel, String geoId,
+                       LocalDate periodStart, LocalDate periodEnd) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FactValueWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Writes the facts in one statement and returns the number of distinct rows upserted. */
+    public int write(List<FactValue> facts) {
+        if (facts.isEmpty()) {
+            return 0;
+        }
+        Map<Key, FactValue> unique = new LinkedHashMap<>();
+        for (FactValue fact : facts) {
+            unique.put(new Key(fact.getMetricId(), fact.getSourceId(), fact.getGeoLevel(), fact.getGeoId(),
+                fact.getPeriodStart(), fact.getPeriodEnd()), fact);
+        }
+        Collection<FactValue> rows = unique.values();
+        return jdbcTemplate.update(UPSERT_SQL, ps -> {
+            int i = 0;
+            ps.setArray(++i, column(ps, rows, FactValue::getMetricId));
+            ps.setArray(++i, column(ps, rows, FactValue::getSourceId));
+            ps.setArray(++i, column(ps, rows, FactValue::getGeoLevel));
+            ps.setArray(++i, column(ps, rows, FactValue::getGeoId));
+            ps.setArray(++i, column(ps, rows, FactValue::getPeriodStart));
+            ps.setArray(++i, column(ps, rows, FactValue::getPeriodEnd));
+            ps.setArray(++i, column(ps, rows, fact -> fact.getValueNumeric() == null ? null : fact.getValueNumeric().toPlainString()));
+            ps.setArray(++i, column(ps, rows, FactValue::getRetrievedAt));
+            ps.setArray(++i, column(ps, rows, FactValue::getSourcePublishedAt));
+            ps.setArray(++i, column(ps, rows, fact -> Boolean.TRUE.equals(fact.getIsAggregated())));
+            ps.setArray(++i, column(ps, rows, FactValue::getAggregationMethod));
+        });
+    }
+
+    // Everything travels as text and is cast in SQL; dates and instants use their ISO-8601 forms
+    private static Array column(PreparedStatement ps, Collection<FactValue> rows,
+                                Function<FactValue, Object> value) throws SQLException {
+        Connection connection = ps.getConnection();
+        String[] values = new String[rows.size()];
+        int i = 0;
+        for (FactValue row : rows) {
+            Object v = value.apply(row);
+            values[i++] = v == null ? null : v.toString();
+        }
+        return connection.createArrayOf("text", values);
+    }
+}
@@ -0,0 +1,51 @@
+package com.utilityexplorer.shared.persistence;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Latest period per metric/source/geo level, maintained by fact_value triggers (see V30 migration).
+ */
+@Entity
+@Immutable
+@Table(name = "fact_watermark")
+@IdClass(FactWatermarkId.class)
+public class FactWatermark {
+
+    @Id
+    @Column(name = "metric_id")
+    private String metricId;
+
+    @Id
+    @Column(name = "source_id")
+    private String sourceId;
+
+    @Id
+    @Column(name = "geo_level")
+    private String geoLevel;
+
+    @Column(name = "latest_period_start", nullable = false)
+    private LocalDate latestPeriodStart;
+
+    @Column(name = "latest_period_end", nullable = false)
+    private LocalDate latestPeriodEnd;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    @Column(name = "last_written_at", nullable = false)
+    private Instant lastWrittenAt;
+
+    public FactWatermark() {}
+
+    public String getMetricId() { return metricId; }
+    public String getSourceId() { return sourceId; }
+    public String getGeoLevel() { return geoLevel; }
+    public LocalDate getLatestPeriodStart() { return latestPeriodStart; }
+    public LocalDate getLatestPeriodEnd() { return latestPeriodEnd; }
+    public Long getRowCount() { return rowCount; }
+    public Instant getLastWrittenAt() { return lastWrittenAt; }
+}
@@ -0,0 +1,33 @@
+package com.utilityexplorer.shared.persistence;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class FactWatermarkId implements Serializable {
+    private String metricId;
+    private String sourceId;
+    private String geoLevel;
+
+    public FactWatermarkId() {}
+
+    public FactWatermarkId(String metricId, String sourceId, String geoLevel) {
+        this.metricId = metricId;
+        this.sourceId = sourceId;
+        this.geoLevel = geoLevel;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FactWatermarkId that = (FactWatermarkId) o;
+        return Objects.equals(metricId, that.metricId) &&
+                Objects.equals(sourceId, that.sourceId) &&
+                Objects.equals(geoLevel, that.geoLevel);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(metricId, sourceId, geoLevel);
+    }
+}
@@ -0,0 +1,17 @@
+package com.utilityexplorer.shared.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface FactWatermarkRepository extends JpaRepository<FactWatermark, FactWatermarkId> {
+
+    // Primary-key prefix range: one row per geo level
+    @Query("SELECT MAX(w.latestPeriodStart) FROM FactWatermark w WHERE w.metricId = :metricId AND w.sourceId = :sourceId")
+    LocalDate findLatestPeriodStart(@Param("metricId") String metricId,
+                                    @Param("sourceId") String sourceId);
+}
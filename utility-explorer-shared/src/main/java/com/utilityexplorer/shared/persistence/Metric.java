@@ -43,6 +43,10 @@ public class Metric {
     @Column(name = "ingestion_config_json", columnDefinition = "TEXT")
     private String ingestionConfigJson;
 
+    // Comma-separated phrases users say for this metric (matched by the Util Agent)
+    @Column(name = "synonyms", columnDefinition = "TEXT")
+    private String synonyms;
+
     // Constructors
     public Metric() {}
 
@@ -86,4 +90,7 @@ public class Metric {
 
     public String getIngestionConfigJson() { return ingestionConfigJson; }
     public void setIngestionConfigJson(String ingestionConfigJson) { this.ingestionConfigJson = ingestionConfigJson; }
+
+    public String getSynonyms() { return synonyms; }
+    public void setSynonyms(String synonyms) { this.synonyms = synonyms; }
 }
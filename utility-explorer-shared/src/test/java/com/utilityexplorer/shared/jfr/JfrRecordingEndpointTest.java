@@ -0,0 +1,91 @@
+package com.utilityexplorer.shared.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.SecurityContext;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecordingEndpointTest {
+
+    private static final SecurityContext ADMIN = new SecurityContext() {
+        @Override
+        public Principal getPrincipal() {
+            return () -> "admin";
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return false;
+        }
+    };
+
+    private final JfrRecordingEndpoint endpoint = new JfrRecordingEndpoint(false);
+
+    @AfterEach
+    void tearDown() {
+        endpoint.close();
+    }
+
+    @Test
+    void dumpContainsApplicationEvents() throws Exception {
+        WebEndpointResponse<Object> started = endpoint.control(ADMIN, "start", "default", 60L, null);
+        assertEquals(200, started.getStatus());
+        assertEquals("RUNNING", ((JfrRecordingEndpoint.RecordingStatus) started.getBody()).state());
+
+        MapBuildEvent event = new MapBuildEvent();
+        event.begin();
+        event.metricId = "ELECTRICITY_RETAIL_PRICE_CENTS_PER_KWH";
+        event.geoLevel = "STATE";
+        event.rows = 51;
+        event.commit();
+
+        WebEndpointResponse<Resource> dump = endpoint.dump(ADMIN, "dump");
+        assertEquals(200, dump.getStatus());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump.getBody().getFile().toPath());
+        RecordedEvent recorded = events.stream()
+            .filter(e -> e.getEventType().getName().equals("com.utilityexplorer.MapBuild"))
+            .findFirst()
+            .orElseThrow();
+        assertEquals("STATE", recorded.getString("geoLevel"));
+        assertEquals(51, recorded.getInt("rows"));
+
+        WebEndpointResponse<Object> stopped = endpoint.control(ADMIN, "stop", null, null, null);
+        assertEquals("STOPPED", ((JfrRecordingEndpoint.RecordingStatus) stopped.getBody()).state());
+    }
+
+    @Test
+    void secondStartWhileRunningConflicts() {
+        endpoint.control(ADMIN, "start", "default", null, null);
+        assertEquals(409, endpoint.control(ADMIN, "start", "default", null, null).getStatus());
+    }
+
+    @Test
+    void rejectsUnknownActionsAndSettings() throws Exception {
+        assertEquals(400, endpoint.control(ADMIN, "restart", null, null, null).getStatus());
+        assertEquals(400, endpoint.control(ADMIN, "start", "no-such-settings", null, null).getStatus());
+        assertEquals(404, endpoint.status(ADMIN).getStatus());
+        assertEquals(404, endpoint.dump(ADMIN, "dump").getStatus());
+    }
+
+    @Test
+    void rejectsUnauthenticatedCallersUnlessAllowed() throws Exception {
+        assertEquals(401, endpoint.control(SecurityContext.NONE, "start", "default", null, null).getStatus());
+        assertEquals(401, endpoint.status(SecurityContext.NONE).getStatus());
+        assertEquals(401, endpoint.dump(SecurityContext.NONE, "dump").getStatus());
+
+        JfrRecordingEndpoint open = new JfrRecordingEndpoint(true);
+        try {
+            assertEquals(200, open.control(SecurityContext.NONE, "start", "default", null, null).getStatus());
+        } finally {
+            open.close();
+        }
+    }
+}
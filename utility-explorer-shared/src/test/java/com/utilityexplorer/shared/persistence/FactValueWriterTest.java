@@ -0,0 +1,71 @@
+package com.utilityexplorer.shared.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class FactValueWriterTest {
+
+    @Test
+    void upsertsTheWholeBatchInOneStatementKeepingTheLastRepeat() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(eq(FactValueWriter.UPSERT_SQL), any(PreparedStatementSetter.class))).thenReturn(2);
+        FactValueWriter writer = new FactValueWriter(jdbcTemplate);
+
+        assertEquals(2, writer.write(List.of(fact("06", "1.5"), fact("48", "2"), fact("06", "3.25"))));
+
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate, times(1)).update(eq(FactValueWriter.UPSERT_SQL), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(ps.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf(eq("text"), any())).thenReturn(mock(Array.class));
+        setter.getValue().setValues(ps);
+
+        ArgumentCaptor<Object[]> columns = ArgumentCaptor.forClass(Object[].class);
+        verify(connection, times(11)).createArrayOf(eq("text"), columns.capture());
+        verify(ps, times(11)).setArray(anyInt(), any(Array.class));
+        assertArrayEquals(new Object[] {"06", "48"}, columns.getAllValues().get(3));
+        assertArrayEquals(new Object[] {"2024-01-01", "2024-01-01"}, columns.getAllValues().get(4));
+        assertArrayEquals(new Object[] {"3.25", "2"}, columns.getAllValues().get(6));
+        assertArrayEquals(new Object[] {"2024-01-02T00:00:00Z", "2024-01-02T00:00:00Z"}, columns.getAllValues().get(7));
+        assertArrayEquals(new Object[] {null, null}, columns.getAllValues().get(8));
+        assertArrayEquals(new Object[] {"false", "false"}, columns.getAllValues().get(9));
+    }
+
+    @Test
+    void emptyBatchesSkipTheDatabase() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        assertEquals(0, new FactValueWriter(jdbcTemplate).write(List.of()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static FactValue fact(String geoId, String value) {
+        FactValue fact = new FactValue();
+        fact.setMetricId("TEMP_CURRENT_F");
+        fact.setSourceId("WEATHER_INSIGHTS_API");
+        fact.setGeoLevel("STATE");
+        fact.setGeoId(geoId);
+        fact.setPeriodStart(LocalDate.of(2024, 1, 1));
+        fact.setPeriodEnd(LocalDate.of(2024, 1, 1));
+        fact.setValueNumeric(new BigDecimal(value));
+        fact.setRetrievedAt(Instant.parse("2024-01-02T00:00:00Z"));
+        return fact;
+    }
+}